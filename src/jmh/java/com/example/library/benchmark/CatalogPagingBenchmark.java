@@ -0,0 +1,85 @@
+package com.example.library.benchmark;
+
+import com.example.library.LibraryApplication;
+import com.example.library.dto.response.BookResponse;
+import com.example.library.dto.response.CursorPage;
+import com.example.library.service.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+// Страница каталога в начале и в глубине большой таблицы books (H2 в памяти)
+// offset - GET /api/books/public?page=N (пропуск N*size строк и count);
+// cursor - GET /api/books/public?mode=cursor&after=... (поиск по индексу title, id)
+// offsetFields - GET /api/books/public?page=N&fields=id,title (только две колонки)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CatalogPagingBenchmark {
+
+    private static final int SIZE = 20;
+
+    @Param({"200000"})
+    private int books;
+
+    // Номер страницы: первая и близкая к концу таблицы
+    @Param({"0", "9999"})
+    private int page;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private String cursor;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(LibraryApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:paging;DB_CLOSE_DELAY=-1",
+                        "--debug=false",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.example.library=WARN",
+                        "--logging.file.name=");
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        jdbc.update("insert into books (title, author, isbn, available) "
+                + "select 'Book ' || lpad(x, 8, '0'), 'Author', 'B-' || x, true from system_range(1, ?)", books);
+        bookService = context.getBean(BookService.class);
+
+        // Курсор, указывающий на ту же позицию, что и страница page в режиме offset
+        cursor = null;
+        int remaining = page;
+        while (remaining > 0) {
+            int step = Math.min(remaining, 5);
+            CursorPage<BookResponse> skipped = bookService.getBooksAfter(cursor, SIZE * step);
+            cursor = skipped.getNext();
+            remaining -= step;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object offset() {
+        return bookService.getAllBooks(page, SIZE);
+    }
+
+    @Benchmark
+    public Object offsetFields() {
+        return bookService.getBookFields(page, SIZE, "id,title");
+    }
+
+    @Benchmark
+    public Object cursor() {
+        return bookService.getBooksAfter(cursor, SIZE);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.library.benchmark;
+
+import com.example.library.search.InvertedIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Поиск в индексе каталога при разном числе книг (без БД)
+// isbn - один найденный документ, rareWord - слово из ~10 названий, author - фамилия каждой 1000-й
+// книги вместе со словом "автор" из всех книг, commonWord - только слово "автор",
+// prefix - начало слова (раскрытие по словарю)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CatalogSearchBenchmark {
+
+    private static final String[] SYLLABLES = {"ба", "ве", "ги", "до", "жу", "зо", "ки", "ла", "ми", "но",
+            "пу", "ро", "са", "ту", "фе", "ха", "це", "чи", "ша", "юр"};
+
+    @Param({"20000", "200000"})
+    private int books;
+
+    private InvertedIndex index;
+    private String isbn;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        // Словарь: books / 10 слов, чтобы редкое слово встречалось примерно в 10 названиях
+        String[] words = IntStream.range(0, Math.max(1, books / 10)).mapToObj(CatalogSearchBenchmark::word)
+                .toArray(String[]::new);
+        index = new InvertedIndex(2.0f, 1.5f, 1.0f);
+        List<InvertedIndex.Document> documents = IntStream.range(0, books).parallel()
+                .mapToObj(i -> {
+                    Random local = new Random(i);
+                    String title = words[local.nextInt(words.length)] + " " + words[local.nextInt(words.length)];
+                    String author = "Автор " + word(i % 1000 + 100_000);
+                    return index.analyze(i, title, author, "978-5-" + (100000 + i));
+                })
+                .toList();
+        index.putAll(documents, id -> false);
+        isbn = "978-5-" + (100000 + random.nextInt(books));
+    }
+
+    // Слово из слогов по номеру (уникально для каждого номера)
+    private static String word(int n) {
+        StringBuilder word = new StringBuilder();
+        do {
+            word.append(SYLLABLES[n % SYLLABLES.length]);
+            n /= SYLLABLES.length;
+        } while (n > 0);
+        return word.toString();
+    }
+
+    @Benchmark
+    public Object isbn() {
+        return index.search(isbn, 0, 10);
+    }
+
+    @Benchmark
+    public Object rareWord() {
+        return index.search(word(777), 0, 10);
+    }
+
+    @Benchmark
+    public Object author() {
+        return index.search("автор " + word(100_123), 0, 10);
+    }
+
+    @Benchmark
+    public Object commonWord() {
+        return index.search("автор", 0, 10);
+    }
+
+    @Benchmark
+    public Object prefix() {
+        return index.search(word(777).substring(0, 4), 0, 10);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.library.benchmark;
+
+import com.example.library.security.JwtService;
+import com.example.library.security.SigningAlgorithm;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+// Сравнение скорости подписи и проверки JWT для каждого алгоритма (jwt.algorithm)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAlgorithmBenchmark {
+
+    @Param({"HS256", "ES256", "EdDSA"})
+    private SigningAlgorithm algorithm;
+
+    private JwtService jwtService;
+    private UserDetails userDetails;
+    private String token;
+
+    // Сервис настраивается так же, как Spring внедряет свойства
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", "fc7e0d6e9a8c5b3a2f1e0d9c8b7a6f5e4d3c2b1a0f9e8d7c6b5a4f3e2d1c0b");
+        ReflectionTestUtils.setField(jwtService, "expirationTime", 86_400_000L);
+        ReflectionTestUtils.setField(jwtService, "algorithm", algorithm);
+        jwtService.init();
+
+        userDetails = User.withUsername("reader")
+                .password("password")
+                .authorities(new SimpleGrantedAuthority("ROLE_READER"))
+                .build();
+        token = jwtService.generateToken(userDetails);
+    }
+
+    // Подпись нового токена
+    @Benchmark
+    public String sign() {
+        return jwtService.generateToken(userDetails);
+    }
+
+    // Проверка подписи и разбор claims
+    @Benchmark
+    public Object verify() {
+        return jwtService.verifyToken(token);
+    }
+}
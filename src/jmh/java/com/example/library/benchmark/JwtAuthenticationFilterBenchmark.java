@@ -0,0 +1,77 @@
+package com.example.library.benchmark;
+
+import com.example.library.model.Role;
+import com.example.library.model.User;
+import com.example.library.security.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Полный проход JwtAuthenticationFilter для запроса с Bearer токеном
+// stateless - права из claims; database - загрузка пользователя (UserDetailsService в памяти);
+// cached - повторный запрос с тем же токеном через кэш проверенных токенов;
+// public - токен на анонимном маршруте (/api/books/public/**), фильтр пропускается
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"stateless", "database", "cached", "public"})
+    private String mode;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private FilterChain chain;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", "fc7e0d6e9a8c5b3a2f1e0d9c8b7a6f5e4d3c2b1a0f9e8d7c6b5a4f3e2d1c0b");
+        ReflectionTestUtils.setField(jwtService, "expirationTime", 900_000L);
+        jwtService.init();
+
+        UserSnapshot user = UserSnapshot.of(User.builder()
+                .id(1L)
+                .username("reader")
+                .password("hash")
+                .role(Role.ROLE_READER)
+                .build());
+        UserDetailsService userDetailsService = username -> user;
+
+        VerifiedTokenCache tokenCache = new VerifiedTokenCache(
+                mode.equals("cached"), 10_000, Duration.ofMinutes(10), meterRegistry);
+        TokenVersionRegistry tokenVersions = new TokenVersionRegistry(null, tokenCache, event -> { });
+        TokenRevocationService revocationService = new TokenRevocationService(null, 1_000_000, 0.01, meterRegistry);
+
+        filter = new JwtAuthenticationFilter(jwtService, userDetailsService, tokenCache, tokenVersions,
+                revocationService, new RequestClassifier(meterRegistry), new JwtFilterMetrics(meterRegistry));
+        ReflectionTestUtils.setField(filter, "statelessPrincipal", mode.equals("stateless"));
+
+        request = new MockHttpServletRequest("GET", mode.equals("public") ? "/api/books/public/1" : "/api/books/1");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generateToken(user));
+        response = new MockHttpServletResponse();
+        chain = (req, res) -> { };
+    }
+
+    @Benchmark
+    public Object doFilter() throws Exception {
+        filter.doFilter(request, response, chain);
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.library.benchmark;
+
+import com.example.library.model.Role;
+import com.example.library.model.User;
+import com.example.library.security.JwtService;
+import com.example.library.security.UserSnapshot;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+// Операции JwtService на горячем пути (HS256, настройки как в application.properties)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private UserSnapshot user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", "fc7e0d6e9a8c5b3a2f1e0d9c8b7a6f5e4d3c2b1a0f9e8d7c6b5a4f3e2d1c0b");
+        ReflectionTestUtils.setField(jwtService, "expirationTime", 900_000L);
+        jwtService.init();
+
+        user = UserSnapshot.of(User.builder()
+                .id(1L)
+                .username("reader")
+                .password("hash")
+                .role(Role.ROLE_READER)
+                .build());
+        token = jwtService.generateToken(user);
+    }
+
+    // Выпуск токена
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    // Полная проверка токена для пользователя
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(token, user);
+    }
+
+    // Извлечение имени пользователя (разбор и проверка подписи)
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token);
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.library.benchmark;
+
+import com.example.library.LibraryApplication;
+import com.example.library.model.Book;
+import com.example.library.repository.BookRepository;
+import com.example.library.security.JwtService;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Нагрузочный сценарий: пропускная способность и p99 для /api/books/public и /api/books/{id}/borrow
+// Приложение запускается в этом же процессе с режимом потоков из load.virtual, поэтому два
+// запуска (platform и virtual) сравниваются на одной машине с одинаковыми настройками.
+// Каждый клиент берет и возвращает свою книгу (измеряется только borrow), токен читателя
+// выпускается напрямую - вход не попадает в измерение и лимит попыток входа.
+//
+// mvn -Pbenchmark test-compile exec:exec@load -Dload.virtual=false
+// mvn -Pbenchmark test-compile exec:exec@load -Dload.virtual=true   (Java 21+)
+public final class LoadScenario {
+
+    private LoadScenario() {
+    }
+
+    // Операция одного клиента: отправляет запрос(ы) и возвращает код ответа измеряемого запроса
+    @FunctionalInterface
+    private interface Operation {
+        int execute(HttpClient client, int worker) throws IOException, InterruptedException;
+    }
+
+    // Итог сценария
+    private record Result(String name, long operations, long errors, double seconds, Histogram latency) {
+
+        void print() {
+            System.out.printf(Locale.ROOT, "%-22s %10.1f %9.2f %9.2f %9.2f %8d%n",
+                    name, operations / seconds,
+                    latency.getValueAtPercentile(50) / 1000.0,
+                    latency.getValueAtPercentile(99) / 1000.0,
+                    latency.getMaxValue() / 1000.0,
+                    errors);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        boolean virtual = Boolean.getBoolean("load.virtual");
+        int concurrency = Integer.getInteger("load.concurrency", 400);
+        Duration warmup = Duration.parse(System.getProperty("load.warmup", "PT5S"));
+        Duration duration = Duration.parse(System.getProperty("load.duration", "PT20S"));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(LibraryApplication.class).run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1",
+                "--debug=false",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.example.library=WARN",
+                "--logging.file.name=",
+                "--security.rate-limit.enabled=false");
+        try {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            List<Long> bookIds = seedBooks(context.getBean(BookRepository.class), concurrency);
+            String token = context.getBean(JwtService.class)
+                    .generateToken(context.getBean(UserDetailsService.class).loadUserByUsername("reader"));
+
+            System.out.printf(Locale.ROOT, "%nРежим: %s (запрошены виртуальные потоки: %s, Java %s), клиентов: %d%n",
+                    Threading.VIRTUAL.isActive(context.getEnvironment()) ? "virtual" : "platform",
+                    virtual, JavaVersion.getJavaVersion(), concurrency);
+
+            Result catalog = run("GET public catalog", concurrency, warmup, duration, (client, worker) ->
+                    client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/books/public?page=0&size=10"))
+                            .GET().build(), HttpResponse.BodyHandlers.discarding()).statusCode());
+
+            Result borrow = run("POST borrow", concurrency, warmup, duration, (client, worker) -> {
+                String book = baseUrl + "/api/books/" + bookIds.get(worker);
+                int status = client.send(authorized(book + "/borrow", token), HttpResponse.BodyHandlers.discarding())
+                        .statusCode();
+                client.send(authorized(book + "/return", token), HttpResponse.BodyHandlers.discarding());
+                return status;
+            });
+
+            System.out.printf(Locale.ROOT, "%-22s %10s %9s %9s %9s %8s%n",
+                    "Сценарий", "ops/s", "p50 ms", "p99 ms", "max ms", "errors");
+            catalog.print();
+            borrow.print();
+        } finally {
+            context.close();
+        }
+        System.exit(0);
+    }
+
+    // Книга для каждого клиента (клиенты не конкурируют за одну книгу)
+    private static List<Long> seedBooks(BookRepository bookRepository, int count) {
+        List<Book> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            books.add(Book.builder()
+                    .title("Load test book " + i)
+                    .author("Load test")
+                    .isbn(String.format(Locale.ROOT, "LOAD-%08d", i))
+                    .available(true)
+                    .build());
+        }
+        return bookRepository.saveAll(books).stream().map(Book::getId).toList();
+    }
+
+    private static HttpRequest authorized(String url, String token) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    // Запустить сценарий: concurrency клиентов без пауз, первые warmup секунд не учитываются
+    private static Result run(String name, int concurrency, Duration warmup, Duration duration,
+                              Operation operation) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        Histogram latency = new ConcurrentHistogram(TimeUnit.SECONDS.toMicros(60), 3);
+        LongAdder operations = new LongAdder();
+        LongAdder errors = new LongAdder();
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long deadline = measureFrom + duration.toNanos();
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            int worker = i;
+            workers.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    int status;
+                    try {
+                        status = operation.execute(client, worker);
+                    } catch (IOException e) {
+                        status = -1;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    if (start >= measureFrom) {
+                        latency.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                        operations.increment();
+                        if (status < 200 || status >= 300) {
+                            errors.increment();
+                        }
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(warmup.plus(duration).toSeconds() + 60, TimeUnit.SECONDS);
+        return new Result(name, operations.sum(), errors.sum(), duration.toNanos() / 1e9, latency);
+    }
+}
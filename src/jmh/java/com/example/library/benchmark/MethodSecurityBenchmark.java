@@ -0,0 +1,72 @@
+package com.example.library.benchmark;
+
+import com.example.library.model.Role;
+import com.example.library.security.RequireRole;
+import com.example.library.security.RequireRoleAuthorizationManager;
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Проверка прав перед вызовом метода: @PreAuthorize("hasRole('READER')") (SpEL на каждый вызов)
+// против @RequireRole(Role.ROLE_READER) (готовый менеджер роли)
+// reader - роль совпадает, admin - роль получена по иерархии
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MethodSecurityBenchmark {
+
+    @Param({"reader", "admin"})
+    private String user;
+
+    private AuthorizationManager<MethodInvocation> preAuthorize;
+    private AuthorizationManager<MethodInvocation> requireRole;
+    private MethodInvocation spelInvocation;
+    private MethodInvocation requireRoleInvocation;
+    private Supplier<Authentication> authentication;
+
+    // Метод контроллера в двух вариантах разметки
+    public static class Controller {
+
+        @PreAuthorize("hasRole('READER')")
+        public void borrowSpel() {
+        }
+
+        @RequireRole(Role.ROLE_READER)
+        public void borrow() {
+        }
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        Controller controller = new Controller();
+        spelInvocation = new SimpleMethodInvocation(controller, Controller.class.getMethod("borrowSpel"));
+        requireRoleInvocation = new SimpleMethodInvocation(controller, Controller.class.getMethod("borrow"));
+        preAuthorize = new PreAuthorizeAuthorizationManager();
+        requireRole = new RequireRoleAuthorizationManager();
+
+        Role role = user.equals("admin") ? Role.ROLE_ADMIN : Role.ROLE_READER;
+        Authentication token = UsernamePasswordAuthenticationToken.authenticated(user, null, role.getAuthorities());
+        authentication = () -> token;
+    }
+
+    @Benchmark
+    public Object preAuthorizeSpel() {
+        return preAuthorize.check(authentication, spelInvocation);
+    }
+
+    @Benchmark
+    public Object requireRole() {
+        return requireRole.check(authentication, requireRoleInvocation);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.library.benchmark;
+
+import com.example.library.security.PasswordEncoderCalibrator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Хэширование и проверка пароля каждым поддерживаемым алгоритмом
+// Стоимость подбирается калибровкой так же, как при старте приложения
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordEncoderBenchmark {
+
+    @Param({"bcrypt", "argon2", "pbkdf2"})
+    private String algorithm;
+
+    // Целевое время хэширования (security.password.target-latency)
+    @Param({"PT0.05S"})
+    private String targetLatency;
+
+    private PasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        encoder = new PasswordEncoderCalibrator(algorithm, Duration.parse(targetLatency),
+                10, 2, 16384, 310_000).create();
+        hash = encoder.encode("reader123");
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode("reader123");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches("reader123", hash);
+    }
+}
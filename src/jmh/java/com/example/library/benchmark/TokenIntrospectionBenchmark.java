@@ -0,0 +1,72 @@
+package com.example.library.benchmark;
+
+import com.example.library.model.Role;
+import com.example.library.model.User;
+import com.example.library.security.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Пакетная проверка токенов (POST /api/internal/introspect): время на пакет (лимит клиента не мешает)
+// uncached - каждый токен разбирается JwtService; cached - токены уже в кэше проверенных;
+// invalid - все токены с неверной подписью
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenIntrospectionBenchmark {
+
+    @Param({"1000"})
+    private int batchSize;
+
+    @Param({"uncached", "cached", "invalid"})
+    private String mode;
+
+    private TokenIntrospectionService introspectionService;
+    private List<String> tokens;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", "fc7e0d6e9a8c5b3a2f1e0d9c8b7a6f5e4d3c2b1a0f9e8d7c6b5a4f3e2d1c0b");
+        ReflectionTestUtils.setField(jwtService, "expirationTime", 900_000L);
+        jwtService.init();
+
+        VerifiedTokenCache tokenCache = new VerifiedTokenCache(
+                mode.equals("cached"), 10_000, Duration.ofMinutes(10), meterRegistry);
+        TokenVersionRegistry tokenVersions = new TokenVersionRegistry(null, tokenCache, event -> { });
+        TokenRevocationService revocationService = new TokenRevocationService(null, 1_000_000, 0.01, meterRegistry);
+        introspectionService = new TokenIntrospectionService(jwtService, tokenCache, tokenVersions,
+                revocationService, batchSize, 64, 1_000_000_000_000L, Duration.ofSeconds(1), meterRegistry);
+
+        tokens = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            UserSnapshot user = UserSnapshot.of(User.builder()
+                    .id((long) i)
+                    .username("reader" + i)
+                    .password("hash")
+                    .role(Role.ROLE_READER)
+                    .build());
+            String token = jwtService.generateToken(user);
+            if (mode.equals("invalid")) {
+                token = token.substring(0, token.length() - 4) + "AAAA";
+            } else if (mode.equals("cached")) {
+                tokenCache.put(token, jwtService.verifyToken(token), JwtPrincipal.from(jwtService.verifyToken(token)));
+            }
+            tokens.add(token);
+        }
+    }
+
+    @Benchmark
+    public Object introspect() {
+        return introspectionService.introspect("benchmark", tokens);
+    }
+}
@@ -39,8 +39,17 @@ public class DataInitializer {
                     .role(Role.ROLE_READER)
                     .build();
 
+            // Создание тестовой учетной записи внутреннего сервиса (проверка токенов)
+            User service = User.builder()
+                    .username("gateway")
+                    .password(passwordEncoder.encode("gateway123"))
+                    .email("gateway@library.com")
+                    .role(Role.ROLE_SERVICE)
+                    .build();
+
             userRepository.save(admin);
             userRepository.save(reader);
+            userRepository.save(service);
 
             // Создание тестовых книг
             Book book1 = Book.builder()
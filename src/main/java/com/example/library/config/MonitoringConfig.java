@@ -0,0 +1,62 @@
+package com.example.library.config;
+
+import com.example.library.monitoring.SecurityFilterTimingPostProcessor;
+import com.example.library.monitoring.ServerTimingFilter;
+import com.example.library.monitoring.StageTimingAspect;
+import com.example.library.monitoring.TimedJsonHttpMessageConverter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+// Замер времени этапов запроса: фильтры безопасности, контроллеры, сервисы, репозитории,
+// сериализация JSON (гистограммы Micrometer) и отладочный заголовок Server-Timing
+@Configuration
+@ConditionalOnProperty(name = "monitoring.stage-timing.enabled", havingValue = "true", matchIfMissing = true)
+public class MonitoringConfig {
+
+    // Фильтры цепочки безопасности (static: пост-процессор создается до остальных бинов)
+    @Bean
+    public static SecurityFilterTimingPostProcessor securityFilterTimingPostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new SecurityFilterTimingPostProcessor(meterRegistry);
+    }
+
+    // Контроллеры, сервисы и репозитории
+    @Bean
+    public StageTimingAspect stageTimingAspect(MeterRegistry meterRegistry) {
+        return new StageTimingAspect(meterRegistry);
+    }
+
+    // Сериализация ответов: стандартный конвертер Jackson заменяется конвертером с замером
+    @Bean
+    public WebMvcConfigurer timedJsonConverterConfigurer(MeterRegistry meterRegistry) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+                converters.replaceAll(converter -> converter.getClass() == MappingJackson2HttpMessageConverter.class
+                        ? new TimedJsonHttpMessageConverter(
+                                ((MappingJackson2HttpMessageConverter) converter).getObjectMapper(), meterRegistry)
+                        : converter);
+            }
+        };
+    }
+
+    // Заголовок Server-Timing (только для отладки: ответ буферизуется целиком)
+    // Фильтр стоит раньше цепочки безопасности, чтобы видеть время ее фильтров
+    @Bean
+    @ConditionalOnProperty(name = "monitoring.server-timing.enabled", havingValue = "true")
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter() {
+        FilterRegistrationBean<ServerTimingFilter> registration = new FilterRegistrationBean<>(new ServerTimingFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.library.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Включение фоновых задач по расписанию (ротация ключей JWT и т.д.)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,9 +1,19 @@
 package com.example.library.config;
 
 import com.example.library.security.JwtAuthenticationFilter;
+import com.example.library.security.LoginMetrics;
+import com.example.library.security.OffloadingPasswordEncoder;
+import com.example.library.security.PasswordEncoderCalibrator;
+import com.example.library.security.PasswordHashingExecutor;
+import com.example.library.security.RequireRoleAuthorizationManager;
+import com.example.library.security.RouteAuthorizationManager;
+import com.example.library.security.TimedAuthenticationProvider;
 import lombok.RequiredArgsConstructor;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -14,8 +24,8 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -30,6 +40,10 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
     private final UserDetailsService userDetailsService;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final PasswordEncoderCalibrator passwordEncoderCalibrator;
+    private final LoginMetrics loginMetrics;
+    private final RouteAuthorizationManager routeAuthorizationManager;
 
     // Настройка цепочки фильтров безопасности
     @Bean
@@ -40,31 +54,11 @@ public class SecurityConfig {
 
                 // Настройка доступа к endpoints
                 .authorizeHttpRequests(auth -> auth
-                        // Публичные endpoints
-                        .requestMatchers(
-                                "/api/auth/**",
-                                "/h2-console/**",
-                                "/swagger-ui.html",
-                                "/swagger-ui/**",
-                                "/v3/api-docs/**",
-                                "/swagger-resources/**",
-                                "/swagger-resources",
-                                "/webjars/**",
-                                "/favicon.ico",
-                                "/error"
-                        ).permitAll()
-
-                        // Публичные endpoints для книг
-                        .requestMatchers("/api/books/public/**").permitAll()
-
-                        // Admin-only endpoints
-                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
-
-                        // Reader-only endpoints
-                        .requestMatchers("/api/reader/**").hasRole("READER")
-
-                        // Все остальные запросы требуют аутентификации
-                        .anyRequest().authenticated()
+                        // Правила доступа по классу маршрута (таблица маршрутов - в RequestClassifier):
+                        // публичные endpoints, каталог, вход - всем; /api/admin/** и /actuator/** - ADMIN;
+                        // /api/reader/** - READER; /api/internal/** - SERVICE;
+                        // все остальные запросы требуют аутентификации
+                        .anyRequest().access(routeAuthorizationManager)
                 )
 
                 // Используем stateless сессии (для JWT)
@@ -83,12 +77,22 @@ public class SecurityConfig {
         return http.build();
     }
 
-    // Настройка провайдера аутентификации
+    // Проверка @RequireRole на методах (вместо вычисления SpEL @PreAuthorize на каждый вызов)
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor requireRoleAuthorizationAdvisor() {
+        return RequireRoleAuthorizationManager.interceptor();
+    }
+
+    // Настройка провайдера аутентификации (с замером времени этапов входа)
     @Bean
     public AuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-        authProvider.setUserDetailsService(userDetailsService);
+        DaoAuthenticationProvider authProvider = new TimedAuthenticationProvider(userDetailsService, loginMetrics);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // Перехэширование пароля при входе, если хэш не соответствует текущей политике
+        if (userDetailsService instanceof UserDetailsPasswordService passwordService) {
+            authProvider.setUserDetailsPasswordService(passwordService);
+        }
         return authProvider;
     }
 
@@ -99,9 +103,10 @@ public class SecurityConfig {
         return authenticationConfiguration.getAuthenticationManager();
     }
 
-    // Настройка кодировщика паролей (BCrypt)
+    // Настройка кодировщика паролей (алгоритм и стоимость подбираются при старте,
+    // хэширование выполняется в отдельном ограниченном пуле потоков)
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new OffloadingPasswordEncoder(passwordEncoderCalibrator.create(), passwordHashingExecutor);
     }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.example.library.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+// Режим потоков: платформенные (по умолчанию) или виртуальные (spring.threads.virtual.enabled, Java 21+)
+// С виртуальными потоками Spring Boot обрабатывает запросы Tomcat, @Async и @Scheduled в виртуальных
+// потоках. Ограничения одновременной работы остаются там, где они нужны: пул соединений Hikari
+// (ожидание соединения - парковка, а не блокировка носителя) и пулы хэширования паролей на
+// платформенных потоках (BCrypt не занимает потоки-носители виртуальных потоков).
+@Slf4j
+@Configuration
+@EnableAsync
+public class ThreadingConfig {
+
+    public ThreadingConfig(Environment environment) {
+        boolean requested = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            log.info("Запросы, @Async и @Scheduled выполняются в виртуальных потоках");
+        } else if (requested) {
+            log.warn("Виртуальные потоки требуют Java 21+, текущая версия {}: используются платформенные потоки",
+                    JavaVersion.getJavaVersion());
+        }
+    }
+
+    // Контекст безопасности вызывающего потока передается в задачи @Async
+    // (Spring Boot применяет декоратор к applicationTaskExecutor в обоих режимах)
+    @Bean
+    public TaskDecorator securityContextTaskDecorator() {
+        return task -> {
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(SecurityContextHolder.getContext().getAuthentication());
+            return new DelegatingSecurityContextRunnable(task, context);
+        };
+    }
+}
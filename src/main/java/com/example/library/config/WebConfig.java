@@ -1,13 +1,24 @@
 package com.example.library.config;
 
+import com.example.library.controller.BookController;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
-// Настройка CORS политики для приложения
+import java.util.Locale;
+
+// Настройка CORS политики и преобразования параметров запросов
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    // Режим total задается в нижнем регистре (total=approximate); неизвестное значение - ошибка 400
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(String.class, BookController.Total.class,
+                value -> BookController.Total.valueOf(value.trim().toUpperCase(Locale.ROOT)));
+    }
+
     // Конфигурация CORS (Cross-Origin Resource Sharing)
     @Override
     public void addCorsMappings(CorsRegistry registry) {
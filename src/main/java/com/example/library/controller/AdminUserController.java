@@ -0,0 +1,64 @@
+package com.example.library.controller;
+
+import com.example.library.model.Role;
+import com.example.library.security.RequireRole;
+import com.example.library.service.UserProvisioningService;
+import com.example.library.service.UserProvisioningService.Format;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+// Контроллер администрирования пользователей (только ADMIN)
+@RestController
+@RequestMapping("/api/admin/users")
+@RequiredArgsConstructor
+public class AdminUserController {
+
+    static final String TEXT_CSV_VALUE = "text/csv";
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
+
+    private final UserProvisioningService provisioningService;
+    private final ObjectMapper objectMapper;
+
+    // Массовое создание пользователей (роль READER) из CSV или NDJSON
+    // Файл читается потоком, отчет пишется по мере обработки: одна строка NDJSON на строку файла
+    // Пример запроса:
+    // POST /api/admin/users/bulk
+    // Content-Type: text/csv
+    // username,email,password
+    // reader1,reader1@school.org,secret123
+    // Ответ:
+    // {"line":2,"username":"reader1","status":"CREATED","message":null}
+    @PostMapping(value = "/bulk",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @RequireRole(Role.ROLE_ADMIN)
+    public void provision(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                          HttpServletRequest request,
+                          HttpServletResponse response) throws IOException {
+        Format format = TEXT_CSV.includes(contentType) ? Format.CSV : Format.NDJSON;
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        Writer writer = response.getWriter();
+        provisioningService.provision(new InputStreamReader(request.getInputStream(), charset), format, result -> {
+            writer.write(objectMapper.writeValueAsString(result));
+            writer.write('\n');
+        });
+        writer.flush();
+    }
+}
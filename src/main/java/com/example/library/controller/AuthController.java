@@ -1,14 +1,24 @@
 package com.example.library.controller;
 
 import com.example.library.dto.request.LoginRequest;
+import com.example.library.dto.request.RefreshTokenRequest;
 import com.example.library.dto.request.RegisterRequest;
 import com.example.library.dto.response.AuthResponse;
+import com.example.library.dto.response.AvailabilityResponse;
+import com.example.library.security.LoginRateLimiter;
 import com.example.library.service.AuthService;
+import com.example.library.service.UserAvailabilityService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import com.example.library.exception.AuthenticationFailedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 // Контроллер для аутентификации и регистрации пользователей
@@ -18,6 +28,8 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthController {
 
     private final AuthService authService;
+    private final LoginRateLimiter rateLimiter; // Лимит попыток по имени пользователя и IP
+    private final UserAvailabilityService availabilityService; // Проверка занятых логинов и email
 
     // Регистрация нового пользователя
     // Пример запроса:
@@ -30,10 +42,32 @@ public class AuthController {
     // }
     @PostMapping("/register")
     public ResponseEntity<AuthResponse> register(
-            @RequestBody RegisterRequest request) {
+            @RequestBody RegisterRequest request, HttpServletRequest httpRequest) {
+        rateLimiter.check(request.getUsername(), httpRequest.getRemoteAddr());
         return ResponseEntity.ok(authService.register(request));
     }
 
+    // Проверка, свободны ли логин и/или email (для формы регистрации при наборе)
+    // Для свободных значений ответ дает фильтр в памяти без запроса к БД
+    // Частота ограничена по IP, чтобы эндпоинт нельзя было использовать для перебора учетных записей
+    // Пример запроса:
+    // GET /api/auth/availability?username=john&email=john@example.com
+    @GetMapping("/availability")
+    public ResponseEntity<AvailabilityResponse> availability(
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String email,
+            HttpServletRequest httpRequest) {
+        rateLimiter.checkAvailability(httpRequest.getRemoteAddr());
+        AvailabilityResponse.AvailabilityResponseBuilder response = AvailabilityResponse.builder();
+        if (username != null && !username.isBlank()) {
+            response.username(username).usernameAvailable(!availabilityService.isUsernameTaken(username));
+        }
+        if (email != null && !email.isBlank()) {
+            response.email(email).emailAvailable(!availabilityService.isEmailTaken(email));
+        }
+        return ResponseEntity.ok(response.build());
+    }
+
     // Аутентификация пользователя
     // Пример запроса:
     // POST /api/auth/login
@@ -43,7 +77,34 @@ public class AuthController {
     // }
     @PostMapping("/login")
     public ResponseEntity<AuthResponse> login(
-            @RequestBody LoginRequest request) {
+            @RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        rateLimiter.check(request.getUsername(), httpRequest.getRemoteAddr());
         return ResponseEntity.ok(authService.authenticate(request));
     }
+
+    // Обновление токенов без пароля (refresh токен одноразовый, в ответе - новый)
+    // Пример запроса:
+    // POST /api/auth/refresh
+    // {
+    //   "refreshToken": "..."
+    // }
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(
+            @RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(authService.refresh(request));
+    }
+
+    // Выход из системы (отзыв текущего токена)
+    // Пример запроса:
+    // POST /api/auth/logout
+    // Authorization: Bearer <token>
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            throw new AuthenticationFailedException("Токен не передан");
+        }
+        authService.logout(authorization.substring(7));
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -1,11 +1,13 @@
 package com.example.library.controller;
 
 import com.example.library.dto.response.BookResponse;
+import com.example.library.dto.response.CursorPage;
+import com.example.library.dto.response.SearchPage;
+import com.example.library.model.Role;
+import com.example.library.security.RequireRole;
 import com.example.library.service.BookService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
@@ -17,36 +19,89 @@ import org.springframework.web.bind.annotation.*;
 public class BookController {
     private final BookService bookService;
 
+    // Режим общего числа книг в постраничном выводе (параметр total)
+    public enum Total {
+        EXACT,       // точное число книг (запрос count на каждую страницу)
+        APPROXIMATE, // без count: hasNext и approximateTotal - число книг из памяти
+        NONE         // без count: только hasNext
+    }
+
     // Получение списка книг с пагинацией
+    // total=exact (по умолчанию) - точное общее число книг (запрос count на каждую страницу)
+    // total=approximate и total=none - страница без запроса count: hasNext вместо числа страниц,
+    // approximateTotal - число книг из памяти (обновляется при добавлении/удалении и раз в books.count.ttl)
+    // Другие значения total - ошибка 400
+    // fields - вывести и выбрать из БД только перечисленные поля книг (во всех режимах total и по ID)
     // GET /api/books/public?page=0&size=10
+    // GET /api/books/public?page=0&size=10&total=approximate
+    // GET /api/books/public?page=0&size=10&fields=id,title,borrowedBy
     @GetMapping("/public")
-    public ResponseEntity<Page<BookResponse>> getAllBooks(
+    public ResponseEntity<?> getAllBooks(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String fields,
+            @RequestParam(defaultValue = "exact") Total total) {
+        if (total == Total.EXACT) {
+            if (fields != null) {
+                return ResponseEntity.ok(bookService.getBookFields(page, size, fields));
+            }
+            return ResponseEntity.ok(bookService.getAllBooks(page, size));
+        }
+        boolean withTotal = total == Total.APPROXIMATE;
+        if (fields != null) {
+            return ResponseEntity.ok(bookService.getBookFieldsSlice(page, size, fields, withTotal));
+        }
+        return ResponseEntity.ok(bookService.getBooksSlice(page, size, withTotal));
+    }
+
+    // Каталог по курсору (для больших каталогов): стоимость страницы не зависит от ее глубины,
+    // общее число книг не считается. Сортировка по названию, next - курсор следующей страницы
+    // GET /api/books/public?mode=cursor&size=10
+    // GET /api/books/public?mode=cursor&size=10&after=MTI6V2FyIGFuZCBQZWFjZQ
+    @GetMapping(value = "/public", params = "mode=cursor")
+    public ResponseEntity<CursorPage<BookResponse>> getBooksAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(bookService.getBooksAfter(after, size));
+    }
+
+    // Полнотекстовый поиск по названию, автору и ISBN (без учета регистра, ё/е и дефисов в ISBN),
+    // по убыванию релевантности (BM25); слово от 3 букв находит и слова, которые с него начинаются
+    // GET /api/books/public/search?q=толстой война&page=0&size=10
+    @GetMapping("/public/search")
+    public ResponseEntity<SearchPage<BookResponse>> searchBooks(
+            @RequestParam String q,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        return ResponseEntity.ok(bookService.getAllBooks(page, size));
+        return ResponseEntity.ok(bookService.searchBooks(q, page, size));
     }
 
     // Получение информации о конкретной книге
     // GET /api/books/public/1
+    // GET /api/books/public/1?fields=title,available
     @GetMapping("/public/{id}")
-    public ResponseEntity<BookResponse> getBookById(@PathVariable Long id) {
+    public ResponseEntity<?> getBookById(@PathVariable Long id,
+                                         @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(bookService.getBookFieldsById(id, fields));
+        }
         return ResponseEntity.ok(bookService.getBookById(id));
     }
 
-    // Аренда книги (только для пользователей с ролью READER)
+    // Аренда книги (роль READER; ADMIN включает READER по иерархии ролей)
     // POST /api/books/1/borrow
     @PostMapping("/{id}/borrow")
-    @PreAuthorize("hasRole('READER')")
+    @RequireRole(Role.ROLE_READER)
     public ResponseEntity<BookResponse> borrowBook(
             @PathVariable Long id,
             @AuthenticationPrincipal UserDetails userDetails) {
         return ResponseEntity.ok(bookService.borrowBook(id, userDetails.getUsername()));
     }
 
-    // Возврат книги (только для пользователей с ролью READER)
+    // Возврат книги (роль READER; ADMIN включает READER по иерархии ролей)
     // POST /api/books/1/return
     @PostMapping("/{id}/return")
-    @PreAuthorize("hasRole('READER')")
+    @RequireRole(Role.ROLE_READER)
     public ResponseEntity<BookResponse> returnBook(
             @PathVariable Long id,
             @AuthenticationPrincipal UserDetails userDetails) {
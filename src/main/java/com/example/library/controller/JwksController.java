@@ -0,0 +1,33 @@
+package com.example.library.controller;
+
+import com.example.library.security.JwtService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+// Публикация открытых ключей подписи JWT (JSON Web Key Set)
+// Другие сервисы проверяют наши токены локально, без обращения к нам
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final JwtService jwtService;
+
+    @Value("${jwt.jwks.max-age:PT5M}") // Время кэширования ответа клиентами
+    private Duration maxAge;
+
+    // GET /.well-known/jwks.json
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, List<?>>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(maxAge).cachePublic())
+                .body(Map.of("keys", jwtService.getKeyRing().publicJwks()));
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.library.controller;
+
+import com.example.library.dto.request.IntrospectRequest;
+import com.example.library.dto.response.IntrospectResponse;
+import com.example.library.model.Role;
+import com.example.library.security.RequireRole;
+import com.example.library.security.TokenIntrospectionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.security.Principal;
+import java.util.List;
+
+// Контроллер для внутренних сервисов (только роль SERVICE)
+@RestController
+@RequestMapping("/api/internal")
+@RequiredArgsConstructor
+public class TokenIntrospectionController {
+
+    private final TokenIntrospectionService introspectionService; // Пакетная проверка токенов
+
+    // Пакетная проверка токенов (до jwt.introspection.max-tokens за запрос,
+    // не больше jwt.introspection.rate-limit.tokens за период на клиента)
+    // Пример запроса:
+    // POST /api/internal/introspect
+    // Authorization: Bearer <токен сервисной учетной записи>
+    // {
+    //   "tokens": ["eyJ...", "eyJ..."]
+    // }
+    // Ответ: {"tokens": [{"active": true, "subject": "reader", "role": "ROLE_READER",
+    //                     "expiresAt": "..."}, {"active": false}]}
+    @PostMapping("/introspect")
+    @RequireRole(Role.ROLE_SERVICE)
+    public ResponseEntity<IntrospectResponse> introspect(
+            @RequestBody IntrospectRequest request, Principal client) {
+        List<String> tokens = request.getTokens() != null ? request.getTokens() : List.of();
+        return ResponseEntity.ok(new IntrospectResponse(introspectionService.introspect(client.getName(), tokens)));
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.library.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+// DTO для пакетной проверки токенов другими сервисами
+@Data
+public class IntrospectRequest {
+
+    // Проверяемые JWT (без префикса "Bearer ")
+    @NotEmpty(message = "Tokens are required")
+    private List<String> tokens;
+}
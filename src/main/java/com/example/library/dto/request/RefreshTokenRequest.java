@@ -0,0 +1,13 @@
+package com.example.library.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+// DTO для обмена refresh токена на новую пару токенов
+@Data
+public class RefreshTokenRequest {
+
+    // Refresh токен, полученный при входе или предыдущем обновлении
+    @NotBlank(message = "Refresh token is required")
+    private String refreshToken;
+}
@@ -14,6 +14,9 @@ public class AuthResponse {
     // JWT токен для авторизации
     private String token;
 
+    // Одноразовый токен для получения новой пары токенов без пароля
+    private String refreshToken;
+
     // Имя пользователя
     private String username;
 
@@ -0,0 +1,23 @@
+package com.example.library.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Ответ проверки, свободны ли логин и email (непроверенные поля не выводятся)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AvailabilityResponse {
+    // Проверенный логин и свободен ли он
+    private String username;
+    private Boolean usernameAvailable;
+
+    // Проверенный email и свободен ли он
+    private String email;
+    private Boolean emailAvailable;
+}
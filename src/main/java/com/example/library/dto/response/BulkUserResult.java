@@ -0,0 +1,21 @@
+package com.example.library.dto.response;
+
+import lombok.*;
+
+// Результат обработки одной строки файла массового создания пользователей
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUserResult {
+    private long line;          // Номер строки во входном файле (с 1)
+    private String username;    // Логин из строки (если удалось разобрать)
+    private Status status;      // Итог обработки строки
+    private String message;     // Причина отказа (для CREATED - null)
+
+    public enum Status {
+        CREATED,    // Пользователь создан
+        DUPLICATE,  // Логин или email уже заняты (в БД или выше в файле)
+        INVALID     // Строка не разобрана или не прошла валидацию
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.library.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+
+import java.util.List;
+
+// Страница каталога без точного общего числа элементов (для нее не выполняется запрос count)
+// hasNext - есть ли следующая страница; approximateTotal - приблизительное число книг
+// (только при total=approximate, иначе не выводится)
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CatalogSlice<T> {
+
+    List<T> content;
+    int page;
+    int size;
+    boolean hasNext;
+    Long approximateTotal;
+}
@@ -0,0 +1,15 @@
+package com.example.library.dto.response;
+
+import lombok.Value;
+
+import java.util.List;
+
+// Страница при выводе по курсору: без номера страницы и общего числа элементов
+// next - курсор следующей страницы (передается в параметре after), null - это последняя страница
+@Value
+public class CursorPage<T> {
+
+    List<T> content;
+    int size;       // Запрошенный размер страницы
+    String next;
+}
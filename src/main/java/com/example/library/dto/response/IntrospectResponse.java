@@ -0,0 +1,15 @@
+package com.example.library.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Ответ пакетной проверки токенов (результаты в порядке токенов запроса)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IntrospectResponse {
+    private List<TokenIntrospection> tokens;
+}
@@ -0,0 +1,16 @@
+package com.example.library.dto.response;
+
+import lombok.Value;
+
+import java.util.List;
+
+// Страница результатов поиска: content - по убыванию релевантности, total - число всех найденных
+@Value
+public class SearchPage<T> {
+
+    String query;
+    List<T> content;
+    int page;
+    int size;
+    int total;
+}
@@ -0,0 +1,20 @@
+package com.example.library.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+
+import java.time.Instant;
+
+// Результат проверки одного токена: для недействительного - только active=false
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenIntrospection {
+
+    // Общий результат для всех недействительных токенов (без выделения памяти на каждый)
+    public static final TokenIntrospection INACTIVE = new TokenIntrospection(false, null, null, null);
+
+    boolean active;     // Подпись верна, срок не истек, токен не отозван
+    String subject;     // Имя пользователя (claim sub)
+    String role;        // Роль пользователя (ROLE_ADMIN, ROLE_READER)
+    Instant expiresAt;  // Момент истечения токена (claim exp)
+}
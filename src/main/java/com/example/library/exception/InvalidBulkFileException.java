@@ -0,0 +1,14 @@
+package com.example.library.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Файл массового создания пользователей не может быть разобран (ошибка 400 Bad Request)
+// Например: в CSV нет заголовка или обязательной колонки
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidBulkFileException extends RuntimeException {
+
+    public InvalidBulkFileException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.library.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.Duration;
+
+// Ответы на отказы из-за перегрузки: статус плюс заголовок Retry-After
+@RestControllerAdvice
+public class RetryAfterExceptionHandler {
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ProblemDetail> handleOverloaded(ServiceOverloadedException e) {
+        return withRetryAfter(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e.getRetryAfter());
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ProblemDetail> handleTooManyRequests(TooManyRequestsException e) {
+        return withRetryAfter(HttpStatus.TOO_MANY_REQUESTS, e.getMessage(), e.getRetryAfter());
+    }
+
+    private ResponseEntity<ProblemDetail> withRetryAfter(HttpStatus status, String message, Duration retryAfter) {
+        // Retry-After в целых секундах, не меньше 1
+        long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(seconds))
+                .body(ProblemDetail.forStatusAndDetail(status, message));
+    }
+}
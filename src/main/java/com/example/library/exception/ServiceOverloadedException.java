@@ -0,0 +1,24 @@
+package com.example.library.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+
+// Исключение при перегрузке сервиса (ошибка 503 Service Unavailable, заголовок Retry-After)
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceOverloadedException extends RuntimeException {
+
+    // Через сколько клиенту стоит повторить запрос
+    private final Duration retryAfter;
+
+    // Создание исключения с сообщением и рекомендуемой паузой перед повтором
+    public ServiceOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
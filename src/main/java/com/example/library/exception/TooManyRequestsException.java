@@ -0,0 +1,24 @@
+package com.example.library.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+
+// Исключение при превышении лимита запросов (ошибка 429 Too Many Requests, заголовок Retry-After)
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class TooManyRequestsException extends RuntimeException {
+
+    // Через сколько клиенту стоит повторить запрос
+    private final Duration retryAfter;
+
+    // Создание исключения с сообщением и рекомендуемой паузой перед повтором
+    public TooManyRequestsException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
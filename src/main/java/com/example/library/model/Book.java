@@ -1,12 +1,16 @@
 package com.example.library.model;
 
+import com.example.library.service.BookChangeListener;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDate;
 
 // Сущность книги в системе
 @Entity
-@Table(name = "books") // Соответствует таблице books в БД
+// Соответствует таблице books в БД; индекс (title, id) - для вывода каталога по курсору
+@Table(name = "books", indexes = @Index(name = "idx_books_title_id", columnList = "title, id"))
+// Добавление, изменение и удаление публикуют BookChangedEvent
+@EntityListeners(BookChangeListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
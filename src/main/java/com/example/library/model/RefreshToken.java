@@ -0,0 +1,47 @@
+package com.example.library.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.Instant;
+
+// Refresh токен (одноразовый, хранится только SHA-256 хэш значения)
+@Entity
+@Table(name = "refresh_tokens",
+        indexes = {
+                @Index(name = "idx_refresh_tokens_expires_at", columnList = "expires_at"),
+                @Index(name = "idx_refresh_tokens_family_id", columnList = "family_id")
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // SHA-256 от значения токена (base64url)
+    @Column(name = "token_hash", nullable = false, unique = true, length = 43)
+    private String tokenHash;
+
+    // Владелец токена
+    @Column(nullable = false, length = 50)
+    private String username;
+
+    // Цепочка ротаций: все токены, выпущенные из одного входа
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    // Версия токенов пользователя на момент выпуска
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion;
+
+    // Момент истечения: после него запись удаляется
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    // Токен уже обменян на новую пару
+    @Column(nullable = false)
+    private boolean used;
+}
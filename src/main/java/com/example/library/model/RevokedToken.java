@@ -0,0 +1,25 @@
+package com.example.library.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.Instant;
+
+// Отозванный JWT (точное хранилище для проверки после фильтра Блума)
+@Entity
+@Table(name = "revoked_tokens",
+        indexes = @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedToken {
+
+    // Идентификатор токена (claim jti)
+    @Id
+    @Column(length = 36)
+    private String jti;
+
+    // Момент истечения исходного токена: после него запись удаляется
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -1,7 +1,105 @@
 package com.example.library.model;
 
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
 // Роли пользователей в системе
 public enum Role {
-    ROLE_ADMIN,    // Администратор (полный доступ)
-    ROLE_READER    // Читатель (основные функции)
+    ROLE_ADMIN("A"),    // Администратор (полный доступ)
+    ROLE_READER("R"),   // Читатель (основные функции)
+    ROLE_SERVICE("S");  // Внутренний сервис (только проверка токенов, в иерархию не входит)
+
+    // Короткий код роли для claim r в JWT
+    private final String code;
+
+    // Общий неизменяемый список прав роли (без создания объектов на каждый запрос)
+    private final List<GrantedAuthority> authorities;
+
+    // Роли, права которых есть у этой роли (сама роль и все включенные по иерархии)
+    // Вычисляются один раз при загрузке класса
+    private Set<Role> reachableRoles;
+
+    private static final Role[] VALUES = values();
+
+    static {
+        for (Role role : VALUES) {
+            EnumSet<Role> reachable = EnumSet.of(role);
+            collectImplied(role, reachable);
+            role.reachableRoles = Collections.unmodifiableSet(reachable);
+        }
+    }
+
+    Role(String code) {
+        this.code = code;
+        this.authorities = List.of(new SimpleGrantedAuthority(name()));
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    public Set<Role> getReachableRoles() {
+        return reachableRoles;
+    }
+
+    // Есть ли у роли права роли other (сама роль или включена по иерархии)
+    public boolean includes(Role other) {
+        return reachableRoles.contains(other);
+    }
+
+    // Иерархия ролей: роли, которые роль включает непосредственно
+    // ADMIN может все, что может READER
+    private static Set<Role> directlyImplied(Role role) {
+        return switch (role) {
+            case ROLE_ADMIN -> EnumSet.of(ROLE_READER);
+            case ROLE_READER, ROLE_SERVICE -> EnumSet.noneOf(Role.class);
+        };
+    }
+
+    // Транзитивное замыкание иерархии (роль, уже попавшая в набор, повторно не обходится)
+    private static void collectImplied(Role role, EnumSet<Role> reachable) {
+        for (Role implied : directlyImplied(role)) {
+            if (reachable.add(implied)) {
+                collectImplied(implied, reachable);
+            }
+        }
+    }
+
+    // Роль по короткому коду (null, если код неизвестен)
+    public static Role fromCode(String code) {
+        for (Role role : VALUES) {
+            if (role.code.equals(code)) {
+                return role;
+            }
+        }
+        return null;
+    }
+
+    // Роль по имени права (null, если такой роли нет)
+    public static Role fromAuthority(String authority) {
+        for (Role role : VALUES) {
+            if (role.name().equals(authority)) {
+                return role;
+            }
+        }
+        return null;
+    }
+
+    // Роль по набору прав, если это ровно одно право одной из ролей
+    public static Role fromAuthorities(Collection<? extends GrantedAuthority> authorities) {
+        if (authorities == null || authorities.size() != 1) {
+            return null;
+        }
+        return fromAuthority(authorities.iterator().next().getAuthority());
+    }
 }
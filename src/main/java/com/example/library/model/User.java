@@ -2,8 +2,8 @@ package com.example.library.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import com.example.library.security.VersionedPrincipal;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import java.util.Collection;
 import java.util.List;
@@ -12,14 +12,18 @@ import java.util.List;
 @Entity
 @Table(name = "users", // Таблица users в БД
         uniqueConstraints = {
-                @UniqueConstraint(columnNames = "username"), // Уникальный логин
-                @UniqueConstraint(columnNames = "email")     // Уникальный email
+                @UniqueConstraint(name = User.USERNAME_CONSTRAINT, columnNames = "username"), // Уникальный логин
+                @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email")        // Уникальный email
         })
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class User implements UserDetails {
+public class User implements UserDetails, VersionedPrincipal {
+
+    // Имена ограничений уникальности (по ним определяется, какое значение занято)
+    public static final String USERNAME_CONSTRAINT = "uk_users_username";
+    public static final String EMAIL_CONSTRAINT = "uk_users_email";
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY) // Автоинкрементный ID
@@ -42,6 +46,11 @@ public class User implements UserDetails {
     @Column(nullable = false, length = 20)
     private Role role;
 
+    // Версия выданных токенов: увеличивается, чтобы отозвать все ранее выданные JWT
+    @Column(name = "token_version", nullable = false)
+    @Builder.Default
+    private int tokenVersion = 0;
+
     // Список взятых книг (ленивая загрузка, исключен из toString/equals)
     @OneToMany(mappedBy = "borrowedBy", fetch = FetchType.LAZY)
     @ToString.Exclude
@@ -51,7 +60,7 @@ public class User implements UserDetails {
     // Возвращает права пользователя (на основе роли)
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of(new SimpleGrantedAuthority(role.name()));
+        return role.getAuthorities();
     }
 
     // Аккаунт не просрочен (всегда true)
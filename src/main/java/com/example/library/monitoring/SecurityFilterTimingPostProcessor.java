@@ -0,0 +1,43 @@
+package com.example.library.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.Filter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.security.web.DefaultSecurityFilterChain;
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+
+// Оборачивает каждый фильтр цепочек SecurityFilterChain в TimedFilter
+// (метрика security.filter с тегом filter, в Server-Timing - filter.<имя класса>)
+// Реестр метрик берется лениво: пост-процессор создается раньше остальных бинов.
+public class SecurityFilterTimingPostProcessor implements BeanPostProcessor {
+
+    public static final String METRIC_NAME = "security.filter";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public SecurityFilterTimingPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DefaultSecurityFilterChain chain)) {
+            return bean;
+        }
+        MeterRegistry registry = meterRegistry.getObject();
+        List<Filter> filters = chain.getFilters().stream()
+                .map(filter -> (Filter) new TimedFilter(filter, timer(registry, filter)))
+                .toList();
+        return new DefaultSecurityFilterChain(chain.getRequestMatcher(), filters);
+    }
+
+    private static StageTimer timer(MeterRegistry registry, Filter filter) {
+        String name = ClassUtils.getUserClass(filter).getSimpleName();
+        return StageTimer.of(registry, METRIC_NAME, Tags.of("filter", name),
+                "Собственное время фильтра безопасности", "filter." + name);
+    }
+}
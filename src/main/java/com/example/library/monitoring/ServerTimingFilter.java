@@ -0,0 +1,39 @@
+package com.example.library.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+// Заголовок Server-Timing с временем этапов запроса (отладочный режим)
+// Фильтр стоит первым в цепочке сервлета: создает RequestTimings, а после обработки
+// добавляет заголовок. Заголовок должен уйти до тела, поэтому ответ буферизуется целиком
+// (потоковые ответы, например отчет массового создания, приходят одним куском).
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    static final String HEADER = "Server-Timing";
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        RequestTimings timings = new RequestTimings();
+        request.setAttribute(RequestTimings.ATTRIBUTE, timings);
+        ContentCachingResponseWrapper buffered = new ContentCachingResponseWrapper(response);
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, buffered);
+        } finally {
+            timings.add("total", System.nanoTime() - start);
+            if (!response.isCommitted()) {
+                response.setHeader(HEADER, timings.toHeaderValue());
+            }
+            buffered.copyBodyToResponse();
+        }
+    }
+}
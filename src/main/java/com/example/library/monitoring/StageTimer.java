@@ -0,0 +1,46 @@
+package com.example.library.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+// Таймер этапа запроса: гистограмма Micrometer и (при включенном заголовке) запись Server-Timing
+public final class StageTimer {
+
+    private final Timer timer;
+    private final String timingName;
+
+    private StageTimer(Timer timer, String timingName) {
+        this.timer = timer;
+        this.timingName = timingName;
+    }
+
+    // Таймер с гистограммой (перцентили считаются на стороне системы мониторинга)
+    public static StageTimer of(MeterRegistry meterRegistry, String metric, Tags tags,
+                                String description, String timingName) {
+        Timer timer = Timer.builder(metric)
+                .tags(tags)
+                .description(description)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        return new StageTimer(timer, timingName);
+    }
+
+    // Записать этап, начатый в startNanos, и вернуть текущее время (начало следующего этапа)
+    // timings - время этапов запроса (null - только метрика)
+    public long stop(long startNanos, RequestTimings timings) {
+        long now = System.nanoTime();
+        record(now - startNanos, timings);
+        return now;
+    }
+
+    // Записать длительность этапа
+    public void record(long nanos, RequestTimings timings) {
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+        if (timings != null) {
+            timings.add(timingName, nanos);
+        }
+    }
+}
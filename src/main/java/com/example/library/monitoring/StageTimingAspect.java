@@ -0,0 +1,74 @@
+package com.example.library.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.data.repository.Repository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Время этапов обработки запроса: контроллеры, сервисы, репозитории
+// Метрика http.server.stage с тегами stage и component (класс); время включает вложенные
+// этапы (сервис - вместе с запросами к репозиториям). В Server-Timing этап записывается
+// только на внешнем вызове, чтобы сервис, вызывающий другой сервис, не учитывался дважды.
+@Aspect
+public class StageTimingAspect {
+
+    public static final String METRIC_NAME = "http.server.stage";
+
+    private final MeterRegistry meterRegistry;
+    // Таймеры по классу прокси (этап класса постоянен)
+    private final Map<Class<?>, StageTimer> timers = new ConcurrentHashMap<>();
+
+    public StageTimingAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("@within(org.springframework.web.bind.annotation.RestController) && execution(public * *(..))")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("controller", joinPoint);
+    }
+
+    @Around("@within(org.springframework.stereotype.Service) && within(com.example.library..*)"
+            + " && execution(public * *(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("service", joinPoint);
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("repository", joinPoint);
+    }
+
+    private Object time(String stage, ProceedingJoinPoint joinPoint) throws Throwable {
+        Object proxy = joinPoint.getThis();
+        StageTimer timer = timers.computeIfAbsent(proxy.getClass(), type ->
+                StageTimer.of(meterRegistry, METRIC_NAME, Tags.of("stage", stage, "component", component(proxy)),
+                        "Время этапа обработки запроса", stage));
+        RequestTimings timings = RequestTimings.current();
+        boolean outermost = timings != null && timings.enter(stage);
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timer.stop(start, outermost ? timings : null);
+            if (timings != null) {
+                timings.exit(stage);
+            }
+        }
+    }
+
+    // Имя компонента: класс контроллера или сервиса, интерфейс репозитория приложения
+    private static String component(Object proxy) {
+        for (Class<?> type : proxy.getClass().getInterfaces()) {
+            if (Repository.class.isAssignableFrom(type) && !type.getName().startsWith("org.springframework.")) {
+                return type.getSimpleName();
+            }
+        }
+        return AopUtils.getTargetClass(proxy).getSimpleName();
+    }
+}
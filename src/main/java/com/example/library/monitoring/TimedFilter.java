@@ -0,0 +1,51 @@
+package com.example.library.monitoring;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+
+import java.io.IOException;
+
+// Фильтр цепочки безопасности с замером собственного времени
+// Время следующих фильтров и контроллера (вызов chain.doFilter) из замера исключается,
+// поэтому времена фильтров складываются, а не вкладываются друг в друга.
+final class TimedFilter implements Filter {
+
+    private final Filter delegate;
+    private final StageTimer timer;
+
+    TimedFilter(Filter delegate, StageTimer timer) {
+        this.delegate = delegate;
+        this.timer = timer;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        long start = System.nanoTime();
+        long[] downstream = new long[1];
+        try {
+            delegate.doFilter(request, response, (nextRequest, nextResponse) -> {
+                long enter = System.nanoTime();
+                try {
+                    chain.doFilter(nextRequest, nextResponse);
+                } finally {
+                    downstream[0] += System.nanoTime() - enter;
+                }
+            });
+        } finally {
+            timer.record(System.nanoTime() - start - downstream[0], RequestTimings.of(request));
+        }
+    }
+
+    Filter getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public String toString() {
+        return "Timed(" + delegate + ")";
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.library.monitoring;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+// Конвертер JSON с замером сериализации ответа (этап serialization метрики http.server.stage)
+// Время включает запись в поток ответа (буфер Tomcat, при большом ответе - сеть)
+public class TimedJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final StageTimer timer;
+
+    public TimedJsonHttpMessageConverter(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        super(objectMapper);
+        this.timer = StageTimer.of(meterRegistry, StageTimingAspect.METRIC_NAME,
+                Tags.of("stage", "serialization", "component", "jackson"),
+                "Время этапа обработки запроса", "serialization");
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        long start = System.nanoTime();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            timer.stop(start, RequestTimings.current());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.library.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Запросы чтения каталога: проекция BookView или только запрошенные поля (параметр fields),
+// без загрузки сущностей Book и User. Реализация - BookCatalogRepositoryImpl
+public interface BookCatalogRepository {
+
+    // Страница каталога с общим числом книг (без сортировки, как findAll(Pageable))
+    Page<BookView> findViews(Pageable pageable);
+
+    // Страница каталога без запроса count: выбирается size + 1 книга, чтобы узнать, есть ли следующая
+    Slice<BookView> findViewSlice(Pageable pageable);
+
+    // Книга по ID
+    Optional<BookView> findViewById(Long id);
+
+    // Книги по списку ID (порядок не гарантирован, отсутствующие пропускаются)
+    List<BookView> findViewsByIds(Collection<Long> ids);
+
+    // Следующие limit книг после afterId в порядке id (чтение всего каталога частями)
+    List<BookView> findViewsAfterId(long afterId, int limit);
+
+    // Первая страница каталога по курсору: сортировка по названию и id (индекс idx_books_title_id)
+    List<BookView> findFirstPage(Limit limit);
+
+    // Следующая страница по курсору (поиск по индексу вместо пропуска offset строк)
+    List<BookView> findPageAfter(String title, Long id, Limit limit);
+
+    // Книги с offset по limit штук только с выбранными полями: строка - имя поля -> значение
+    List<Map<String, Object>> findFields(Set<BookField> fields, long offset, int limit);
+
+    // Книга по ID только с выбранными полями
+    Optional<Map<String, Object>> findFieldsById(Set<BookField> fields, Long id);
+}
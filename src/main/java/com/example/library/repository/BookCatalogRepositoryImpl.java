@@ -0,0 +1,169 @@
+package com.example.library.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.FlushMode;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Запросы выполняются через EntityManager, а не @Query: Spring Data JPA 3.2.0 на каждый вызов
+// заново разбирает строку @Query парсером JPQL (applySorting даже без сортировки) - это ~50 КБ
+// и сотни микросекунд на страницу. Hibernate кэширует разбор запроса по его тексту.
+// Все запросы только для чтения: без снимков для dirty checking и без flush перед запросом.
+class BookCatalogRepositoryImpl implements BookCatalogRepository {
+
+    // Проекция BookView: колонки книги и взявшего ее пользователя (left join)
+    private static final String SELECT_VIEW = """
+            select new com.example.library.repository.BookView(
+                b.id, b.title, b.author, b.isbn, b.publicationYear, b.available, b.borrowDate, b.returnDate,
+                u.id, u.username, u.email, u.role)
+            from Book b left join b.borrowedBy u
+            """;
+
+    private static final String COUNT = "select count(b) from Book b";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<BookView> findViews(Pageable pageable) {
+        List<BookView> content = query(SELECT_VIEW, BookView.class)
+                .setFirstResult(Math.toIntExact(pageable.getOffset()))
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        // Запрос count не выполняется, если число книг следует из самой страницы
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> query(COUNT, Long.class).getSingleResult());
+    }
+
+    @Override
+    public Slice<BookView> findViewSlice(Pageable pageable) {
+        int size = pageable.getPageSize();
+        List<BookView> rows = query(SELECT_VIEW, BookView.class)
+                .setFirstResult(Math.toIntExact(pageable.getOffset()))
+                .setMaxResults(size + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > size;
+        return new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, pageable, hasNext);
+    }
+
+    @Override
+    public Optional<BookView> findViewById(Long id) {
+        return query(SELECT_VIEW + "where b.id = :id", BookView.class)
+                .setParameter("id", id)
+                .getResultList().stream().findFirst();
+    }
+
+    @Override
+    public List<BookView> findViewsByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return query(SELECT_VIEW + "where b.id in :ids", BookView.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    @Override
+    public List<BookView> findViewsAfterId(long afterId, int limit) {
+        return query(SELECT_VIEW + "where b.id > :afterId order by b.id", BookView.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<BookView> findFirstPage(Limit limit) {
+        return query(SELECT_VIEW + "order by b.title, b.id", BookView.class)
+                .setMaxResults(limit.max())
+                .getResultList();
+    }
+
+    // Условие (title, id) > (:title, :id) с отдельным title >= :title: без него оптимизатор
+    // (H2, MySQL) не строит диапазон по индексу для or и просматривает все предыдущие строки
+    @Override
+    public List<BookView> findPageAfter(String title, Long id, Limit limit) {
+        return query(SELECT_VIEW + """
+                where b.title >= :title and (b.title > :title or b.id > :id)
+                order by b.title, b.id
+                """, BookView.class)
+                .setParameter("title", title)
+                .setParameter("id", id)
+                .setMaxResults(limit.max())
+                .getResultList();
+    }
+
+    @Override
+    public List<Map<String, Object>> findFields(Set<BookField> fields, long offset, int limit) {
+        return query(selectFields(fields, ""), Object[].class)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList().stream().map(row -> toMap(fields, row)).toList();
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findFieldsById(Set<BookField> fields, Long id) {
+        return query(selectFields(fields, " where b.id = :id"), Object[].class)
+                .setParameter("id", id)
+                .getResultList().stream().findFirst().map(row -> toMap(fields, row));
+    }
+
+    private <T> TypedQuery<T> query(String jpql, Class<T> type) {
+        return entityManager.createQuery(jpql, type)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_FLUSH_MODE, FlushMode.MANUAL);
+    }
+
+    // В select только колонки выбранных полей, join users - только если запрошено поле borrowedBy
+    private static String selectFields(Set<BookField> fields, String where) {
+        StringBuilder jpql = new StringBuilder("select ");
+        String separator = "";
+        for (BookField field : fields) {
+            for (String path : field.getPaths()) {
+                jpql.append(separator).append(path);
+                separator = ", ";
+            }
+        }
+        jpql.append(" from Book b");
+        if (fields.contains(BookField.BORROWED_BY)) {
+            jpql.append(" left join b.borrowedBy u");
+        }
+        return jpql.append(where).toString();
+    }
+
+    // Строка результата в порядке полей; borrowedBy - вложенный объект или null, если книга свободна
+    private static Map<String, Object> toMap(Set<BookField> fields, Object[] row) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        int column = 0;
+        for (BookField field : fields) {
+            if (field == BookField.BORROWED_BY) {
+                Object userId = row[column];
+                Map<String, Object> user = null;
+                if (userId != null) {
+                    user = new LinkedHashMap<>();
+                    user.put("id", userId);
+                    user.put("username", row[column + 1]);
+                    user.put("email", row[column + 2]);
+                }
+                result.put(field.getName(), user);
+            } else {
+                result.put(field.getName(), row[column]);
+            }
+            column += field.getPaths().length;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.library.repository;
+
+import com.example.library.exception.InvalidFieldsException;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Поле книги для выборочного вывода (параметр fields) и выбираемые для него колонки
+// borrowedBy - id, логин и email взявшего книгу пользователя (join только при запросе этого поля)
+public enum BookField {
+    ID("id", "b.id"),
+    TITLE("title", "b.title"),
+    AUTHOR("author", "b.author"),
+    ISBN("isbn", "b.isbn"),
+    PUBLICATION_YEAR("publicationYear", "b.publicationYear"),
+    AVAILABLE("available", "b.available"),
+    BORROW_DATE("borrowDate", "b.borrowDate"),
+    RETURN_DATE("returnDate", "b.returnDate"),
+    BORROWED_BY("borrowedBy", "u.id", "u.username", "u.email");
+
+    private static final BookField[] VALUES = values();
+
+    private final String name;
+    private final String[] paths;
+
+    BookField(String name, String... paths) {
+        this.name = name;
+        this.paths = paths;
+    }
+
+    // Имя поля в JSON ответе
+    public String getName() {
+        return name;
+    }
+
+    String[] getPaths() {
+        return paths;
+    }
+
+    // Разобрать параметр fields: имена полей через запятую ("id,title,borrowedBy")
+    public static Set<BookField> parse(String fields) {
+        Set<BookField> result = EnumSet.noneOf(BookField.class);
+        for (String token : fields.split(",")) {
+            String name = token.trim();
+            if (!name.isEmpty()) {
+                result.add(fromName(name));
+            }
+        }
+        if (result.isEmpty()) {
+            throw new InvalidFieldsException("Не указаны поля книги");
+        }
+        return result;
+    }
+
+    private static BookField fromName(String name) {
+        for (BookField field : VALUES) {
+            if (field.name.equals(name)) {
+                return field;
+            }
+        }
+        throw new InvalidFieldsException("Неизвестное поле книги: " + name + ". Доступные поля: "
+                + Arrays.stream(VALUES).map(BookField::getName).collect(Collectors.joining(",")));
+    }
+}
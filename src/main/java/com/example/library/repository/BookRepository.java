@@ -4,24 +4,28 @@ import com.example.library.model.Book;
 import com.example.library.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.List;
+import java.util.Optional;
 
 // Репозиторий для работы с книгами в базе данных
-public interface BookRepository extends JpaRepository<Book, Long> {
+// Запросы чтения каталога (проекции) - в BookCatalogRepository
+public interface BookRepository extends JpaRepository<Book, Long>, BookCatalogRepository {
 
     // Получить все книги с пагинацией
+    // Взявший книгу пользователь загружается тем же запросом (left join), без отдельного
+    // запроса users на каждую арендованную книгу страницы
+    @EntityGraph(attributePaths = "borrowedBy")
     Page<Book> findAll(Pageable pageable);
 
+    // Найти книгу по ID вместе с взявшим ее пользователем (одним запросом)
+    @EntityGraph(attributePaths = "borrowedBy")
+    Optional<Book> findById(Long id);
+
     // Найти все доступные книги (available = true)
     List<Book> findByAvailableTrue();
 
     // Найти книги, взятые конкретным пользователем
     List<Book> findByBorrowedBy(User user);
-
-    // Поиск книг по автору (без учета регистра)
-    List<Book> findByAuthorContainingIgnoreCase(String author);
-
-    // Поиск книг по названию (без учета регистра)
-    List<Book> findByTitleContainingIgnoreCase(String title);
 }
@@ -0,0 +1,21 @@
+package com.example.library.repository;
+
+import com.example.library.model.Role;
+
+import java.time.LocalDate;
+
+// Проекция книги для чтения каталога (выражение-конструктор JPQL): только нужные колонки,
+// данные взявшего книгу пользователя - из left join, без сущностей Book и User в контексте
+public record BookView(Long id,
+                       String title,
+                       String author,
+                       String isbn,
+                       Integer publicationYear,
+                       boolean available,
+                       LocalDate borrowDate,
+                       LocalDate returnDate,
+                       Long borrowerId,
+                       String borrowerUsername,
+                       String borrowerEmail,
+                       Role borrowerRole) {
+}
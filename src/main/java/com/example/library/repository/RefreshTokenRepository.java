@@ -0,0 +1,31 @@
+package com.example.library.repository;
+
+import com.example.library.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.Instant;
+import java.util.Optional;
+
+// Репозиторий refresh токенов
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    // Поиск токена по хэшу значения
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // Пометить токен использованным (атомарно: 0 - токен уже был использован)
+    @Modifying
+    @Query("update RefreshToken t set t.used = true where t.id = :id and t.used = false")
+    int markUsed(@Param("id") Long id);
+
+    // Удалить всю цепочку токенов (при повторном использовании токена)
+    @Modifying
+    @Query("delete from RefreshToken t where t.familyId = :familyId")
+    int deleteFamily(@Param("familyId") String familyId);
+
+    // Удалить истекшие токены
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,22 @@
+package com.example.library.repository;
+
+import com.example.library.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+// Репозиторий отозванных токенов
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    // Идентификаторы еще не истекших отозванных токенов (потоком, без загрузки всех в память)
+    @Query("select r.jti from RevokedToken r where r.expiresAt > :now")
+    Stream<String> streamActiveJtis(@Param("now") Instant now);
+
+    // Удалить записи токенов, срок действия которых уже истек
+    @Modifying
+    @Query("delete from RevokedToken r where r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
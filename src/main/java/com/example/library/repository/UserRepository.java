@@ -2,7 +2,13 @@ package com.example.library.repository;
 
 import com.example.library.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 // Репозиторий для работы с пользователями в базе данных
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -15,4 +21,48 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     // Проверить существование пользователя с указанным email
     Boolean existsByEmail(String email);
+
+    // Логины и email всех пользователей (потоком, для построения фильтра занятых значений)
+    @Query("select u.username as username, u.email as email from User u")
+    Stream<UserKeyView> streamUserKeys();
+
+    // Какие из переданных логинов уже заняты (одним запросом на пачку)
+    @Query("select u.username from User u where u.username in :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    // Какие из переданных email уже зарегистрированы (одним запросом на пачку)
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // Пользователи, у которых версия токенов отличается от начальной
+    @Query("select u.username as username, u.tokenVersion as tokenVersion from User u where u.tokenVersion > 0")
+    List<TokenVersionView> findChangedTokenVersions();
+
+    // Заменить хэш пароля (перехэширование по текущей политике)
+    @Modifying
+    @Query("update User u set u.password = :password where u.username = :username")
+    int updatePassword(@Param("username") String username, @Param("password") String password);
+
+    // Увеличить версию токенов пользователя (отзыв всех выданных токенов)
+    @Modifying
+    @Query("update User u set u.tokenVersion = u.tokenVersion + 1 where u.username = :username")
+    int incrementTokenVersion(@Param("username") String username);
+
+    // Текущая версия токенов пользователя
+    @Query("select u.tokenVersion from User u where u.username = :username")
+    Optional<Integer> findTokenVersion(@Param("username") String username);
+
+    // Проекция: логин и email
+    interface UserKeyView {
+        String getUsername();
+
+        String getEmail();
+    }
+
+    // Проекция: логин и версия токенов
+    interface TokenVersionView {
+        String getUsername();
+
+        int getTokenVersion();
+    }
 }
@@ -0,0 +1,361 @@
+package com.example.library.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+// Инвертированный индекс в памяти с ранжированием BM25
+// Документ - id и несколько текстовых полей; частота терма в документе учитывается с весом поля
+// (совпадение в названии важнее совпадения в ISBN). Запрос просматривает только списки вхождений
+// своих термов и не больше MAX_SCANNED_POSTINGS вхождений, поэтому его стоимость ограничена
+// независимо от размера индекса.
+// Потокобезопасен: поиск под блокировкой чтения, изменения - под блокировкой записи.
+public class InvertedIndex {
+
+    // Параметры BM25
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Терм запроса не короче MIN_PREFIX_LENGTH также ищется как префикс ("достоев" -> "достоевский")
+    // с весом PREFIX_WEIGHT; раскрывается не больше MAX_PREFIX_EXPANSIONS термов словаря
+    static final int MIN_PREFIX_LENGTH = 3;
+    static final int MAX_PREFIX_EXPANSIONS = 64;
+    static final double PREFIX_WEIGHT = 0.5;
+
+    // Предел просмотренных вхождений на запрос. Термы просматриваются от редких к частым; терм, который
+    // уже не помещается в предел (частое слово вроде "и"), не добавляет документов, а только уточняет
+    // оценку документов, найденных по более редким термам (как common terms query в Lucene).
+    // Если все термы частые, просматривается начало списка самого редкого, total - число документов с ним.
+    static final int MAX_SCANNED_POSTINGS = 10_000;
+
+    private static final Comparator<Hit> BY_RANK =
+            Comparator.comparingDouble(Hit::score).reversed().thenComparingLong(Hit::id);
+
+    private final float[] fieldWeights;
+
+    private final Map<Long, Document> documents = new HashMap<>();
+    // Словарь отсортирован для поиска по префиксу
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    private double totalLength;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock readLock = lock.readLock();
+    private final Lock writeLock = lock.writeLock();
+
+    // fieldWeights - вес каждого поля документа (в порядке полей в analyze)
+    public InvertedIndex(float... fieldWeights) {
+        if (fieldWeights.length == 0) {
+            throw new IllegalArgumentException("At least one field is required");
+        }
+        this.fieldWeights = fieldWeights.clone();
+    }
+
+    // Проанализированный документ: терм -> частота с учетом весов полей, длина - сумма частот
+    public record Document(long id, Map<String, Float> terms, float length) {
+    }
+
+    // Найденный документ и его оценка
+    public record Hit(long id, double score) {
+    }
+
+    // Страница результатов: total - число всех найденных документов
+    public record Hits(int total, List<Hit> hits) {
+    }
+
+    // Разбор полей документа на термы (без блокировок: можно выполнять параллельно до put)
+    public Document analyze(long id, String... fields) {
+        if (fields.length != fieldWeights.length) {
+            throw new IllegalArgumentException("Expected " + fieldWeights.length + " fields");
+        }
+        Map<String, Float> terms = new HashMap<>();
+        float length = 0;
+        for (int i = 0; i < fields.length; i++) {
+            float weight = fieldWeights[i];
+            for (String term : TextAnalyzer.analyze(fields[i])) {
+                terms.merge(term, weight, Float::sum);
+                length += weight;
+            }
+        }
+        return new Document(id, terms, length);
+    }
+
+    // Добавить документ или заменить документ с тем же id
+    public void put(Document document) {
+        writeLock.lock();
+        try {
+            putLocked(document);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Добавить документы одной блокировкой, пропуская id, для которых skip вернул true
+    // (проверка выполняется под той же блокировкой, что и вставка)
+    public void putAll(Collection<Document> batch, LongPredicate skip) {
+        writeLock.lock();
+        try {
+            for (Document document : batch) {
+                if (!skip.test(document.id())) {
+                    putLocked(document);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Удалить документ; false - документа не было
+    public boolean remove(long id) {
+        writeLock.lock();
+        try {
+            return removeLocked(id) != null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int size() {
+        readLock.lock();
+        try {
+            return documents.size();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // Поиск: документы, содержащие хотя бы один терм запроса, по убыванию оценки BM25
+    // (при равенстве - по id); возвращается limit документов начиная с offset
+    public Hits search(String query, int offset, int limit) {
+        Set<String> terms = new LinkedHashSet<>(TextAnalyzer.analyze(query));
+        if (terms.isEmpty()) {
+            return new Hits(0, List.of());
+        }
+        Map<Long, Double> scores = new HashMap<>();
+        int total = 0;
+        readLock.lock();
+        try {
+            if (documents.isEmpty()) {
+                return new Hits(0, List.of());
+            }
+            int documentCount = documents.size();
+            double averageLength = totalLength / documentCount;
+
+            List<QueryTerm> plan = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                plan.add(plan(term));
+            }
+            plan.sort(Comparator.comparingInt(QueryTerm::postingCount));
+
+            int budget = MAX_SCANNED_POSTINGS;
+            List<QueryTerm> frequent = new ArrayList<>();
+            for (QueryTerm term : plan) {
+                if (term.postingCount() == 0) {
+                    continue;
+                }
+                if (term.postingCount() <= budget) {
+                    scan(term, budget, documentCount, averageLength, scores);
+                    budget -= term.postingCount();
+                } else if (scores.isEmpty()) {
+                    scan(term, budget, documentCount, averageLength, scores);
+                    total = term.postingCount();
+                    budget = 0;
+                } else {
+                    frequent.add(term);
+                }
+            }
+            if (!frequent.isEmpty()) {
+                for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                    Document document = documents.get(entry.getKey());
+                    double score = entry.getValue();
+                    for (QueryTerm term : frequent) {
+                        score += lookup(term.term(), document, documentCount, averageLength);
+                    }
+                    entry.setValue(score);
+                }
+            }
+            total = Math.max(total, scores.size());
+        } finally {
+            readLock.unlock();
+        }
+        return new Hits(total, top(scores, offset, limit));
+    }
+
+    // Терм запроса: списки вхождений точного совпадения и совпадений по префиксу
+    private record QueryTerm(String term, List<Match> matches, int postingCount) {
+    }
+
+    private record Match(Postings postings, double weight) {
+    }
+
+    private QueryTerm plan(String term) {
+        List<Match> matches = new ArrayList<>();
+        int postingCount = 0;
+        Postings exact = postings.get(term);
+        if (exact != null) {
+            matches.add(new Match(exact, 1.0));
+            postingCount += exact.size;
+        }
+        if (term.length() >= MIN_PREFIX_LENGTH) {
+            SortedMap<String, Postings> prefixed = postings.subMap(term, false, term + Character.MAX_VALUE, false);
+            int expansions = 0;
+            for (Postings candidate : prefixed.values()) {
+                if (expansions++ == MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                matches.add(new Match(candidate, PREFIX_WEIGHT));
+                postingCount += candidate.size;
+            }
+        }
+        return new QueryTerm(term, matches, postingCount);
+    }
+
+    // Оценки документов по терму (лучшая из точного совпадения и совпадений по префиксу),
+    // просматривается не больше max вхождений
+    private static void scan(QueryTerm term, int max, int documentCount, double averageLength,
+                             Map<Long, Double> scores) {
+        Map<Long, Double> termScores = new HashMap<>();
+        int remaining = max;
+        for (Match match : term.matches()) {
+            if (remaining <= 0) {
+                break;
+            }
+            remaining -= match.postings().score(match.weight(), documentCount, averageLength, termScores, remaining);
+        }
+        termScores.forEach((id, score) -> scores.merge(id, score, Double::sum));
+    }
+
+    // Оценка уже найденного документа по частому терму - по термам самого документа
+    private double lookup(String term, Document document, int documentCount, double averageLength) {
+        double best = 0;
+        for (Map.Entry<String, Float> entry : document.terms().entrySet()) {
+            String candidate = entry.getKey();
+            double weight;
+            if (candidate.equals(term)) {
+                weight = 1.0;
+            } else if (term.length() >= MIN_PREFIX_LENGTH && candidate.startsWith(term)) {
+                weight = PREFIX_WEIGHT;
+            } else {
+                continue;
+            }
+            double score = weight * idf(postings.get(candidate).size, documentCount)
+                    * tf(entry.getValue(), document.length(), averageLength);
+            best = Math.max(best, score);
+        }
+        return best;
+    }
+
+    // Составляющие BM25: вес редкости терма и насыщаемая частота с поправкой на длину документа
+    private static double idf(int documentFrequency, int documentCount) {
+        return Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static double tf(double frequency, double length, double averageLength) {
+        return frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+    }
+
+    // Лучшие offset + limit документов (куча ограниченного размера), затем нужная страница
+    private static List<Hit> top(Map<Long, Double> scores, int offset, int limit) {
+        int window = offset + limit;
+        if (limit <= 0 || offset >= scores.size()) {
+            return List.of();
+        }
+        PriorityQueue<Hit> heap = new PriorityQueue<>(Math.min(window, scores.size()) + 1, BY_RANK.reversed());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            heap.add(new Hit(entry.getKey(), entry.getValue()));
+            if (heap.size() > window) {
+                heap.poll();
+            }
+        }
+        Hit[] ranked = heap.toArray(new Hit[0]);
+        Arrays.sort(ranked, BY_RANK);
+        return List.of(ranked).subList(Math.min(offset, ranked.length), ranked.length);
+    }
+
+    private void putLocked(Document document) {
+        Document previous = documents.get(document.id());
+        if (previous != null && previous.terms().equals(document.terms())) {
+            // Изменились не индексируемые поля (например, книгу взяли в аренду)
+            return;
+        }
+        if (previous != null) {
+            removeLocked(document.id());
+        }
+        documents.put(document.id(), document);
+        totalLength += document.length();
+        document.terms().forEach((term, frequency) ->
+                postings.computeIfAbsent(term, key -> new Postings()).add(document.id(), frequency, document.length()));
+    }
+
+    private Document removeLocked(long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return null;
+        }
+        totalLength -= document.length();
+        for (String term : document.terms().keySet()) {
+            Postings list = postings.get(term);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(term);
+            }
+        }
+        return document;
+    }
+
+    // Список вхождений терма: id документов, частоты и длины документов (параллельные массивы,
+    // удаление - заменой последним элементом)
+    private static final class Postings {
+
+        private long[] ids = new long[4];
+        private float[] frequencies = new float[4];
+        private float[] lengths = new float[4];
+        private int size;
+
+        void add(long id, float frequency, float length) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+            }
+            ids[size] = id;
+            frequencies[size] = frequency;
+            lengths[size] = length;
+            size++;
+        }
+
+        boolean remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    size--;
+                    ids[i] = ids[size];
+                    frequencies[i] = frequencies[size];
+                    lengths[i] = lengths[size];
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // BM25 по этому терму для первых max документов списка (с весом совпадения);
+        // возвращает число просмотренных вхождений
+        int score(double weight, int documentCount, double averageLength, Map<Long, Double> termScores, int max) {
+            double idf = idf(size, documentCount);
+            int count = Math.min(size, max);
+            for (int i = 0; i < count; i++) {
+                termScores.merge(ids[i], weight * idf * tf(frequencies[i], lengths[i], averageLength), Math::max);
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.library.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+
+// Разбор текста на термы для полнотекстового поиска (одинаково для книг и запросов)
+// Любая письменность: терм - последовательность букв и цифр (Character.isLetterOrDigit по code point).
+// Нормализация: NFKC, нижний регистр, ё -> е, без диакритических знаков (ударения "за́мок" -> "замок").
+// Дефис между цифрами не разделяет терм: ISBN 978-5-17-090539-2 -> 9785170905392.
+public final class TextAnalyzer {
+
+    // Более длинные термы обрезаются (защита словаря от мусорных строк)
+    static final int MAX_TERM_LENGTH = 64;
+
+    private TextAnalyzer() {
+    }
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String normalized = Normalizer.isNormalized(text, Normalizer.Form.NFKC)
+                ? text
+                : Normalizer.normalize(text, Normalizer.Form.NFKC);
+
+        StringBuilder term = new StringBuilder();
+        int length = normalized.length();
+        int i = 0;
+        while (i < length) {
+            int cp = normalized.codePointAt(i);
+            int next = i + Character.charCount(cp);
+            if (Character.isLetterOrDigit(cp)) {
+                if (term.length() < MAX_TERM_LENGTH) {
+                    term.appendCodePoint(fold(cp));
+                }
+            } else if (Character.getType(cp) == Character.NON_SPACING_MARK) {
+                // Знак ударения и другие комбинируемые знаки внутри слова пропускаются
+            } else if (isDash(cp) && endsWithDigit(term) && next < length && isIsbnChar(normalized.codePointAt(next))) {
+                // Дефис внутри номера (ISBN)
+            } else {
+                flush(term, terms);
+            }
+            i = next;
+        }
+        flush(term, terms);
+        return terms;
+    }
+
+    private static int fold(int cp) {
+        int lower = Character.toLowerCase(cp);
+        return lower == 'ё' ? 'е' : lower;
+    }
+
+    private static boolean isDash(int cp) {
+        return cp == '-' || Character.getType(cp) == Character.DASH_PUNCTUATION;
+    }
+
+    private static boolean endsWithDigit(StringBuilder term) {
+        return term.length() > 0 && Character.isDigit(term.charAt(term.length() - 1));
+    }
+
+    // Цифра или контрольный символ X в конце ISBN-10
+    private static boolean isIsbnChar(int cp) {
+        return Character.isDigit(cp) || cp == 'X' || cp == 'x';
+    }
+
+    private static void flush(StringBuilder term, List<String> terms) {
+        if (term.length() > 0) {
+            terms.add(term.toString());
+            term.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.library.security;
+
+import com.example.library.util.ObjectPool;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.List;
+
+// Облегченная проверка HS256 токенов без jjwt (для пакетной проверки)
+// Mac переиспользуется через пул, claims читаются сразу в компактный объект без Map.
+// Принимаются только токены, которые принял бы и разбор через jjwt: заголовок с alg=HS256,
+// без crit и без сжатия (zip); nbf и exp проверяет вызывающий код.
+class HmacTokenVerifier {
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final String JWT_ALGORITHM = "HS256";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private static final ObjectReader HEADER_READER = MAPPER.readerFor(Header.class);
+    private static final ObjectReader CLAIMS_READER = MAPPER.readerFor(Claims.class);
+
+    // Поля заголовка, от которых зависит проверка
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Header(String alg, List<String> crit, String zip) {
+    }
+
+    // Claims токена в компактном виде (текущие и прежнего формата)
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Claims(String sub, Long exp, Long nbf, String jti, String r, Object role, Integer v, Integer ver) {
+    }
+
+    private final ObjectPool<Mac> macs;
+
+    HmacTokenVerifier(SecretKey key) {
+        this.macs = ObjectPool.perCore(() -> {
+            try {
+                Mac instance = Mac.getInstance(MAC_ALGORITHM);
+                instance.init(key);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC-SHA256 is not available", e);
+            }
+        });
+    }
+
+    // Проверить подпись и разобрать claims (null - подпись неверна или токен поврежден)
+    // Срок действия (exp, nbf) проверяет вызывающий код
+    Claims verify(String token) {
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = headerEnd > 0 ? token.indexOf('.', headerEnd + 1) : -1;
+        if (payloadEnd < 0 || token.indexOf('.', payloadEnd + 1) >= 0) {
+            return null;
+        }
+        try {
+            byte[] bytes = token.getBytes(StandardCharsets.US_ASCII);
+            byte[] expected;
+            Mac hmac = macs.acquire();
+            try {
+                hmac.update(bytes, 0, payloadEnd);
+                expected = hmac.doFinal();
+            } finally {
+                macs.release(hmac);
+            }
+            byte[] actual = Base64.getUrlDecoder().decode(token.substring(payloadEnd + 1));
+            if (!MessageDigest.isEqual(expected, actual)) {
+                return null;
+            }
+            // Подпись HS256 верна только для заголовка с alg=HS256: другой alg jjwt проверил бы иначе
+            Header header = HEADER_READER.readValue(Base64.getUrlDecoder().decode(token.substring(0, headerEnd)));
+            if (header == null || !JWT_ALGORITHM.equals(header.alg()) || header.crit() != null
+                    || header.zip() != null) {
+                return null;
+            }
+            byte[] payload = Base64.getUrlDecoder().decode(token.substring(headerEnd + 1, payloadEnd));
+            return CLAIMS_READER.readValue(payload);
+        } catch (IllegalArgumentException | IOException e) {
+            return null;
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.library.security;
 
+import com.example.library.exception.JwtValidationException;
 import jakarta.servlet.*;
 import jakarta.servlet.http.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.*;
 import org.springframework.security.core.context.*;
@@ -19,6 +21,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService; // Сервис работы с JWT
     private final UserDetailsService userDetailsService; // Сервис загрузки пользователей
+    private final VerifiedTokenCache tokenCache; // Кэш уже проверенных токенов
+    private final TokenVersionRegistry tokenVersions; // Версии токенов пользователей
+    private final TokenRevocationService revocationService; // Отозванные токены
+    private final RequestClassifier requestClassifier; // Классы маршрутов
+    private final JwtFilterMetrics metrics; // Время этапов фильтра
+
+    // Stateless режим: пользователь восстанавливается из claims без запроса к БД
+    @Value("${jwt.stateless-principal:false}")
+    private boolean statelessPrincipal;
+
+    // Анонимные маршруты (статика, документация, вход, открытый каталог) не используют
+    // пользователя из токена - токен на них не разбирается
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return requestClassifier.classify(request).isAnonymous();
+    }
 
     @Override
     protected void doFilterInternal(
@@ -28,8 +46,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         // Получаем заголовок Authorization
         final String authHeader = request.getHeader("Authorization");
-        final String jwt;
-        final String userEmail;
 
         // Если нет токена или неверный формат - пропускаем запрос дальше
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -37,33 +53,82 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
+        // Если пользователь уже аутентифицирован - токен не разбираем
+        if (SecurityContextHolder.getContext().getAuthentication() != null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
         // Извлекаем JWT из заголовка (убираем "Bearer ")
-        jwt = authHeader.substring(7);
-        // Получаем email пользователя из токена
-        userEmail = jwtService.extractUsername(jwt);
-
-        // Если email есть и пользователь еще не аутентифицирован
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            // Загружаем данные пользователя
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-
-            // Проверяем валидность токена
-            if (jwtService.isTokenValid(jwt, userDetails)) {
-                // Создаем объект аутентификации
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
-                // Добавляем детали запроса
-                authToken.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request)
-                );
-                // Устанавливаем аутентификацию в контекст безопасности
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+        long stageStart = System.nanoTime();
+        final String jwt = authHeader.substring(7);
+
+        // Токен уже проверялся - восстанавливаем пользователя без JwtService и БД
+        VerifiedTokenCache.Entry cached = tokenCache.get(jwt);
+        stageStart = metrics.recordParse(request, stageStart);
+        if (cached != null) {
+            boolean active = isActive(cached.token());
+            stageStart = metrics.recordVerify(request, stageStart);
+            if (active) {
+                authenticate(cached.principal(), request);
+                metrics.recordLoad(request, stageStart);
             }
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Проверяем токен за один разбор
+        final VerifiedToken token;
+        try {
+            token = jwtService.verifyToken(jwt);
+        } catch (JwtValidationException e) {
+            // Невалидный токен - продолжаем как анонимный запрос
+            metrics.recordVerify(request, stageStart);
+            filterChain.doFilter(request, response);
+            return;
         }
+
+        // Токен отозван явно или сменой версии (смена пароля или роли)
+        boolean active = isActive(token);
+        stageStart = metrics.recordVerify(request, stageStart);
+        if (!active) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Восстанавливаем пользователя из claims или загружаем из БД
+        UserDetails userDetails = statelessPrincipal
+                ? JwtPrincipal.from(token)
+                : this.userDetailsService.loadUserByUsername(token.subject());
+
+        // Проверяем соответствие токена пользователю (без повторного разбора)
+        if (jwtService.isTokenValid(token, userDetails)) {
+            tokenCache.put(jwt, token, userDetails);
+            authenticate(userDetails, request);
+        }
+        metrics.recordLoad(request, stageStart);
         // Продолжаем цепочку фильтров
         filterChain.doFilter(request, response);
     }
+
+    // Токен не отозван: версия актуальна и jti нет в списке отозванных
+    private boolean isActive(VerifiedToken token) {
+        return tokenVersions.isCurrent(token) && !revocationService.isRevoked(token);
+    }
+
+    // Установить аутентификацию пользователя в контекст безопасности
+    private void authenticate(UserDetails userDetails, HttpServletRequest request) {
+        // Создаем объект аутентификации
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                userDetails,
+                null,
+                userDetails.getAuthorities()
+        );
+        // Добавляем детали запроса
+        authToken.setDetails(
+                new WebAuthenticationDetailsSource().buildDetails(request)
+        );
+        // Устанавливаем аутентификацию в контекст безопасности
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
 }
@@ -0,0 +1,48 @@
+package com.example.library.security;
+
+import com.example.library.monitoring.RequestTimings;
+import com.example.library.monitoring.StageTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+
+// Время этапов JwtAuthenticationFilter (метрика security.jwt.stage с тегом stage,
+// в Server-Timing - jwt.<этап>): разбор заголовка и поиск в кэше, проверка токена
+// (подпись, claims, отзыв), получение пользователя (из claims или БД)
+@Component
+public class JwtFilterMetrics {
+
+    static final String METRIC_NAME = "security.jwt.stage";
+
+    private final StageTimer parse;
+    private final StageTimer verify;
+    private final StageTimer load;
+
+    public JwtFilterMetrics(MeterRegistry meterRegistry) {
+        this.parse = timer(meterRegistry, "parse");
+        this.verify = timer(meterRegistry, "verify");
+        this.load = timer(meterRegistry, "load");
+    }
+
+    // Разбор заголовка Authorization и поиск в кэше проверенных токенов
+    // Методы возвращают текущее время - начало следующего этапа
+    public long recordParse(HttpServletRequest request, long startNanos) {
+        return parse.stop(startNanos, RequestTimings.of(request));
+    }
+
+    // Проверка подписи и claims, версии и списка отозванных токенов
+    public long recordVerify(HttpServletRequest request, long startNanos) {
+        return verify.stop(startNanos, RequestTimings.of(request));
+    }
+
+    // Получение пользователя и сверка токена с ним
+    public long recordLoad(HttpServletRequest request, long startNanos) {
+        return load.stop(startNanos, RequestTimings.of(request));
+    }
+
+    private static StageTimer timer(MeterRegistry meterRegistry, String stage) {
+        return StageTimer.of(meterRegistry, METRIC_NAME, Tags.of("stage", stage),
+                "Время этапа JWT аутентификации", "jwt." + stage);
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.library.security;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Набор ключей подписи JWT с идентификаторами (kid) и ротацией
+// Активный ключ подписывает новые токены, предыдущие ключи остаются действительными
+// для проверки до истечения срока хранения (не меньше времени жизни токена)
+// Асимметричные ключи хранятся в файле (JwtKeyStore): ротация сохраняется до смены активного ключа,
+// поэтому после перезапуска принимаются те же ключи и срок хранения старых продолжает действовать.
+// Экземпляры с общим файлом перечитывают его, встретив неизвестный kid (ротацию включать на одном).
+@Slf4j
+public class JwtKeyRing extends LocatorAdapter<Key> {
+
+    // Как часто можно перечитывать файл ключей из-за неизвестного kid
+    static final Duration RELOAD_INTERVAL = Duration.ofSeconds(10);
+
+    private final SigningAlgorithm algorithm;
+    private final Duration retention;
+    private final Clock clock;
+    private final JwtKeyStore store; // null - ключи только в памяти
+
+    // Неизменяемый снимок состояния: чтение без блокировок, замена целиком
+    private final AtomicReference<State> state;
+
+    // Раньше этого момента файл ключей повторно не читается (под блокировкой this)
+    private Instant nextReload = Instant.MIN;
+
+    private JwtKeyRing(SigningAlgorithm algorithm, Duration retention, Clock clock, JwtKeyStore store, State initial) {
+        this.algorithm = algorithm;
+        this.retention = retention;
+        this.clock = clock;
+        this.store = store;
+        this.state = new AtomicReference<>(initial);
+    }
+
+    // Ключ подписи с идентификатором
+    public record SigningKey(String kid, Key signingKey, Key verificationKey) {
+    }
+
+    // Ключ проверки и момент, после которого он перестает приниматься (null - активный)
+    private record Entry(SigningKey key, Instant validUntil) {
+    }
+
+    private record State(SigningKey active, Map<String, Entry> keys) {
+
+        static State of(SigningKey active) {
+            return new State(active, Map.of(active.kid(), new Entry(active, null)));
+        }
+    }
+
+    // Набор из одного HMAC ключа (HS256)
+    public static JwtKeyRing hmac(SecretKey secretKey) {
+        SigningKey key = new SigningKey("hs256", secretKey, secretKey);
+        return new JwtKeyRing(SigningAlgorithm.HS256, Duration.ZERO, Clock.systemUTC(), null, State.of(key));
+    }
+
+    // Набор асимметричных ключей только в памяти (тесты и бенчмарки: теряется при перезапуске)
+    public static JwtKeyRing generate(SigningAlgorithm algorithm, Duration retention) {
+        return generate(algorithm, retention, Clock.systemUTC());
+    }
+
+    static JwtKeyRing generate(SigningAlgorithm algorithm, Duration retention, Clock clock) {
+        return new JwtKeyRing(algorithm, retention, clock, null, State.of(newKey(algorithm)));
+    }
+
+    // Набор асимметричных ключей из файла; если файла нет (или в нем ключи другого алгоритма),
+    // ключ генерируется и сохраняется. Нечитаемый файл - ошибка старта, а не новые ключи.
+    public static JwtKeyRing open(SigningAlgorithm algorithm, Duration retention, Path path) {
+        return open(algorithm, retention, new JwtKeyStore(path), Clock.systemUTC());
+    }
+
+    static JwtKeyRing open(SigningAlgorithm algorithm, Duration retention, JwtKeyStore store, Clock clock) {
+        State loaded = load(store, algorithm, clock.instant());
+        if (loaded != null) {
+            log.info("Ключи JWT ({}) загружены из {}: активный kid={}, всего {}",
+                    algorithm, store.path(), loaded.active().kid(), loaded.keys().size());
+            return new JwtKeyRing(algorithm, retention, clock, store, loaded);
+        }
+        State initial = State.of(newKey(algorithm));
+        save(store, algorithm, initial);
+        log.info("Создан ключ JWT ({}), сохранен в {}", algorithm, store.path());
+        return new JwtKeyRing(algorithm, retention, clock, store, initial);
+    }
+
+    public SigningAlgorithm algorithm() {
+        return algorithm;
+    }
+
+    // Текущий ключ подписи
+    public SigningKey active() {
+        return state.get().active();
+    }
+
+    // Ротация: новый активный ключ, предыдущий остается для проверки на время retention
+    // Новое состояние сначала сохраняется в файл и только потом начинает подписывать токены:
+    // токен нового ключа не может пережить перезапуск без своего ключа
+    public synchronized SigningKey rotate() {
+        if (algorithm.isSymmetric()) {
+            throw new IllegalStateException("Key rotation is not supported for " + algorithm
+                    + ": the shared secret is set by jwt.secret-key");
+        }
+        SigningKey next = newKey(algorithm);
+        Instant now = clock.instant();
+        // Файл мог изменить другой экземпляр: его ключи не теряются
+        State current = store != null ? reloadNow(now) : state.get();
+        Map<String, Entry> keys = new HashMap<>();
+        current.keys().forEach((kid, entry) -> {
+            if (entry.validUntil() == null) {
+                keys.put(kid, new Entry(entry.key(), now.plus(retention)));
+            } else if (entry.validUntil().isAfter(now)) {
+                keys.put(kid, entry);
+            }
+        });
+        keys.put(next.kid(), new Entry(next, null));
+        State rotated = new State(next, Map.copyOf(keys));
+        if (store != null) {
+            save(store, algorithm, rotated);
+        }
+        state.set(rotated);
+        log.info("Выполнена ротация ключей JWT ({}), новый kid={}", algorithm, next.kid());
+        return next;
+    }
+
+    // Публичные ключи в формате JWK (для /.well-known/jwks.json)
+    public List<PublicJwk<?>> publicJwks() {
+        if (algorithm.isSymmetric()) {
+            return List.of();
+        }
+        Instant now = clock.instant();
+        return state.get().keys().values().stream()
+                .filter(entry -> isValid(entry, now))
+                .<PublicJwk<?>>map(entry -> Jwks.builder()
+                        .key((PublicKey) entry.key().verificationKey())
+                        .id(entry.key().kid())
+                        .algorithm(algorithm.name())
+                        .build())
+                .toList();
+    }
+
+    // Поиск ключа проверки по заголовку kid
+    @Override
+    protected Key locate(JwsHeader header) {
+        State current = state.get();
+        String kid = header.getKeyId();
+        if (kid == null) {
+            // Токены, выданные до появления kid, проверяются активным ключом
+            return current.active().verificationKey();
+        }
+        Entry entry = current.keys().get(kid);
+        if (entry == null && store != null) {
+            entry = reloadIfDue().keys().get(kid);
+        }
+        return entry != null && isValid(entry, clock.instant()) ? entry.key().verificationKey() : null;
+    }
+
+    // Перечитать файл ради неизвестного kid (ротация на другом экземпляре), но не чаще
+    // RELOAD_INTERVAL: токены с произвольным kid не заставляют читать файл на каждый запрос
+    private synchronized State reloadIfDue() {
+        Instant now = clock.instant();
+        if (now.isBefore(nextReload)) {
+            return state.get();
+        }
+        try {
+            return reloadNow(now);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось перечитать ключи JWT из {}: {}", store.path(), e.getMessage());
+            return state.get();
+        }
+    }
+
+    private State reloadNow(Instant now) {
+        nextReload = now.plus(RELOAD_INTERVAL);
+        State loaded = load(store, algorithm, now);
+        if (loaded != null) {
+            state.set(loaded);
+        }
+        return state.get();
+    }
+
+    // Состояние из файла без истекших ключей (null - файла нет или в нем другой алгоритм)
+    private static State load(JwtKeyStore store, SigningAlgorithm algorithm, Instant now) {
+        JwtKeyStore.StoredKeys stored;
+        try {
+            stored = store.read();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read JWT key store " + store.path(), e);
+        }
+        if (stored == null) {
+            return null;
+        }
+        if (stored.algorithm() != algorithm) {
+            log.warn("В {} ключи {}, а настроен {}: создается новый ключ", store.path(), stored.algorithm(), algorithm);
+            return null;
+        }
+        SigningKey active = null;
+        Map<String, Entry> keys = new HashMap<>();
+        try {
+            KeyFactory factory = KeyFactory.getInstance(algorithm.keyFactoryAlgorithm());
+            Base64.Decoder decoder = Base64.getDecoder();
+            for (JwtKeyStore.StoredKey key : stored.keys()) {
+                Instant validUntil = key.validUntil() != null ? Instant.parse(key.validUntil()) : null;
+                if (validUntil != null && !validUntil.isAfter(now)) {
+                    continue;
+                }
+                SigningKey signingKey = new SigningKey(key.kid(),
+                        factory.generatePrivate(new PKCS8EncodedKeySpec(decoder.decode(key.privateKey()))),
+                        factory.generatePublic(new X509EncodedKeySpec(decoder.decode(key.publicKey()))));
+                keys.put(key.kid(), new Entry(signingKey, validUntil));
+                if (validUntil == null) {
+                    active = signingKey;
+                }
+            }
+        } catch (GeneralSecurityException | RuntimeException e) {
+            throw new IllegalStateException("Invalid JWT key store " + store.path(), e);
+        }
+        if (active == null) {
+            throw new IllegalStateException("JWT key store " + store.path() + " has no active key");
+        }
+        return new State(active, Map.copyOf(keys));
+    }
+
+    private static void save(JwtKeyStore store, SigningAlgorithm algorithm, State state) {
+        Base64.Encoder encoder = Base64.getEncoder();
+        List<JwtKeyStore.StoredKey> keys = new ArrayList<>(state.keys().size());
+        state.keys().values().forEach(entry -> keys.add(new JwtKeyStore.StoredKey(
+                entry.key().kid(),
+                encoder.encodeToString(entry.key().signingKey().getEncoded()),
+                encoder.encodeToString(entry.key().verificationKey().getEncoded()),
+                entry.validUntil() != null ? entry.validUntil().toString() : null)));
+        try {
+            store.write(new JwtKeyStore.StoredKeys(algorithm, keys));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write JWT key store " + store.path(), e);
+        }
+    }
+
+    private static boolean isValid(Entry entry, Instant now) {
+        return entry.validUntil() == null || entry.validUntil().isAfter(now);
+    }
+
+    // Новая пара ключей; kid - JWK thumbprint публичного ключа
+    private static SigningKey newKey(SigningAlgorithm algorithm) {
+        KeyPair keyPair = algorithm.generateKeyPair();
+        String kid = Jwks.builder().key(keyPair.getPublic()).build().thumbprint().toString();
+        return new SigningKey(kid, keyPair.getPrivate(), keyPair.getPublic());
+    }
+}
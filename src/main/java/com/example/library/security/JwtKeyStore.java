@@ -0,0 +1,66 @@
+package com.example.library.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+
+// Файл набора ключей JWT (jwt.keys.store): ключи переживают перезапуск, а экземпляры с общим файлом
+// подписывают и проверяют одними ключами и публикуют одинаковый JWKS.
+// Формат - JSON: закрытый ключ в PKCS#8, открытый в X.509 (base64), срок приема старых ключей.
+// Запись атомарная (временный файл и переименование), файл доступен только владельцу (если ФС - POSIX).
+final class JwtKeyStore {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Ключ в файле: validUntil - момент ISO-8601, после которого ключ не принимается (null - активный)
+    record StoredKey(String kid, String privateKey, String publicKey, String validUntil) {
+    }
+
+    record StoredKeys(SigningAlgorithm algorithm, List<StoredKey> keys) {
+    }
+
+    private final Path path;
+
+    JwtKeyStore(Path path) {
+        this.path = path;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    // Прочитать набор ключей (null - файла еще нет)
+    StoredKeys read() throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        return MAPPER.readValue(path.toFile(), StoredKeys.class);
+    }
+
+    // Записать набор ключей целиком
+    void write(StoredKeys keys) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+                Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-------"));
+            }
+            MAPPER.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), keys);
+            try {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
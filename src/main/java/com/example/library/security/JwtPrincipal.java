@@ -0,0 +1,73 @@
+package com.example.library.security;
+
+import com.example.library.model.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+// Легковесный пользователь, восстановленный только из claims проверенного токена
+// Используется в stateless режиме, когда пользователь не загружается из БД
+public record JwtPrincipal(
+        String username,
+        int tokenVersion,
+        List<GrantedAuthority> authorities
+) implements UserDetails, VersionedPrincipal {
+
+    public JwtPrincipal {
+        authorities = List.copyOf(authorities);
+    }
+
+    // Создать пользователя из проверенного токена
+    // Известная роль отображается на общий список прав роли без создания новых объектов
+    public static JwtPrincipal from(VerifiedToken token) {
+        Role role = token.roles().size() == 1 ? Role.fromAuthority(token.roles().get(0)) : null;
+        List<GrantedAuthority> authorities = role != null
+                ? role.getAuthorities()
+                : token.roles().stream().<GrantedAuthority>map(SimpleGrantedAuthority::new).toList();
+        return new JwtPrincipal(token.subject(), token.version(), authorities);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    // Пароль в токене не хранится
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
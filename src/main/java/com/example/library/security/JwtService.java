@@ -1,19 +1,26 @@
 package com.example.library.security;
 
 import com.example.library.exception.JwtValidationException;
+import com.example.library.model.Role;
+import com.example.library.model.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import java.security.Key;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
 import java.util.function.Function;
 
 // Сервис для работы с JWT токенами (генерация, валидация, извлечение данных)
@@ -21,12 +28,137 @@ import java.util.function.Function;
 @Service
 public class JwtService {
 
+    // Компактные claims: код роли, версия токенов пользователя, идентификатор пользователя
+    static final String ROLE_CLAIM = "r";
+    static final String VERSION_CLAIM = "v";
+    static final String USER_ID_CLAIM = "uid";
+
+    // Claims прежнего формата (принимаются при разборе до истечения старых токенов)
+    private static final String LEGACY_ROLE_CLAIM = "role";
+    private static final String LEGACY_VERSION_CLAIM = "ver";
+
     @Value("${jwt.secret-key}") // Секретный ключ из конфига
     private String secretKey;
 
     @Value("${jwt.expiration-time}") // Время жизни токена (мс)
     private long expirationTime;
 
+    @Value("${jwt.algorithm:HS256}") // Алгоритм подписи (HS256, ES256, EdDSA)
+    private SigningAlgorithm algorithm = SigningAlgorithm.HS256;
+
+    @Value("${jwt.claims.user-id:false}") // Добавлять claim uid с идентификатором пользователя
+    private boolean includeUserId;
+
+    @Value("${jwt.size-budget:0}") // Максимальный размер токена в байтах (0 - без ограничения)
+    private int sizeBudget;
+
+    @Value("${jwt.size-budget-strict:false}") // Превышение бюджета - ошибка выпуска (для тестов), иначе предупреждение
+    private boolean strictSizeBudget;
+
+    @Value("${jwt.keys.retention-time:0}") // Сколько принимать токены старого ключа после ротации (мс, 0 - время жизни токена)
+    private long keyRetentionTime;
+
+    @Value("${jwt.keys.store:}") // Файл ключей ES256/EdDSA (пусто - только в памяти, до перезапуска)
+    private String keyStore = "";
+
+    @Value("${jwt.keys.rotation-cron:-}") // Расписание ротации (для проверки настройки при старте)
+    private String rotationCron = "-";
+
+    // Набор ключей и парсер создаются один раз при старте (оба потокобезопасны)
+    private JwtKeyRing keyRing;
+    private JwtParser jwtParser;
+
+    // Облегченная проверка для HS256 (для асимметричных алгоритмов - null, проверка через jjwt)
+    private HmacTokenVerifier hmacVerifier;
+
+    // Подготовка ключей и парсера (вызывается Spring после внедрения свойств)
+    @PostConstruct
+    public void init() {
+        if (algorithm.isSymmetric()) {
+            // Общий секрет задается конфигурацией: ротация по расписанию для него невозможна
+            if (!"-".equals(rotationCron)) {
+                throw new IllegalStateException(
+                        "jwt.keys.rotation-cron requires ES256 or EdDSA; HS256 uses the shared jwt.secret-key");
+            }
+            SecretKey key = buildSignInKey();
+            this.keyRing = JwtKeyRing.hmac(key);
+            this.hmacVerifier = new HmacTokenVerifier(key);
+        } else {
+            Duration retention = Duration.ofMillis(keyRetentionTime > 0 ? keyRetentionTime : expirationTime);
+            if (keyStore == null || keyStore.isBlank()) {
+                log.warn("jwt.keys.store не задан: ключи {} только в памяти, после перезапуска "
+                        + "выданные токены станут недействительны", algorithm);
+                this.keyRing = JwtKeyRing.generate(algorithm, retention);
+            } else {
+                this.keyRing = JwtKeyRing.open(algorithm, retention, Path.of(keyStore));
+            }
+        }
+        this.jwtParser = Jwts.parser()
+                .keyLocator(keyRing) // Ключ проверки выбирается по заголовку kid
+                .build();
+        log.info("JWT подписываются алгоритмом {}, kid={}", algorithm, keyRing.active().kid());
+    }
+
+    // Плановая ротация ключей подписи (jwt.keys.rotation-cron, "-" - выключена)
+    @Scheduled(cron = "${jwt.keys.rotation-cron:-}")
+    public void rotateKeys() {
+        keyRing.rotate();
+    }
+
+    // Набор ключей (публичная часть публикуется через JWKS)
+    public JwtKeyRing getKeyRing() {
+        return keyRing;
+    }
+
+    // Проверить токен за один разбор: подпись, срок действия, извлечение данных
+    public VerifiedToken verifyToken(String token) {
+        return toVerifiedToken(parseClaims(token));
+    }
+
+    // Проверить токен без исключения и журналирования (null - токен недействителен)
+    // Для пакетной проверки, где недействительные токены - обычный результат
+    // HS256 проверяется без jjwt: в несколько раз быстрее и с меньшим выделением памяти
+    public VerifiedToken tryVerifyToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        if (hmacVerifier != null) {
+            HmacTokenVerifier.Claims claims = hmacVerifier.verify(token);
+            if (claims == null) {
+                return null;
+            }
+            VerifiedToken verified = new VerifiedToken(
+                    claims.sub(),
+                    claims.exp() != null ? Instant.ofEpochSecond(claims.exp()) : null,
+                    extractRoles(claims.r(), claims.role()),
+                    extractVersion(claims.v(), claims.ver()),
+                    claims.jti());
+            Instant now = Instant.now();
+            // Как в jjwt: токен не принимается до nbf
+            if (claims.nbf() != null && Instant.ofEpochSecond(claims.nbf()).isAfter(now)) {
+                return null;
+            }
+            return verified.isExpiredAt(now) ? null : verified;
+        }
+        try {
+            return toVerifiedToken(jwtParser.parseSignedClaims(token).getPayload());
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Token rejected: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private VerifiedToken toVerifiedToken(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return new VerifiedToken(
+                claims.getSubject(),
+                expiration != null ? expiration.toInstant() : null,
+                extractRoles(claims.get(ROLE_CLAIM), claims.get(LEGACY_ROLE_CLAIM)),
+                extractVersion(claims.get(VERSION_CLAIM), claims.get(LEGACY_VERSION_CLAIM)),
+                claims.getId()
+        );
+    }
+
     // Извлечь имя пользователя из токена
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -34,71 +166,151 @@ public class JwtService {
 
     // Общий метод для извлечения данных из токена
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = parseClaims(token);
         return claimsResolver.apply(claims);
     }
 
     // Сгенерировать токен для пользователя (с ролью в claims)
+    // Роль пишется одним кодом (r), версия (v) - только если отлична от нуля
     public String generateToken(UserDetails userDetails) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("role", userDetails.getAuthorities());
+        Map<String, Object> claims = new HashMap<>(4);
+        Role role = Role.fromAuthorities(userDetails.getAuthorities());
+        if (role != null) {
+            claims.put(ROLE_CLAIM, role.getCode());
+        } else {
+            claims.put(LEGACY_ROLE_CLAIM, userDetails.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .toList());
+        }
+        if (userDetails instanceof VersionedPrincipal versioned && versioned.getTokenVersion() != 0) {
+            claims.put(VERSION_CLAIM, versioned.getTokenVersion());
+        }
+        Long userId = userIdOf(userDetails);
+        if (includeUserId && userId != null) {
+            claims.put(USER_ID_CLAIM, userId);
+        }
         return generateToken(claims, userDetails);
     }
 
     // Сгенерировать токен с дополнительными claims
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return Jwts.builder()
-                .setClaims(extraClaims) // Дополнительные данные
-                .setSubject(userDetails.getUsername()) // Имя пользователя
-                .setIssuedAt(new Date(System.currentTimeMillis())) // Время создания
-                .setExpiration(new Date(System.currentTimeMillis() + expirationTime)) // Срок действия
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256) // Подпись
+        long now = System.currentTimeMillis();
+        JwtKeyRing.SigningKey key = keyRing.active();
+        String token = Jwts.builder()
+                .header().keyId(key.kid()).and() // Идентификатор ключа подписи
+                .claims(extraClaims) // Дополнительные данные
+                .id(compactId()) // Идентификатор токена (для отзыва)
+                .subject(userDetails.getUsername()) // Имя пользователя
+                .issuedAt(new Date(now)) // Время создания
+                .expiration(new Date(now + expirationTime)) // Срок действия
+                .signWith(key.signingKey(), algorithm.jwtAlgorithm()) // Подпись
                 .compact(); // Генерация строки
+        checkSizeBudget(userDetails.getUsername(), token);
+        return token;
+    }
+
+    // Токен передается в каждом запросе: превышение бюджета ловят тесты (строгий режим),
+    // а в работе вход не должен отказывать из-за размера - только предупреждение
+    private void checkSizeBudget(String username, String token) {
+        if (sizeBudget <= 0 || token.length() <= sizeBudget) {
+            return;
+        }
+        if (strictSizeBudget) {
+            throw new IllegalStateException(
+                    "JWT size " + token.length() + " exceeds budget of " + sizeBudget + " bytes");
+        }
+        log.warn("JWT for user {} is {} bytes, exceeds budget of {} bytes", username, token.length(), sizeBudget);
+    }
+
+    // Случайный идентификатор токена: 128 бит UUID в base64url (22 символа вместо 36)
+    private static String compactId() {
+        UUID uuid = UUID.randomUUID();
+        ByteBuffer buffer = ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    // Идентификатор пользователя, если он известен
+    private static Long userIdOf(UserDetails userDetails) {
+        if (userDetails instanceof User user) {
+            return user.getId();
+        }
+        if (userDetails instanceof UserSnapshot snapshot) {
+            return snapshot.id();
+        }
+        return null;
     }
 
     // Проверить валидность токена для пользователя
     public boolean isTokenValid(String token, UserDetails userDetails) {
         try {
-            final String username = extractUsername(token);
-            return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
-        } catch (JwtException e) {
+            return isTokenValid(verifyToken(token), userDetails);
+        } catch (JwtValidationException e) {
             log.warn("Invalid JWT token: {}", e.getMessage());
             return false;
         }
     }
 
-    // Проверить истек ли срок действия токена
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    // Проверить уже разобранный токен для пользователя (без повторного разбора)
+    public boolean isTokenValid(VerifiedToken token, UserDetails userDetails) {
+        return token.subject() != null
+                && token.subject().equals(userDetails.getUsername())
+                && !token.isExpiredAt(Instant.now())
+                && isVersionCurrent(token, userDetails);
     }
 
-    // Извлечь дату истечения токена
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    // Токен выпущен не раньше последнего отзыва токенов пользователя
+    private boolean isVersionCurrent(VerifiedToken token, UserDetails userDetails) {
+        return !(userDetails instanceof VersionedPrincipal versioned)
+                || token.version() >= versioned.getTokenVersion();
     }
 
-    // Извлечь все claims из токена
-    private Claims extractAllClaims(String token) {
+    // Разобрать токен и проверить подпись (парсер проверяет и срок действия)
+    private Claims parseClaims(String token) {
         try {
-            return Jwts.parser()
-                    .setSigningKey(getSignInKey()) // Изменено на setSigningKey
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return jwtParser.parseSignedClaims(token).getPayload();
         } catch (ExpiredJwtException e) {
             log.warn("Token expired: {}", e.getMessage());
-            throw e;
+            throw new JwtValidationException("Token expired", e);
         } catch (SignatureException e) {
             log.warn("Invalid JWT signature: {}", e.getMessage());
             throw new JwtValidationException("Invalid token signature");
-        } catch (MalformedJwtException e) {
+        } catch (JwtException | IllegalArgumentException e) {
             log.warn("Invalid JWT token: {}", e.getMessage());
             throw new JwtValidationException("Invalid token");
         }
     }
 
+    // Роли из claim r (код роли) или из claim role прежнего формата:
+    // список строк или объектов вида {"authority": "ROLE_X"}
+    private static List<String> extractRoles(Object code, Object role) {
+        if (code instanceof String value) {
+            Role known = Role.fromCode(value);
+            return known != null ? List.of(known.name()) : List.of();
+        }
+        if (!(role instanceof Collection<?> values)) {
+            return role instanceof String value ? List.of(value) : List.of();
+        }
+        List<String> roles = new ArrayList<>(values.size());
+        for (Object value : values) {
+            if (value instanceof Map<?, ?> map && map.get("authority") != null) {
+                roles.add(map.get("authority").toString());
+            } else if (value != null) {
+                roles.add(value.toString());
+            }
+        }
+        return roles;
+    }
+
+    // Версия токенов из claim v (или ver прежнего формата); токены без claim - версия 0
+    private static int extractVersion(Object version, Object legacyVersion) {
+        Object value = version != null ? version : legacyVersion;
+        return value instanceof Number number ? number.intValue() : 0;
+    }
+
     // Получить ключ для подписи из секрета
-    private Key getSignInKey() {
+    private SecretKey buildSignInKey() {
         try {
             // Корректировка длины base64 ключа
             String base64Key = secretKey;
@@ -112,4 +324,4 @@ public class JwtService {
             throw new JwtValidationException("Invalid JWT key configuration");
         }
     }
-}
\ No newline at end of file
+}
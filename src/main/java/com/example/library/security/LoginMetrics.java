@@ -0,0 +1,47 @@
+package com.example.library.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+// Время этапов входа: поиск пользователя, проверка пароля, выпуск токенов
+// (метрика security.login.stage с тегом stage)
+@Component
+public class LoginMetrics {
+
+    static final String METRIC_NAME = "security.login.stage";
+
+    private final Timer lookup;
+    private final Timer verify;
+    private final Timer sign;
+
+    public LoginMetrics(MeterRegistry meterRegistry) {
+        this.lookup = timer(meterRegistry, "lookup");
+        this.verify = timer(meterRegistry, "verify");
+        this.sign = timer(meterRegistry, "sign");
+    }
+
+    // Поиск пользователя (UserDetailsService)
+    public <T> T recordLookup(Supplier<T> stage) {
+        return lookup.record(stage);
+    }
+
+    // Проверка пароля (включая ожидание в пуле хэширования)
+    public void recordVerify(Runnable stage) {
+        verify.record(stage);
+    }
+
+    // Подпись JWT и выпуск refresh токена
+    public <T> T recordSign(Supplier<T> stage) {
+        return sign.record(stage);
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder(METRIC_NAME)
+                .tag("stage", stage)
+                .description("Время этапа входа в систему")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.library.security;
+
+import com.example.library.exception.TooManyRequestsException;
+import com.example.library.util.TokenBucket;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Ограничение частоты входа и регистрации по имени пользователя и по IP клиента,
+// а также проверки занятости логина и email (отдельная корзина по IP: проверка идет
+// при наборе в форме и не должна расходовать попытки входа, но не дает перебирать учетные записи)
+// Проверка выполняется до обращения к БД и кодировщику паролей, поэтому
+// перебор паролей не тратит время на BCrypt. Корзины хранятся в ограниченных
+// кэшах и удаляются после периода неактивности.
+@Slf4j
+@Component
+public class LoginRateLimiter {
+
+    static final String METRIC_NAME = "security.rate-limit";
+
+    // Область ограничения
+    public enum Scope {
+        USERNAME, IP, AVAILABILITY
+    }
+
+    // Корзина ключа вместе со счетчиками разрешенных и отклоненных запросов
+    private record Bucket(TokenBucket tokens, AtomicLong allowed, AtomicLong rejected) {
+    }
+
+    // Емкость корзины и период ее полного восполнения
+    private record Limit(long capacity, Duration refillPeriod) {
+    }
+
+    // Счетчики ключа для выгрузки (actuator endpoint loginthrottle)
+    public record KeyStats(String key, long allowed, long rejected, long available) {
+    }
+
+    private final boolean enabled;
+    private final Limit usernameLimit;
+    private final Limit ipLimit;
+    private final Limit availabilityLimit;
+    private final Cache<String, Bucket> usernameBuckets;
+    private final Cache<String, Bucket> ipBuckets;
+    private final Cache<String, Bucket> availabilityBuckets;
+    private final LongSupplier clock;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public LoginRateLimiter(@Value("${security.rate-limit.enabled:true}") boolean enabled,
+                            @Value("${security.rate-limit.username.capacity:5}") long usernameCapacity,
+                            @Value("${security.rate-limit.username.refill-period:PT1M}") Duration usernameRefill,
+                            @Value("${security.rate-limit.ip.capacity:20}") long ipCapacity,
+                            @Value("${security.rate-limit.ip.refill-period:PT1M}") Duration ipRefill,
+                            @Value("${security.rate-limit.availability.capacity:60}") long availabilityCapacity,
+                            @Value("${security.rate-limit.availability.refill-period:PT1M}") Duration availabilityRefill,
+                            @Value("${security.rate-limit.max-keys:100000}") long maxKeys,
+                            @Value("${security.rate-limit.idle-timeout:PT10M}") Duration idleTimeout,
+                            MeterRegistry meterRegistry) {
+        this(enabled, usernameCapacity, usernameRefill, ipCapacity, ipRefill, availabilityCapacity,
+                availabilityRefill, maxKeys, idleTimeout, meterRegistry, System::nanoTime);
+    }
+
+    LoginRateLimiter(boolean enabled, long usernameCapacity, Duration usernameRefill,
+                     long ipCapacity, Duration ipRefill, long availabilityCapacity, Duration availabilityRefill,
+                     long maxKeys, Duration idleTimeout, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.enabled = enabled;
+        this.usernameLimit = new Limit(usernameCapacity, usernameRefill);
+        this.ipLimit = new Limit(ipCapacity, ipRefill);
+        this.availabilityLimit = new Limit(availabilityCapacity, availabilityRefill);
+        this.usernameBuckets = buckets(maxKeys, idleTimeout);
+        this.ipBuckets = buckets(maxKeys, idleTimeout);
+        this.availabilityBuckets = buckets(maxKeys, idleTimeout);
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+    }
+
+    // Проверить лимиты перед входом или регистрацией (сначала IP, затем имя пользователя)
+    public void check(String username, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        if (clientIp != null) {
+            acquire(Scope.IP, ipBuckets, ipLimit, clientIp);
+        }
+        if (username != null && !username.isBlank()) {
+            acquire(Scope.USERNAME, usernameBuckets, usernameLimit, username.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    // Проверить лимит проверок занятости логина и email с одного IP
+    public void checkAvailability(String clientIp) {
+        if (enabled && clientIp != null) {
+            acquire(Scope.AVAILABILITY, availabilityBuckets, availabilityLimit, clientIp);
+        }
+    }
+
+    // Ключи с наибольшим числом отклоненных запросов
+    public List<KeyStats> topRejected(Scope scope, int limit) {
+        Cache<String, Bucket> buckets = buckets(scope);
+        long now = clock.getAsLong();
+        return buckets.asMap().entrySet().stream()
+                .map(e -> new KeyStats(e.getKey(), e.getValue().allowed().get(), e.getValue().rejected().get(),
+                        e.getValue().tokens().available(now)))
+                .sorted(Comparator.comparingLong(KeyStats::rejected).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    // Число отслеживаемых ключей
+    public long trackedKeys(Scope scope) {
+        return buckets(scope).estimatedSize();
+    }
+
+    private Cache<String, Bucket> buckets(Scope scope) {
+        return switch (scope) {
+            case USERNAME -> usernameBuckets;
+            case IP -> ipBuckets;
+            case AVAILABILITY -> availabilityBuckets;
+        };
+    }
+
+    private void acquire(Scope scope, Cache<String, Bucket> buckets, Limit limit, String key) {
+        long now = clock.getAsLong();
+        Bucket bucket = buckets.get(key, k -> new Bucket(
+                new TokenBucket(limit.capacity(), limit.refillPeriod(), now), new AtomicLong(), new AtomicLong()));
+        long waitNanos = bucket.tokens().tryAcquire(now);
+        String scopeTag = scope.name().toLowerCase(Locale.ROOT);
+        if (waitNanos == 0) {
+            bucket.allowed().incrementAndGet();
+            meterRegistry.counter(METRIC_NAME, "scope", scopeTag, "result", "allowed").increment();
+            return;
+        }
+        bucket.rejected().incrementAndGet();
+        meterRegistry.counter(METRIC_NAME, "scope", scopeTag, "result", "rejected").increment();
+        log.warn("Превышен лимит запросов ({}): {}", scopeTag, key);
+        throw new TooManyRequestsException("Слишком много попыток, повторите позже", Duration.ofNanos(waitNanos));
+    }
+
+    private static Cache<String, Bucket> buckets(long maxKeys, Duration idleTimeout) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+}
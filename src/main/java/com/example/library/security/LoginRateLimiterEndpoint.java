@@ -0,0 +1,35 @@
+package com.example.library.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// Actuator endpoint со счетчиками ограничения входа по ключам (/actuator/loginthrottle)
+@Component
+@Endpoint(id = "loginthrottle")
+@RequiredArgsConstructor
+public class LoginRateLimiterEndpoint {
+
+    // Сколько ключей каждой области выводить
+    private static final int TOP_KEYS = 50;
+
+    private final LoginRateLimiter rateLimiter;
+
+    @ReadOperation
+    public Map<String, Object> counters() {
+        return Map.of(
+                "username", Map.of(
+                        "trackedKeys", rateLimiter.trackedKeys(LoginRateLimiter.Scope.USERNAME),
+                        "topRejected", rateLimiter.topRejected(LoginRateLimiter.Scope.USERNAME, TOP_KEYS)),
+                "ip", Map.of(
+                        "trackedKeys", rateLimiter.trackedKeys(LoginRateLimiter.Scope.IP),
+                        "topRejected", rateLimiter.topRejected(LoginRateLimiter.Scope.IP, TOP_KEYS)),
+                "availability", Map.of(
+                        "trackedKeys", rateLimiter.trackedKeys(LoginRateLimiter.Scope.AVAILABILITY),
+                        "topRejected", rateLimiter.topRejected(LoginRateLimiter.Scope.AVAILABILITY, TOP_KEYS))
+        );
+    }
+}
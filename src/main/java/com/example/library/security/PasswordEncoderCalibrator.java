@@ -0,0 +1,131 @@
+package com.example.library.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+// Подбор стоимости хэширования паролей под текущее железо
+// При старте измеряется время хэширования с минимальными параметрами, и стоимость
+// увеличивается до целевой задержки (security.password.target-latency).
+// Хэши хранятся с префиксом алгоритма ({bcrypt}, {argon2}, {pbkdf2}); хэши другого
+// алгоритма или со слабыми параметрами перехэшируются при успешном входе.
+@Slf4j
+@Component
+public class PasswordEncoderCalibrator {
+
+    static final String BCRYPT = "bcrypt";
+    static final String ARGON2 = "argon2";
+    static final String PBKDF2 = "pbkdf2";
+
+    private static final int MAX_BCRYPT_STRENGTH = 16;
+    private static final int MAX_ARGON2_ITERATIONS = 16;
+    private static final int PBKDF2_ITERATIONS_STEP = 1000;
+    private static final String SAMPLE_PASSWORD = "calibration-password";
+
+    private final String algorithm;
+    private final Duration targetLatency;
+    private final int bcryptMinStrength;
+    private final int argon2MinIterations;
+    private final int argon2Memory;
+    private final int pbkdf2MinIterations;
+
+    public PasswordEncoderCalibrator(@Value("${security.password.algorithm:bcrypt}") String algorithm,
+                                     @Value("${security.password.target-latency:PT0.05S}") Duration targetLatency,
+                                     @Value("${security.password.bcrypt.min-strength:10}") int bcryptMinStrength,
+                                     @Value("${security.password.argon2.min-iterations:2}") int argon2MinIterations,
+                                     @Value("${security.password.argon2.memory:16384}") int argon2Memory,
+                                     @Value("${security.password.pbkdf2.min-iterations:310000}") int pbkdf2MinIterations) {
+        this.algorithm = algorithm;
+        this.targetLatency = targetLatency;
+        this.bcryptMinStrength = bcryptMinStrength;
+        this.argon2MinIterations = argon2MinIterations;
+        this.argon2Memory = argon2Memory;
+        this.pbkdf2MinIterations = pbkdf2MinIterations;
+    }
+
+    // Создать кодировщик: выбранный алгоритм с подобранной стоимостью, остальные - для проверки старых хэшей
+    public PasswordEncoder create() {
+        if (!Set.of(BCRYPT, ARGON2, PBKDF2).contains(algorithm)) {
+            throw new IllegalStateException("Unsupported password algorithm: " + algorithm);
+        }
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, algorithm.equals(BCRYPT)
+                ? bcrypt(calibrate(bcryptMinStrength, this::bcrypt, false, MAX_BCRYPT_STRENGTH))
+                : bcrypt(bcryptMinStrength));
+        encoders.put(ARGON2, algorithm.equals(ARGON2)
+                ? argon2(calibrate(argon2MinIterations, this::argon2, true, MAX_ARGON2_ITERATIONS))
+                : argon2(argon2MinIterations));
+        encoders.put(PBKDF2, algorithm.equals(PBKDF2)
+                ? pbkdf2(roundUp(calibrate(pbkdf2MinIterations, this::pbkdf2, true, Integer.MAX_VALUE)))
+                : pbkdf2(pbkdf2MinIterations));
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm, encoders);
+        // Хэши без префикса {id} - BCrypt, как хранились раньше
+        encoder.setDefaultPasswordEncoderForMatches(encoders.get(BCRYPT));
+        return encoder;
+    }
+
+    // Подобрать параметр стоимости: BCrypt - логарифм числа раундов (каждая единица удваивает время),
+    // Argon2 и PBKDF2 - число итераций (время растет линейно)
+    private int calibrate(int minCost, IntFunction<PasswordEncoder> factory, boolean linear, int maxCost) {
+        if (targetLatency.isZero() || targetLatency.isNegative()) {
+            return minCost;
+        }
+        long measured = measure(factory.apply(minCost));
+        long target = targetLatency.toNanos();
+        int cost = minCost;
+        if (linear) {
+            cost = (int) Math.min(maxCost, Math.max(minCost, (long) minCost * target / Math.max(1, measured)));
+        } else {
+            // Следующий шаг удваивает время: берем его, пока результат ближе к цели
+            while (cost < maxCost && measured * 2 - target < target - measured) {
+                cost++;
+                measured *= 2;
+            }
+        }
+        log.info("Хэширование паролей {}: {} мс при стоимости {}, выбрана стоимость {} (цель {} мс)",
+                algorithm, measured / 1_000_000, minCost, cost, targetLatency.toMillis());
+        return cost;
+    }
+
+    // Лучшее время из нескольких запусков после прогрева
+    private static long measure(PasswordEncoder encoder) {
+        encoder.encode(SAMPLE_PASSWORD);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static int roundUp(int iterations) {
+        return (iterations + PBKDF2_ITERATIONS_STEP - 1) / PBKDF2_ITERATIONS_STEP * PBKDF2_ITERATIONS_STEP;
+    }
+
+    private PasswordEncoder bcrypt(int strength) {
+        return new BCryptPasswordEncoder(strength);
+    }
+
+    // Argon2id: соль 16 байт, хэш 32 байта, один поток, фиксированная память
+    private PasswordEncoder argon2(int iterations) {
+        return new Argon2PasswordEncoder(16, 32, 1, argon2Memory, iterations);
+    }
+
+    private PasswordEncoder pbkdf2(int iterations) {
+        return new Pbkdf2PasswordEncoder("", 16, iterations,
+                Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+    }
+}
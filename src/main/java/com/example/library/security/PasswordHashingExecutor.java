@@ -0,0 +1,105 @@
+package com.example.library.security;
+
+import com.example.library.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Отдельный ограниченный пул для хэширования и проверки паролей
+// Число потоков - по числу ядер, очередь ограничена: при переполнении запрос
+// сразу получает 503 с Retry-After, и всплеск входов не занимает все потоки Tomcat.
+@Slf4j
+@Component
+public class PasswordHashingExecutor {
+
+    static final String METRIC_NAME = "security.password.hashing";
+
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final Duration retryAfter;
+    private final Timer queueWait;
+    private final Counter rejected;
+    private final MeterRegistry meterRegistry;
+
+    public PasswordHashingExecutor(@Value("${security.password-hashing.threads:0}") int threads,
+                                   @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+                                   @Value("${security.password-hashing.timeout:PT5S}") Duration timeout,
+                                   @Value("${security.password-hashing.retry-after:PT1S}") Duration retryAfter,
+                                   MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeout = timeout;
+        this.retryAfter = retryAfter;
+        this.meterRegistry = meterRegistry;
+        this.queueWait = Timer.builder(METRIC_NAME + ".wait").register(meterRegistry);
+        this.rejected = Counter.builder(METRIC_NAME + ".rejected").register(meterRegistry);
+        // Размер очереди, активные потоки, выполненные задачи (executor.queued, executor.active ...)
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "password-hashing");
+        log.info("Пул хэширования паролей: потоков={}, очередь={}", poolSize, queueCapacity);
+    }
+
+    // Выполнить операцию в пуле и дождаться результата
+    public <T> T execute(String operation, Supplier<T> task) {
+        long submittedAt = System.nanoTime();
+        Timer timer = Timer.builder(METRIC_NAME).tag("operation", operation).register(meterRegistry);
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWait.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return timer.record(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw overloaded();
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw overloaded();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Password hashing interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    // Текущая длина очереди
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private ServiceOverloadedException overloaded() {
+        return new ServiceOverloadedException("Сервис аутентификации перегружен, повторите запрос позже", retryAfter);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.library.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Классификатор запросов по пути: дерево сегментов, построенное один раз при старте
+// Поиск занимает O(число сегментов пути) вместо перебора списка шаблонов.
+// Поддерживаются шаблоны из литеральных сегментов и завершающего "/**"
+// (как в Spring, "/a/**" совпадает и с самим "/a").
+// Классифицируется декодированный путь, как его видит Spring MVC при выборе контроллера:
+// иначе "/%61ctuator/metrics" не совпал бы с "/actuator/**", но попал бы в actuator.
+@Component
+public class RequestClassifier {
+
+    static final String METRIC_NAME = "security.route.requests";
+
+    // Класс маршрута сохраняется в атрибуте запроса: фильтр и авторизация классифицируют один раз
+    private static final String ATTRIBUTE = RequestClassifier.class.getName() + ".ROUTE_CLASS";
+
+    // Таблица маршрутов (пути, не попавшие в таблицу, - AUTHENTICATED)
+    static final Map<String, RouteClass> ROUTES = routes();
+
+    private final Node root = new Node();
+    private final Map<RouteClass, Counter> counters = new EnumMap<>(RouteClass.class);
+
+    public RequestClassifier(MeterRegistry meterRegistry) {
+        ROUTES.forEach(this::add);
+        for (RouteClass routeClass : RouteClass.values()) {
+            counters.put(routeClass, Counter.builder(METRIC_NAME)
+                    .tag("class", routeClass.name().toLowerCase(Locale.ROOT))
+                    .description("Число запросов по классам маршрутов")
+                    .register(meterRegistry));
+        }
+    }
+
+    // Узел дерева: дочерние сегменты, класс точного совпадения и класс всего поддерева ("/**")
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private RouteClass exact;
+        private RouteClass subtree;
+    }
+
+    // Результат классификации вместе с URI (при перенаправлении на /error URI меняется)
+    private record Classified(String uri, RouteClass routeClass) {
+    }
+
+    // Класс маршрута запроса (с учетом в метриках при первой классификации)
+    public RouteClass classify(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        if (request.getAttribute(ATTRIBUTE) instanceof Classified cached && cached.uri().equals(uri)) {
+            return cached.routeClass();
+        }
+        // Путь без контекста: %XX декодированы, ";параметры" и повторные "/" убраны
+        RouteClass routeClass = classify(UrlPathHelper.defaultInstance.getPathWithinApplication(request));
+        request.setAttribute(ATTRIBUTE, new Classified(uri, routeClass));
+        counters.get(routeClass).increment();
+        return routeClass;
+    }
+
+    // Класс маршрута для пути (без контекста приложения)
+    public RouteClass classify(String path) {
+        Node node = root;
+        RouteClass match = null;
+        int length = path.length();
+        int start = 0;
+        while (true) {
+            while (start < length && path.charAt(start) == '/') {
+                start++;
+            }
+            if (start >= length) {
+                break;
+            }
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            node = node.children.get(path.substring(start, end));
+            if (node == null) {
+                return match != null ? match : RouteClass.AUTHENTICATED;
+            }
+            if (node.subtree != null) {
+                match = node.subtree;
+            }
+            start = end;
+        }
+        if (node.exact != null) {
+            return node.exact;
+        }
+        return match != null ? match : RouteClass.AUTHENTICATED;
+    }
+
+    private void add(String pattern, RouteClass routeClass) {
+        boolean subtree = pattern.endsWith("/**");
+        String literal = subtree ? pattern.substring(0, pattern.length() - 3) : pattern;
+        if (literal.contains("*") || literal.contains("{")) {
+            throw new IllegalArgumentException("Unsupported route pattern: " + pattern);
+        }
+        Node node = root;
+        for (String segment : literal.split("/")) {
+            if (!segment.isEmpty()) {
+                node = node.children.computeIfAbsent(segment, s -> new Node());
+            }
+        }
+        if (subtree) {
+            node.subtree = routeClass;
+        } else {
+            node.exact = routeClass;
+        }
+    }
+
+    private static Map<String, RouteClass> routes() {
+        Map<String, RouteClass> routes = new LinkedHashMap<>();
+        // Публичные endpoints
+        routes.put("/h2-console/**", RouteClass.PUBLIC_STATIC);
+        routes.put("/swagger-ui.html", RouteClass.PUBLIC_STATIC);
+        routes.put("/swagger-ui/**", RouteClass.PUBLIC_STATIC);
+        routes.put("/v3/api-docs/**", RouteClass.PUBLIC_STATIC);
+        routes.put("/swagger-resources/**", RouteClass.PUBLIC_STATIC);
+        routes.put("/webjars/**", RouteClass.PUBLIC_STATIC);
+        routes.put("/favicon.ico", RouteClass.PUBLIC_STATIC);
+        routes.put("/.well-known/jwks.json", RouteClass.PUBLIC_STATIC);
+        routes.put("/error", RouteClass.PUBLIC_STATIC);
+        routes.put("/api/auth/**", RouteClass.AUTH);
+
+        // Публичные endpoints для книг
+        routes.put("/api/books/public/**", RouteClass.PUBLIC_CATALOG);
+
+        // Admin-only endpoints и метрики приложения (actuator)
+        routes.put("/api/admin/**", RouteClass.ADMIN);
+        routes.put("/actuator/**", RouteClass.ADMIN);
+
+        // Reader-only endpoints
+        routes.put("/api/reader/**", RouteClass.READER);
+
+        // Endpoints для внутренних сервисов
+        routes.put("/api/internal/**", RouteClass.INTERNAL);
+        return Map.copyOf(routes);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.library.security;
+
+import com.example.library.model.Role;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Метод (или все методы класса) доступен только пользователю с ролью (с учетом иерархии ролей)
+// Замена @PreAuthorize("hasRole(...)"): правило проверяется заранее подготовленным
+// RoleAuthorizationManager без вычисления SpEL на каждый вызов
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequireRole {
+
+    Role value();
+}
@@ -0,0 +1,60 @@
+package com.example.library.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.Pointcuts;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.method.AuthorizationInterceptorsOrder;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.core.Authentication;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Проверка @RequireRole перед вызовом метода
+// Аннотация метода (или класса) разбирается один раз, дальше по методу берется готовый
+// RoleAuthorizationManager. Методы без аннотации сюда не попадают (их отсекает pointcut).
+public final class RequireRoleAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+    // Метод без @RequireRole (например, унаследованный метод Object)
+    private static final AuthorizationManager<MethodInvocation> NO_RULE = (authentication, invocation) -> null;
+
+    private final Map<Method, AuthorizationManager<MethodInvocation>> managers = new ConcurrentHashMap<>();
+
+    // Перехватчик вызовов методов с @RequireRole (на месте перехватчика @PreAuthorize)
+    public static AuthorizationManagerBeforeMethodInterceptor interceptor() {
+        Pointcut pointcut = Pointcuts.union(
+                new AnnotationMatchingPointcut(null, RequireRole.class, true),
+                new AnnotationMatchingPointcut(RequireRole.class, true));
+        AuthorizationManagerBeforeMethodInterceptor interceptor =
+                new AuthorizationManagerBeforeMethodInterceptor(pointcut, new RequireRoleAuthorizationManager());
+        interceptor.setOrder(AuthorizationInterceptorsOrder.PRE_AUTHORIZE.getOrder());
+        return interceptor;
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        AuthorizationManager<MethodInvocation> manager = managers.get(invocation.getMethod());
+        if (manager == null) {
+            manager = managers.computeIfAbsent(invocation.getMethod(), method -> resolve(method, invocation.getThis()));
+        }
+        return manager.check(authentication, invocation);
+    }
+
+    // Правило метода: аннотация на реализации метода, затем на классе
+    private static AuthorizationManager<MethodInvocation> resolve(Method method, Object target) {
+        Class<?> targetClass = target != null ? AopUtils.getTargetClass(target) : method.getDeclaringClass();
+        Method specific = AopUtils.getMostSpecificMethod(method, targetClass);
+        RequireRole rule = AnnotatedElementUtils.findMergedAnnotation(specific, RequireRole.class);
+        if (rule == null) {
+            rule = AnnotatedElementUtils.findMergedAnnotation(targetClass, RequireRole.class);
+        }
+        return rule != null ? RoleAuthorizationManager.hasRole(rule.value()) : NO_RULE;
+    }
+}
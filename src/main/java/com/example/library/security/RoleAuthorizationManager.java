@@ -0,0 +1,80 @@
+package com.example.library.security;
+
+import com.example.library.model.Role;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Проверка роли с учетом иерархии (ADMIN включает READER)
+// Один экземпляр на роль, решения заранее созданы: проверка - обход прав пользователя
+// (обычно одно) и поиск в EnumSet ролей, без SpEL, строк "ROLE_" + роль и новых объектов.
+public final class RoleAuthorizationManager<T> implements AuthorizationManager<T> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private static final Map<Role, RoleAuthorizationManager<?>> MANAGERS = new EnumMap<>(Role.class);
+
+    static {
+        for (Role role : Role.values()) {
+            MANAGERS.put(role, new RoleAuthorizationManager<>(role));
+        }
+    }
+
+    private final Role required;
+
+    private RoleAuthorizationManager(Role required) {
+        this.required = required;
+    }
+
+    // Менеджер для роли (общий экземпляр)
+    @SuppressWarnings("unchecked")
+    public static <T> RoleAuthorizationManager<T> hasRole(Role role) {
+        return (RoleAuthorizationManager<T>) MANAGERS.get(role);
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, T object) {
+        return isGranted(authentication.get()) ? GRANTED : DENIED;
+    }
+
+    // Есть ли у пользователя роль или роль, которая ее включает
+    public boolean isGranted(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return false;
+        }
+        Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
+        // Обычный случай - одно право (общий список роли): без итератора
+        if (authorities instanceof List<? extends GrantedAuthority> list) {
+            for (int i = 0; i < list.size(); i++) {
+                if (grants(list.get(i))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (GrantedAuthority authority : authorities) {
+            if (grants(authority)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean grants(GrantedAuthority authority) {
+        Role role = Role.fromAuthority(authority.getAuthority());
+        return role != null && role.includes(required);
+    }
+
+    @Override
+    public String toString() {
+        return "RoleAuthorizationManager[" + required + "]";
+    }
+}
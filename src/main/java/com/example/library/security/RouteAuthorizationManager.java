@@ -0,0 +1,42 @@
+package com.example.library.security;
+
+import com.example.library.model.Role;
+import org.springframework.security.authorization.AuthenticatedAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Правила доступа к URL по классу маршрута (вместо последовательного перебора requestMatchers)
+@Component
+public class RouteAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+
+    private static final AuthorizationDecision PERMIT = new AuthorizationDecision(true);
+
+    private final RequestClassifier classifier;
+    private final Map<RouteClass, AuthorizationManager<RequestAuthorizationContext>> managers =
+            new EnumMap<>(RouteClass.class);
+
+    public RouteAuthorizationManager(RequestClassifier classifier) {
+        this.classifier = classifier;
+        for (RouteClass routeClass : RouteClass.values()) {
+            managers.put(routeClass, switch (routeClass) {
+                case PUBLIC_STATIC, AUTH, PUBLIC_CATALOG -> (authentication, context) -> PERMIT;
+                case ADMIN -> RoleAuthorizationManager.hasRole(Role.ROLE_ADMIN);
+                case READER -> RoleAuthorizationManager.hasRole(Role.ROLE_READER);
+                case INTERNAL -> RoleAuthorizationManager.hasRole(Role.ROLE_SERVICE);
+                case AUTHENTICATED -> AuthenticatedAuthorizationManager.authenticated();
+            });
+        }
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        return managers.get(classifier.classify(context.getRequest())).check(authentication, context);
+    }
+}
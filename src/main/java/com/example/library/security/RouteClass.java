@@ -0,0 +1,23 @@
+package com.example.library.security;
+
+// Класс маршрута: определяет правило доступа и нужна ли обработка JWT
+public enum RouteClass {
+    PUBLIC_STATIC(true),    // Документация, статика, консоль H2, JWKS, страница ошибки
+    AUTH(true),             // Вход, регистрация, обновление токенов, выход (токен читается из заголовка)
+    PUBLIC_CATALOG(true),   // Открытый каталог книг
+    ADMIN(false),           // Только для администратора (включая actuator)
+    READER(false),          // Только для читателя
+    INTERNAL(false),        // Только для внутренних сервисов (роль SERVICE): проверка токенов
+    AUTHENTICATED(false);   // Все остальные запросы - любой аутентифицированный пользователь
+
+    // Маршрут доступен анонимно и не использует пользователя из токена
+    private final boolean anonymous;
+
+    RouteClass(boolean anonymous) {
+        this.anonymous = anonymous;
+    }
+
+    public boolean isAnonymous() {
+        return anonymous;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.library.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+
+import java.security.Key;
+import java.security.KeyPair;
+
+// Поддерживаемые алгоритмы подписи JWT (настройка jwt.algorithm)
+public enum SigningAlgorithm {
+    HS256(Jwts.SIG.HS256),   // HMAC с общим секретом (jwt.secret-key)
+    ES256(Jwts.SIG.ES256),   // ECDSA P-256
+    EdDSA(Jwts.SIG.EdDSA);   // Ed25519
+
+    private final SecureDigestAlgorithm<? extends Key, ? extends Key> algorithm;
+
+    SigningAlgorithm(SecureDigestAlgorithm<? extends Key, ? extends Key> algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    // Алгоритм jjwt для подписи
+    @SuppressWarnings("unchecked")
+    public SecureDigestAlgorithm<Key, ?> jwtAlgorithm() {
+        return (SecureDigestAlgorithm<Key, ?>) algorithm;
+    }
+
+    // Симметричный алгоритм: ключ проверки совпадает с ключом подписи и не публикуется
+    public boolean isSymmetric() {
+        return this == HS256;
+    }
+
+    // Алгоритм KeyFactory для восстановления ключей из файла (jwt.keys.store)
+    public String keyFactoryAlgorithm() {
+        return switch (this) {
+            case ES256 -> "EC";
+            case EdDSA -> "EdDSA";
+            case HS256 -> throw new IllegalStateException("HS256 uses a shared secret, not a key pair");
+        };
+    }
+
+    // Сгенерировать новую пару ключей для асимметричного алгоритма
+    public KeyPair generateKeyPair() {
+        return switch (this) {
+            case ES256 -> Jwts.SIG.ES256.keyPair().build();
+            case EdDSA -> Jwks.CRV.Ed25519.keyPair().build();
+            case HS256 -> throw new IllegalStateException("HS256 uses a shared secret, not a key pair");
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.library.security;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+// DaoAuthenticationProvider с замером времени поиска пользователя и проверки пароля
+public class TimedAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final LoginMetrics loginMetrics;
+
+    public TimedAuthenticationProvider(UserDetailsService userDetailsService, LoginMetrics loginMetrics) {
+        this.loginMetrics = loginMetrics;
+        // retrieveUser нельзя переопределить - замеряем сам UserDetailsService
+        setUserDetailsService(username -> loginMetrics.recordLookup(
+                () -> userDetailsService.loadUserByUsername(username)));
+    }
+
+    @Override
+    protected void additionalAuthenticationChecks(UserDetails userDetails,
+                                                  UsernamePasswordAuthenticationToken authentication) {
+        loginMetrics.recordVerify(() -> super.additionalAuthenticationChecks(userDetails, authentication));
+    }
+}
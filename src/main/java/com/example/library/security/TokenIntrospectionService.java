@@ -0,0 +1,146 @@
+package com.example.library.security;
+
+import com.example.library.dto.response.TokenIntrospection;
+import com.example.library.exception.BatchTooLargeException;
+import com.example.library.exception.TooManyRequestsException;
+import com.example.library.util.TokenBucket;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+// Пакетная проверка токенов для других сервисов ("действителен ли токен и чей он")
+// Каждый токен проверяется так же, как в JwtAuthenticationFilter: кэш проверенных токенов,
+// один разбор JWT, версия токенов пользователя и список отозванных (фильтр Блума).
+// Недействительные токены не создают исключений и записей в журнале, а получают общий
+// результат INACTIVE. Большие пакеты проверяются параллельно (ForkJoinPool.commonPool).
+// Доступна только внутренним сервисам (роль SERVICE); число проверяемых токенов ограничено
+// token bucket на клиента: пакет берет из корзины столько токенов, сколько в нем JWT.
+@Slf4j
+@Service
+public class TokenIntrospectionService {
+
+    static final String METRIC_NAME = "jwt.introspection";
+
+    private final JwtService jwtService;
+    private final VerifiedTokenCache tokenCache;
+    private final TokenVersionRegistry tokenVersions;
+    private final TokenRevocationService revocationService;
+    private final int maxTokens;
+    private final int parallelThreshold;
+    private final long rateLimitTokens;
+    private final Duration rateLimitPeriod;
+    private final Cache<String, TokenBucket> clientBuckets;
+    private final LongSupplier clock;
+    private final Timer batchTimer;
+    private final DistributionSummary batchSize;
+    private final Counter rejected;
+
+    @Autowired
+    public TokenIntrospectionService(JwtService jwtService,
+                                     VerifiedTokenCache tokenCache,
+                                     TokenVersionRegistry tokenVersions,
+                                     TokenRevocationService revocationService,
+                                     @Value("${jwt.introspection.max-tokens:1000}") int maxTokens,
+                                     @Value("${jwt.introspection.parallel-threshold:64}") int parallelThreshold,
+                                     @Value("${jwt.introspection.rate-limit.tokens:10000}") long rateLimitTokens,
+                                     @Value("${jwt.introspection.rate-limit.period:PT1M}") Duration rateLimitPeriod,
+                                     MeterRegistry meterRegistry) {
+        this(jwtService, tokenCache, tokenVersions, revocationService, maxTokens, parallelThreshold,
+                rateLimitTokens, rateLimitPeriod, meterRegistry, System::nanoTime);
+    }
+
+    TokenIntrospectionService(JwtService jwtService,
+                              VerifiedTokenCache tokenCache,
+                              TokenVersionRegistry tokenVersions,
+                              TokenRevocationService revocationService,
+                              int maxTokens,
+                              int parallelThreshold,
+                              long rateLimitTokens,
+                              Duration rateLimitPeriod,
+                              MeterRegistry meterRegistry,
+                              LongSupplier clock) {
+        if (rateLimitTokens < maxTokens) {
+            throw new IllegalArgumentException(
+                    "jwt.introspection.rate-limit.tokens must not be less than jwt.introspection.max-tokens");
+        }
+        this.jwtService = jwtService;
+        this.tokenCache = tokenCache;
+        this.tokenVersions = tokenVersions;
+        this.revocationService = revocationService;
+        this.maxTokens = maxTokens;
+        this.parallelThreshold = parallelThreshold;
+        this.rateLimitTokens = rateLimitTokens;
+        this.rateLimitPeriod = rateLimitPeriod;
+        // Неактивная корзина удаляется, когда уже полностью восполнилась
+        this.clientBuckets = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterAccess(rateLimitPeriod)
+                .build();
+        this.clock = clock;
+        this.batchTimer = Timer.builder(METRIC_NAME)
+                .description("Время пакетной проверки токенов")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder(METRIC_NAME + ".batch-size")
+                .description("Число токенов в пакете")
+                .register(meterRegistry);
+        this.rejected = Counter.builder(METRIC_NAME + ".rejected")
+                .description("Пакеты, отклоненные лимитом клиента")
+                .register(meterRegistry);
+    }
+
+    // Проверить пакет токенов по запросу клиента (результаты в порядке токенов)
+    public List<TokenIntrospection> introspect(String client, List<String> tokens) {
+        if (tokens.size() > maxTokens) {
+            throw new BatchTooLargeException("At most " + maxTokens + " tokens per request");
+        }
+        acquire(client, Math.max(1, tokens.size()));
+        batchSize.record(tokens.size());
+        Instant now = Instant.now();
+        return batchTimer.record(() -> {
+            Stream<String> stream = tokens.size() >= parallelThreshold ? tokens.parallelStream() : tokens.stream();
+            return stream.map(token -> introspect(token, now)).toList();
+        });
+    }
+
+    // Взять из корзины клиента по токену на каждый JWT пакета
+    private void acquire(String client, int permits) {
+        long now = clock.getAsLong();
+        TokenBucket bucket = clientBuckets.get(client, key -> new TokenBucket(rateLimitTokens, rateLimitPeriod, now));
+        long waitNanos = bucket.tryAcquire(now, permits);
+        if (waitNanos > 0) {
+            rejected.increment();
+            log.warn("Превышен лимит проверки токенов клиентом {}", client);
+            throw new TooManyRequestsException("Слишком много токенов на проверку, повторите позже",
+                    Duration.ofNanos(waitNanos));
+        }
+    }
+
+    // Проверить один токен на указанный момент
+    TokenIntrospection introspect(String token, Instant now) {
+        VerifiedTokenCache.Entry cached = token != null ? tokenCache.get(token) : null;
+        VerifiedToken verified = cached != null ? cached.token() : jwtService.tryVerifyToken(token);
+        if (verified == null
+                || verified.subject() == null
+                || verified.isExpiredAt(now)
+                || !tokenVersions.isCurrent(verified)
+                || revocationService.isRevoked(verified)) {
+            return TokenIntrospection.INACTIVE;
+        }
+        List<String> roles = verified.roles();
+        return new TokenIntrospection(true, verified.subject(), roles.isEmpty() ? null : roles.get(0),
+                verified.expiresAt());
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.library.security;
+
+import com.example.library.model.RevokedToken;
+import com.example.library.repository.RevokedTokenRepository;
+import com.example.library.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.stream.Stream;
+
+// Отзыв JWT до истечения срока действия
+// Проверка на каждом запросе идет через фильтр Блума в памяти: для неотозванных
+// токенов (почти все запросы) ответ "нет" точный и не требует обращения к БД.
+// Только возможные совпадения подтверждаются в таблице revoked_tokens.
+// Отзыв попадает в фильтр после фиксации записи, а добавление в фильтр и замена фильтра
+// при пересборке идут под одной блокировкой: отзыв либо виден пересборке в БД, либо
+// добавляется в строящийся фильтр - параллельный отзыв не теряется.
+@Slf4j
+@Service
+public class TokenRevocationService {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+    private final Counter bloomNegatives;
+    private final Counter exactLookups;
+
+    // Текущий фильтр и фильтр, который строится при пересборке (в него тоже пишем отзывы)
+    private volatile BloomFilter filter;
+    private BloomFilter rebuilding; // под filterLock
+    private final Object filterLock = new Object();
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  @Value("${jwt.revocation.expected-revocations:1000000}") long expectedRevocations,
+                                  @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                                  MeterRegistry meterRegistry) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = BloomFilter.create(expectedRevocations, falsePositiveRate);
+        this.bloomNegatives = Counter.builder("jwt.revocation.checks")
+                .tag("result", "bloom-negative")
+                .register(meterRegistry);
+        this.exactLookups = Counter.builder("jwt.revocation.checks")
+                .tag("result", "exact-lookup")
+                .register(meterRegistry);
+    }
+
+    // Отозван ли токен
+    public boolean isRevoked(VerifiedToken token) {
+        if (token.id() == null) {
+            return false;
+        }
+        if (!filter.mightContain(token.id())) {
+            bloomNegatives.increment();
+            return false;
+        }
+        exactLookups.increment();
+        return revokedTokenRepository.existsById(token.id());
+    }
+
+    // Отозвать токен до истечения срока действия
+    @Transactional
+    public void revoke(VerifiedToken token) {
+        if (token.id() == null || token.expiresAt() == null) {
+            throw new IllegalArgumentException("Token has no jti or exp claim");
+        }
+        if (!revokedTokenRepository.existsById(token.id())) {
+            revokedTokenRepository.save(new RevokedToken(token.id(), token.expiresAt()));
+        }
+        String jti = token.id();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // До фиксации пересборка не увидит запись в БД - добавляем в фильтр после нее
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addToFilter(jti);
+                }
+            });
+        } else {
+            addToFilter(jti);
+        }
+        log.info("Токен {} пользователя {} отозван", token.id(), token.subject());
+    }
+
+    // Добавить jti в текущий фильтр и в строящийся, если идет пересборка
+    private void addToFilter(String jti) {
+        synchronized (filterLock) {
+            filter.put(jti);
+            if (rebuilding != null) {
+                rebuilding.put(jti);
+            }
+        }
+    }
+
+    // Загрузка отозванных токенов при старте
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void onStartup() {
+        rebuildFilter();
+    }
+
+    // Удаление истекших записей и пересборка фильтра (фильтр Блума не поддерживает удаление)
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:PT10M}",
+            initialDelayString = "${jwt.revocation.purge-interval:PT10M}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = revokedTokenRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.info("Удалено истекших отозванных токенов: {}", deleted);
+            rebuildFilter();
+        }
+    }
+
+    // Построить новый фильтр по еще действующим отозванным токенам и заменить текущий
+    // Отзывы, зафиксированные до начала пересборки, есть в БД; остальные пишутся в next
+    synchronized void rebuildFilter() {
+        BloomFilter next = BloomFilter.create(expectedRevocations, falsePositiveRate);
+        synchronized (filterLock) {
+            rebuilding = next;
+        }
+        try (Stream<String> jtis = revokedTokenRepository.streamActiveJtis(Instant.now())) {
+            jtis.forEach(next::put);
+            synchronized (filterLock) {
+                filter = next;
+            }
+        } finally {
+            synchronized (filterLock) {
+                rebuilding = null;
+            }
+        }
+        log.debug("Фильтр отозванных токенов пересобран ({} байт)", next.sizeInBytes());
+    }
+}
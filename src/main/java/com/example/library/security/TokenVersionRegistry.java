@@ -0,0 +1,80 @@
+package com.example.library.security;
+
+import com.example.library.repository.UserRepository;
+import com.example.library.service.UserChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Таблица версий токенов в памяти: позволяет отклонять старые JWT без обращения к БД
+// Хранятся только пользователи с версией больше 0, поэтому таблица остается компактной.
+// Источник версий - колонка users.token_version: таблица - ее копия, загружаемая при старте,
+// поэтому перезапуск отзыв не отменяет. Отзыв на другом экземпляре этот экземпляр увидит
+// только после перезапуска (для нескольких экземпляров stateless режим не подходит).
+// Код, меняющий роль или пароль пользователя, должен вызывать revokeAllTokens.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenVersionRegistry {
+
+    private final UserRepository userRepository;
+    private final VerifiedTokenCache tokenCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // username -> текущая версия токенов
+    private final Map<String, Integer> versions = new ConcurrentHashMap<>();
+
+    // Загрузка версий из БД при старте приложения
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        userRepository.findChangedTokenVersions()
+                .forEach(view -> versions.merge(view.getUsername(), view.getTokenVersion(), Math::max));
+        log.info("Загружено версий токенов: {}", versions.size());
+    }
+
+    // Текущая версия токенов пользователя
+    public int currentVersion(String username) {
+        return versions.getOrDefault(username, 0);
+    }
+
+    // Не отозван ли токен сменой версии
+    public boolean isCurrent(VerifiedToken token) {
+        return token.version() >= currentVersion(token.subject());
+    }
+
+    // Отозвать все выданные пользователю токены (смена пароля, смена роли)
+    @Transactional
+    public void revokeAllTokens(String username) {
+        userRepository.incrementTokenVersion(username);
+        int version = userRepository.findTokenVersion(username).orElse(0);
+        log.info("Версия токенов пользователя {} увеличена до {}", username, version);
+        eventPublisher.publishEvent(new UserChangedEvent(username));
+
+        // Применяем новую версию в памяти только после успешного коммита
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(username, version);
+                }
+            });
+        } else {
+            apply(username, version);
+        }
+    }
+
+    // Обновить версию в памяти и сбросить закэшированные аутентификации
+    void apply(String username, int version) {
+        versions.merge(username, version, Math::max);
+        tokenCache.invalidateAll();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.library.security;
+
+import com.example.library.model.Role;
+import com.example.library.model.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+// Неизменяемый снимок пользователя для Spring Security
+// В отличие от JPA сущности User не содержит ленивых связей и безопасен для кэширования
+public record UserSnapshot(
+        Long id,
+        String username,
+        String password,   // Хэш пароля (нужен DaoAuthenticationProvider)
+        Role role,
+        int tokenVersion,
+        List<GrantedAuthority> authorities
+) implements UserDetails, VersionedPrincipal {
+
+    public UserSnapshot {
+        authorities = List.copyOf(authorities);
+    }
+
+    // Создать снимок из JPA сущности
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(
+                user.getId(),
+                user.getUsername(),
+                user.getPassword(),
+                user.getRole(),
+                user.getTokenVersion(),
+                user.getRole().getAuthorities()
+        );
+    }
+
+    // Копия снимка с новым хэшем пароля
+    public UserSnapshot withPassword(String newPassword) {
+        return new UserSnapshot(id, username, newPassword, role, tokenVersion, authorities);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    // Хэш пароля не выводим в логи
+    @Override
+    public String toString() {
+        return "UserSnapshot[id=" + id + ", username=" + username + ", role=" + role
+                + ", tokenVersion=" + tokenVersion + "]";
+    }
+}
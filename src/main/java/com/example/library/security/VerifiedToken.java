@@ -0,0 +1,24 @@
+package com.example.library.security;
+
+import java.time.Instant;
+import java.util.List;
+
+// Результат однократной проверки JWT: подпись и срок действия уже проверены
+// Неизменяемый объект, безопасен для передачи между потоками
+public record VerifiedToken(
+        String subject,      // Имя пользователя (claim sub)
+        Instant expiresAt,   // Момент истечения токена (claim exp)
+        List<String> roles,  // Роли пользователя из claim role
+        int version,         // Версия токенов пользователя (claim ver)
+        String id            // Идентификатор токена (claim jti) для отзыва
+) {
+
+    public VerifiedToken {
+        roles = roles == null ? List.of() : List.copyOf(roles);
+    }
+
+    // Истек ли срок действия токена на указанный момент
+    public boolean isExpiredAt(Instant moment) {
+        return expiresAt != null && !expiresAt.isAfter(moment);
+    }
+}
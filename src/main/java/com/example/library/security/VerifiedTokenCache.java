@@ -0,0 +1,169 @@
+package com.example.library.security;
+
+import com.example.library.service.UserChangedEvent;
+import com.example.library.util.Sha256;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Ограниченный по размеру кэш уже проверенных JWT токенов
+// Повторный запрос с тем же токеном не требует проверки подписи и загрузки пользователя
+// Запись хранит пользователя на момент проверки, поэтому при изменении пользователя
+// (UserChangedEvent) его записи удаляются - иначе до max-ttl действовали бы старые роли.
+// Для этого ведется индекс "пользователь -> ключи его записей": удаление стоит
+// O(записей пользователя), а не проход по всему кэшу.
+@Slf4j
+@Component
+public class VerifiedTokenCache {
+
+    // Метрики кэша публикуются под этим именем (cache.gets, cache.evictions и т.д.)
+    static final String CACHE_NAME = "jwt.verified-tokens";
+
+    private final boolean enabled;
+    private final Cache<String, Entry> cache;
+    private final Map<String, Set<String>> keysBySubject = new ConcurrentHashMap<>();
+
+    public VerifiedTokenCache(@Value("${jwt.cache.enabled:false}") boolean enabled,
+                              @Value("${jwt.cache.max-size:10000}") long maxSize,
+                              @Value("${jwt.cache.max-ttl:PT10M}") Duration maxTtl,
+                              MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry(maxTtl))
+                // Слушатель в вызывающем потоке: индекс очищается вместе с вытеснением записи
+                .executor(Runnable::run)
+                .removalListener((String key, Entry entry, RemovalCause cause) -> {
+                    if (cause != RemovalCause.REPLACED && key != null && entry != null) {
+                        unindex(entry.token().subject(), key);
+                    }
+                })
+                .recordStats()
+                .build();
+        if (enabled) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+            log.info("Кэш проверенных JWT включен: maxSize={}, maxTtl={}", maxSize, maxTtl);
+        }
+    }
+
+    // Закэшированная аутентификация: проверенный токен и восстановленный пользователь
+    public record Entry(VerifiedToken token, UserDetails principal) {
+    }
+
+    // Найти ранее проверенный токен (null, если кэш выключен или записи нет)
+    public Entry get(String token) {
+        if (!enabled) {
+            return null;
+        }
+        return cache.getIfPresent(digest(token));
+    }
+
+    // Запомнить проверенный токен вместе с пользователем
+    public void put(String token, VerifiedToken verified, UserDetails principal) {
+        if (enabled && verified.expiresAt() != null) {
+            String key = digest(token);
+            // Сначала индекс: запись может быть вытеснена сразу после вставки
+            keysBySubject.compute(verified.subject(), (subject, keys) -> {
+                Set<String> result = keys != null ? keys : ConcurrentHashMap.newKeySet();
+                result.add(key);
+                return result;
+            });
+            cache.put(key, new Entry(verified, principal));
+        }
+    }
+
+    // Удалить токен из кэша (например, при отзыве)
+    public void invalidate(String token) {
+        cache.invalidate(digest(token));
+    }
+
+    // Удалить все токены пользователя после коммита транзакции, изменившей его
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidateUser(event.username());
+    }
+
+    // Удалить все токены пользователя
+    public void invalidateUser(String username) {
+        Set<String> keys = keysBySubject.remove(username);
+        if (keys != null) {
+            cache.invalidateAll(keys);
+        }
+    }
+
+    // Число ключей пользователя в индексе
+    int indexedKeys(String username) {
+        Set<String> keys = keysBySubject.get(username);
+        return keys == null ? 0 : keys.size();
+    }
+
+    // Выполнить отложенное обслуживание кэша (удаление истекших записей)
+    void cleanUp() {
+        cache.cleanUp();
+    }
+
+    // Убрать ключ из индекса; пустой набор удаляется вместе с пользователем
+    private void unindex(String subject, String key) {
+        keysBySubject.computeIfPresent(subject, (s, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    // Полностью очистить кэш
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    // Статистика попаданий, промахов и вытеснений
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Ключ кэша - SHA-256 от токена, сам токен в памяти не храним
+    private static String digest(String token) {
+        return Sha256.base64Url(token);
+    }
+
+    // Запись живет до exp токена, но не дольше maxTtl
+    private record TokenExpiry(Duration maxTtl) implements Expiry<String, Entry> {
+
+        @Override
+        public long expireAfterCreate(String key, Entry value, long currentTime) {
+            Duration untilExpiry = Duration.between(Instant.now(), value.token().expiresAt());
+            if (untilExpiry.isNegative()) {
+                return 0;
+            }
+            return Math.min(untilExpiry.toNanos(), maxTtl.toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.library.security;
+
+// Пользователь, для которого ведется версия выданных токенов (claim ver)
+// Токены с версией меньше текущей считаются отозванными
+public interface VersionedPrincipal {
+
+    // Текущая версия токенов пользователя
+    int getTokenVersion();
+}
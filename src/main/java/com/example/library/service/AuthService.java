@@ -9,7 +9,9 @@ import com.example.library.repository.*;
 import com.example.library.security.*;
 import lombok.*;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.*;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.security.crypto.password.*;
 import org.springframework.stereotype.*;
@@ -25,17 +27,26 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder; // Шифровальщик паролей
     private final JwtService jwtService; // Генератор JWT токенов
     private final AuthenticationManager authenticationManager; // Менеджер аутентификации
+    private final TokenRevocationService revocationService; // Отзыв токенов
+    private final VerifiedTokenCache tokenCache; // Кэш проверенных токенов
+    private final RefreshTokenService refreshTokenService; // Refresh токены
+    private final UserDetailsService userDetailsService; // Загрузка пользователя (с кэшем)
+    private final LoginMetrics loginMetrics; // Время этапов входа
+    private final UserAvailabilityService availabilityService; // Проверка занятых логинов и email
 
     // Регистрация нового пользователя
+    // Занятые логин и email отсекаются до дорогого хэширования пароля: для свободных значений
+    // (почти все регистрации) фильтр отвечает без запросов к БД. Окончательная проверка -
+    // уникальные индексы при вставке (без окна между проверкой и вставкой).
     @Transactional
     public AuthResponse register(RegisterRequest request) {
         log.info("Регистрация пользователя: {}", request.getUsername());
 
-        // Проверка существования пользователя
-        if (userRepository.existsByUsername(request.getUsername())) {
+        // Быстрая проверка существования пользователя
+        if (availabilityService.isUsernameTaken(request.getUsername())) {
             throw new UserAlreadyExistsException("Логин занят: " + request.getUsername());
         }
-        if (userRepository.existsByEmail(request.getEmail())) {
+        if (availabilityService.isEmailTaken(request.getEmail())) {
             throw new UserAlreadyExistsException("Email уже зарегистрирован: " + request.getEmail());
         }
 
@@ -47,7 +58,14 @@ public class AuthService {
                 .role(Role.ROLE_READER) // По умолчанию роль READER
                 .build();
 
-        User savedUser = userRepository.save(user);
+        availabilityService.add(user.getUsername(), user.getEmail());
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            // Логин или email заняли параллельно между проверкой и вставкой
+            throw availabilityService.alreadyExists(e, request.getUsername(), request.getEmail());
+        }
 
         // Генерация токена
         String jwtToken = jwtService.generateToken(user);
@@ -55,41 +73,80 @@ public class AuthService {
         // Формирование ответа
         return AuthResponse.builder()
                 .token(jwtToken)
+                .refreshToken(refreshTokenService.issue(savedUser))
                 .username(savedUser.getUsername())
                 .role(savedUser.getRole().name())
                 .build();
     }
 
     // Аутентификация пользователя
+    // Пользователь загружается один раз - внутри AuthenticationManager, дальше используется
+    // principal из результата аутентификации (повторного запроса к БД нет)
     public AuthResponse authenticate(LoginRequest request) {
         log.info("Попытка входа пользователя: {}", request.getUsername());
 
         try {
             // Проверка учетных данных
-            authenticationManager.authenticate(
+            Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
                             request.getUsername(),
                             request.getPassword()
                     )
             );
+            UserDetails user = (UserDetails) authentication.getPrincipal();
 
-            // Поиск пользователя
-            User user = userRepository.findByUsername(request.getUsername())
-                    .orElseThrow(() -> new UsernameNotFoundException("Пользователь не найден"));
-
-            // Генерация токена
-            String jwtToken = jwtService.generateToken(user);
-
-            // Формирование ответа
-            return AuthResponse.builder()
-                    .token(jwtToken)
+            // Генерация токенов и формирование ответа
+            return loginMetrics.recordSign(() -> AuthResponse.builder()
+                    .token(jwtService.generateToken(user))
+                    .refreshToken(refreshTokenService.issue(user))
                     .username(user.getUsername())
-                    .role(user.getRole().name())
-                    .build();
+                    .role(roleOf(user))
+                    .build());
 
         } catch (BadCredentialsException e) {
             log.warn("Неудачная попытка входа: {}", request.getUsername());
             throw new AuthenticationFailedException("Неверный логин или пароль");
         }
     }
+
+    // Обновление токенов по refresh токену (без проверки пароля)
+    @Transactional(noRollbackFor = AuthenticationFailedException.class)
+    public AuthResponse refresh(RefreshTokenRequest request) {
+        RefreshToken consumed = refreshTokenService.consume(request.getRefreshToken());
+        UserDetails user = userDetailsService.loadUserByUsername(consumed.getUsername());
+
+        // После отзыва всех токенов пользователя старые refresh токены тоже недействительны
+        if (user instanceof VersionedPrincipal versioned
+                && consumed.getTokenVersion() < versioned.getTokenVersion()) {
+            throw new AuthenticationFailedException("Refresh токен отозван");
+        }
+
+        return AuthResponse.builder()
+                .token(jwtService.generateToken(user))
+                .refreshToken(refreshTokenService.issue(user, consumed.getFamilyId()))
+                .username(user.getUsername())
+                .role(roleOf(user))
+                .build();
+    }
+
+    // Выход из системы: отзыв переданного токена до истечения срока действия
+    public void logout(String token) {
+        VerifiedToken verified;
+        try {
+            verified = jwtService.verifyToken(token);
+        } catch (JwtValidationException e) {
+            throw new AuthenticationFailedException("Недействительный токен", e);
+        }
+        revocationService.revoke(verified);
+        tokenCache.invalidate(token);
+        log.info("Пользователь {} вышел из системы", verified.subject());
+    }
+
+    // Роль пользователя для ответа
+    private static String roleOf(UserDetails user) {
+        if (user instanceof UserSnapshot snapshot) {
+            return snapshot.role().name();
+        }
+        return user.getAuthorities().iterator().next().getAuthority();
+    }
 }
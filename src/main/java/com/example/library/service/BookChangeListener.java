@@ -0,0 +1,36 @@
+package com.example.library.service;
+
+import com.example.library.model.Book;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+
+// Слушатель жизненного цикла сущности Book: любое сохранение и удаление книги (через сервис,
+// DataInitializer или напрямую через репозиторий) превращается в BookChangedEvent.
+// Экземпляр создает Hibernate через контейнер бинов Spring, поэтому зависимости внедряются.
+@RequiredArgsConstructor
+public class BookChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    void onPersist(Book book) {
+        publish(BookChangedEvent.Type.CREATED, book);
+    }
+
+    @PostUpdate
+    void onUpdate(Book book) {
+        publish(BookChangedEvent.Type.UPDATED, book);
+    }
+
+    @PostRemove
+    void onRemove(Book book) {
+        publish(BookChangedEvent.Type.DELETED, book);
+    }
+
+    private void publish(BookChangedEvent.Type type, Book book) {
+        eventPublisher.publishEvent(BookChangedEvent.of(type, book));
+    }
+}
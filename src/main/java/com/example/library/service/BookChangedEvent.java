@@ -0,0 +1,19 @@
+package com.example.library.service;
+
+import com.example.library.model.Book;
+
+// Событие изменения книги (добавление, изменение, удаление)
+// Публикуется из обратных вызовов JPA (BookChangeListener); обработчики получают его после коммита.
+// title, author, isbn - снимок индексируемых полей на момент изменения (для поискового индекса)
+public record BookChangedEvent(Type type, Long id, String title, String author, String isbn) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    static BookChangedEvent of(Type type, Book book) {
+        return new BookChangedEvent(type, book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn());
+    }
+}
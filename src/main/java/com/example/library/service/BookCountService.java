@@ -0,0 +1,70 @@
+package com.example.library.service;
+
+import com.example.library.repository.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Приблизительное число книг в каталоге без запроса count на каждую страницу
+// Значение меняется на +1/-1 после коммита добавления и удаления книги (BookChangedEvent)
+// и раз в ttl пересчитывается запросом count: так исправляются изменения в обход JPA
+// (массовые delete, SQL) и гонки между пересчетом и событиями.
+@Slf4j
+@Service
+public class BookCountService {
+
+    private final BookRepository bookRepository;
+    private final long ttlNanos;
+
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile boolean loaded;
+    private volatile long loadedAt;
+
+    public BookCountService(BookRepository bookRepository,
+                            @Value("${books.count.ttl:PT30S}") Duration ttl) {
+        this.bookRepository = bookRepository;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    // Число книг: из памяти, пересчет запросом - при первом обращении и по истечении ttl
+    // Пересчитывает один поток, остальные в это время получают прежнее значение
+    public long approximateCount() {
+        long now = System.nanoTime();
+        if (!loaded) {
+            refresh(now);
+        } else if (now - loadedAt >= ttlNanos && refreshing.compareAndSet(false, true)) {
+            try {
+                refresh(now);
+            } finally {
+                refreshing.set(false);
+            }
+        }
+        return Math.max(0, count.get());
+    }
+
+    private void refresh(long now) {
+        long actual = bookRepository.count();
+        count.set(actual);
+        loadedAt = now;
+        loaded = true;
+        log.debug("Число книг пересчитано: {}", actual);
+    }
+
+    // Учесть добавление или удаление книги после коммита транзакции
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        switch (event.type()) {
+            case CREATED -> count.incrementAndGet();
+            case DELETED -> count.decrementAndGet();
+            default -> {
+                // Изменение книги не меняет их число
+            }
+        }
+    }
+}
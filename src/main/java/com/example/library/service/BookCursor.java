@@ -0,0 +1,39 @@
+package com.example.library.service;
+
+import com.example.library.exception.InvalidCursorException;
+import com.example.library.repository.BookView;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Позиция в каталоге при выводе по курсору: ключ сортировки (название) и id последней книги страницы
+// Для клиента курсор непрозрачен: base64url строки "<id>:<название>"
+record BookCursor(String title, long id) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    // Курсор после книги
+    static BookCursor after(BookView book) {
+        return new BookCursor(book.title(), book.id());
+    }
+
+    String encode() {
+        return ENCODER.encodeToString((id + ":" + title).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Разобрать курсор из параметра after
+    static BookCursor decode(String value) {
+        try {
+            String decoded = new String(DECODER.decode(value), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(':');
+            if (separator <= 0) {
+                throw new InvalidCursorException("Неверный курсор: " + value);
+            }
+            return new BookCursor(decoded.substring(separator + 1), Long.parseLong(decoded.substring(0, separator)));
+        } catch (IllegalArgumentException e) {
+            // В том числе NumberFormatException
+            throw new InvalidCursorException("Неверный курсор: " + value);
+        }
+    }
+}
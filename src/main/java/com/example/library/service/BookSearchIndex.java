@@ -0,0 +1,110 @@
+package com.example.library.service;
+
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.BookView;
+import com.example.library.search.InvertedIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Поисковый индекс каталога: название, автор и ISBN книг в InvertedIndex (в памяти)
+// Строится при старте (каталог читается частями по id, текст каждой части разбирается параллельно)
+// и обновляется после коммита добавления, изменения и удаления книги (BookChangedEvent).
+@Slf4j
+@Service
+public class BookSearchIndex {
+
+    // Веса полей: совпадение в названии важнее, чем в авторе и ISBN
+    private static final float TITLE_WEIGHT = 2.0f;
+    private static final float AUTHOR_WEIGHT = 1.5f;
+    private static final float ISBN_WEIGHT = 1.0f;
+
+    private final BookRepository bookRepository;
+    private final int batchSize;
+
+    private volatile InvertedIndex index = newIndex();
+    // Индекс, который сейчас строится: изменения книг применяются и к нему
+    private volatile InvertedIndex rebuilding;
+    // Книги, изменившиеся во время сборки: в новом индексе они уже актуальны, прочитанная из БД
+    // версия пропускается
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    public BookSearchIndex(BookRepository bookRepository,
+                           @Value("${search.rebuild.batch-size:1000}") int batchSize) {
+        this.bookRepository = bookRepository;
+        this.batchSize = batchSize;
+    }
+
+    // Найти книги: id и оценки limit лучших результатов начиная с offset
+    public InvertedIndex.Hits search(String query, int offset, int limit) {
+        return index.search(query, offset, limit);
+    }
+
+    // Число книг в индексе
+    public int size() {
+        return index.size();
+    }
+
+    // Сборка индекса при старте
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    // Полная пересборка: новый индекс заменяет текущий, когда прочитан весь каталог
+    public void rebuild() {
+        long start = System.nanoTime();
+        InvertedIndex next = newIndex();
+        changedDuringRebuild.clear();
+        rebuilding = next;
+        try {
+            long afterId = Long.MIN_VALUE;
+            List<BookView> batch;
+            do {
+                batch = bookRepository.findViewsAfterId(afterId, batchSize);
+                List<InvertedIndex.Document> documents = batch.parallelStream()
+                        .map(book -> next.analyze(book.id(), book.title(), book.author(), book.isbn()))
+                        .toList();
+                next.putAll(documents, changedDuringRebuild::contains);
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).id();
+                }
+            } while (batch.size() == batchSize);
+            index = next;
+        } finally {
+            rebuilding = null;
+        }
+        log.info("Поисковый индекс каталога собран: {} книг за {} мс",
+                next.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Обновить индекс после коммита изменения книги
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        InvertedIndex target = rebuilding;
+        if (target != null) {
+            changedDuringRebuild.add(event.id());
+            apply(target, event);
+        }
+        apply(index, event);
+    }
+
+    private static void apply(InvertedIndex target, BookChangedEvent event) {
+        if (event.type() == BookChangedEvent.Type.DELETED) {
+            target.remove(event.id());
+        } else {
+            target.put(target.analyze(event.id(), event.title(), event.author(), event.isbn()));
+        }
+    }
+
+    private static InvertedIndex newIndex() {
+        return new InvertedIndex(TITLE_WEIGHT, AUTHOR_WEIGHT, ISBN_WEIGHT);
+    }
+}
@@ -4,37 +4,135 @@ import com.example.library.dto.response.*;
 import com.example.library.exception.*;
 import com.example.library.model.*;
 import com.example.library.repository.*;
+import com.example.library.search.InvertedIndex;
 import lombok.*;
 import lombok.extern.slf4j.*;
 import org.springframework.data.domain.*;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.*;
 import org.springframework.transaction.annotation.*;
 import java.time.*;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 
 // Сервис для работы с книгами (поиск, аренда, возврат)
+// Чтение каталога - через проекцию BookView и выборку полей (fields), без загрузки сущностей Book
 @Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class BookService {
+
+    // Наибольший размер страницы при выводе по курсору
+    static final int MAX_CURSOR_PAGE_SIZE = 100;
+
+    // Наибольший размер страницы без запроса count (выбирается на одну строку больше)
+    static final int MAX_SLICE_PAGE_SIZE = 100;
+
+    // Наибольший размер страницы поиска и наибольшая глубина результатов (page * size + size)
+    static final int MAX_SEARCH_PAGE_SIZE = 100;
+    static final int MAX_SEARCH_WINDOW = 1000;
+
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
+    private final BookCountService bookCountService;
+    private final BookSearchIndex bookSearchIndex;
 
     // Получить все книги с пагинацией
     public Page<BookResponse> getAllBooks(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        return bookRepository.findAll(pageable)
+        return bookRepository.findViews(pageable)
                 .map(this::mapToBookResponse);
     }
 
+    // Получить страницу каталога без точного числа книг (запрос count не выполняется)
+    // withTotal - добавить приблизительное число книг из BookCountService
+    public CatalogSlice<BookResponse> getBooksSlice(int page, int size, boolean withTotal) {
+        int limit = Math.max(1, Math.min(size, MAX_SLICE_PAGE_SIZE));
+        Slice<BookView> slice = bookRepository.findViewSlice(PageRequest.of(page, limit));
+        Long total = withTotal ? bookCountService.approximateCount() : null;
+        return new CatalogSlice<>(slice.map(this::mapToBookResponse).getContent(),
+                slice.getNumber(), slice.getSize(), slice.hasNext(), total);
+    }
+
+    // Получить страницу каталога по курсору (after - курсор из предыдущей страницы, null - первая)
+    // Стоимость не зависит от глубины страницы: поиск по индексу (title, id), без offset и count
+    public CursorPage<BookResponse> getBooksAfter(String after, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        // Одна лишняя книга показывает, есть ли следующая страница
+        Limit fetch = Limit.of(limit + 1);
+        List<BookView> books;
+        if (after == null || after.isEmpty()) {
+            books = bookRepository.findFirstPage(fetch);
+        } else {
+            BookCursor cursor = BookCursor.decode(after);
+            books = bookRepository.findPageAfter(cursor.title(), cursor.id(), fetch);
+        }
+        boolean hasNext = books.size() > limit;
+        List<BookView> page = hasNext ? books.subList(0, limit) : books;
+        String next = hasNext ? BookCursor.after(page.get(limit - 1)).encode() : null;
+        return new CursorPage<>(page.stream().map(this::mapToBookResponse).toList(), limit, next);
+    }
+
     // Найти книгу по ID
     public BookResponse getBookById(Long id) {
-        Book book = bookRepository.findById(id)
+        BookView book = bookRepository.findViewById(id)
                 .orElseThrow(() -> new BookNotFoundException("Книга не найдена с ID: " + id));
         return mapToBookResponse(book);
     }
 
+    // Страница каталога только с полями из fields ("id,title,borrowedBy"): выбираются только их колонки
+    // Запрос count не выполняется, если число книг следует из самой страницы (например, последней неполной)
+    public Page<Map<String, Object>> getBookFields(int page, int size, String fields) {
+        Pageable pageable = PageRequest.of(page, size);
+        List<Map<String, Object>> content =
+                bookRepository.findFields(BookField.parse(fields), pageable.getOffset(), size);
+        return PageableExecutionUtils.getPage(content, pageable, bookRepository::count);
+    }
+
+    // То же без точного числа книг (как getBooksSlice)
+    public CatalogSlice<Map<String, Object>> getBookFieldsSlice(int page, int size, String fields, boolean withTotal) {
+        int limit = Math.max(1, Math.min(size, MAX_SLICE_PAGE_SIZE));
+        Pageable pageable = PageRequest.of(page, limit);
+        List<Map<String, Object>> rows =
+                bookRepository.findFields(BookField.parse(fields), pageable.getOffset(), limit + 1);
+        boolean hasNext = rows.size() > limit;
+        Long total = withTotal ? bookCountService.approximateCount() : null;
+        return new CatalogSlice<>(hasNext ? rows.subList(0, limit) : rows, page, limit, hasNext, total);
+    }
+
+    // Книга по ID только с полями из fields
+    public Map<String, Object> getBookFieldsById(Long id, String fields) {
+        Set<BookField> selected = BookField.parse(fields);
+        return bookRepository.findFieldsById(selected, id)
+                .orElseThrow(() -> new BookNotFoundException("Книга не найдена с ID: " + id));
+    }
+
+    // Полнотекстовый поиск по названию, автору и ISBN: ранжирование BM25 в BookSearchIndex,
+    // данные найденных книг - одним запросом по их id. Результаты глубже MAX_SEARCH_WINDOW не выдаются
+    public SearchPage<BookResponse> searchBooks(String query, int page, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+        long offset = (long) Math.max(0, page) * limit;
+        int window = (int) Math.max(0, Math.min(limit, MAX_SEARCH_WINDOW - offset));
+        InvertedIndex.Hits hits = bookSearchIndex.search(query, (int) Math.min(offset, MAX_SEARCH_WINDOW), window);
+
+        List<Long> ids = hits.hits().stream().map(InvertedIndex.Hit::id).toList();
+        Map<Long, BookView> books = bookRepository.findViewsByIds(ids).stream()
+                .collect(Collectors.toMap(BookView::id, Function.identity()));
+        // Порядок - по релевантности; книга, удаленная после поиска в индексе, пропускается
+        List<BookResponse> content = ids.stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToBookResponse)
+                .toList();
+        return new SearchPage<>(query, content, Math.max(0, page), limit, hits.total());
+    }
+
     // Взять книгу в аренду
     @Transactional
     public BookResponse borrowBook(Long bookId, String username) {
@@ -91,7 +189,32 @@ public class BookService {
         return mapToBookResponse(savedBook);
     }
 
-    // Преобразование Book в BookResponse
+    // Преобразование проекции BookView в BookResponse
+    private BookResponse mapToBookResponse(BookView book) {
+        BookResponse response = new BookResponse();
+        response.setId(book.id());
+        response.setTitle(book.title());
+        response.setAuthor(book.author());
+        response.setIsbn(book.isbn());
+        response.setPublicationYear(book.publicationYear());
+        response.setAvailable(book.available());
+        response.setBorrowDate(book.borrowDate());
+        response.setReturnDate(book.returnDate());
+
+        // Колонки пользователя заполнены, только если книга арендована (left join)
+        if (book.borrowerId() != null) {
+            UserResponse userResponse = new UserResponse();
+            userResponse.setId(book.borrowerId());
+            userResponse.setUsername(book.borrowerUsername());
+            userResponse.setEmail(book.borrowerEmail());
+            userResponse.setRole(book.borrowerRole().name());
+            response.setBorrowedBy(userResponse);
+        }
+
+        return response;
+    }
+
+    // Преобразование Book в BookResponse (после аренды и возврата)
     private BookResponse mapToBookResponse(Book book) {
         BookResponse response = new BookResponse();
         response.setId(book.getId());
@@ -0,0 +1,185 @@
+package com.example.library.service;
+
+import com.example.library.dto.request.RegisterRequest;
+import com.example.library.exception.InvalidBulkFileException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Потоковое чтение файла массового создания пользователей (CSV или NDJSON)
+// В памяти держится только текущая строка файла, пустые строки пропускаются
+abstract class BulkUserReader {
+
+    // Разобранная строка файла: данные пользователя или причина ошибки разбора
+    record Row(long line, RegisterRequest request, String error) {
+
+        static Row parsed(long line, RegisterRequest request) {
+            return new Row(line, request, null);
+        }
+
+        static Row invalid(long line, String error) {
+            return new Row(line, null, error);
+        }
+    }
+
+    private final BufferedReader reader;
+    private long line;
+
+    BulkUserReader(Reader input) {
+        this.reader = input instanceof BufferedReader buffered ? buffered : new BufferedReader(input);
+    }
+
+    static BulkUserReader of(UserProvisioningService.Format format, Reader input, ObjectMapper objectMapper) {
+        return switch (format) {
+            case CSV -> new Csv(input);
+            case NDJSON -> new Ndjson(input, objectMapper);
+        };
+    }
+
+    // Следующая строка файла (null - конец файла)
+    abstract Row next() throws IOException;
+
+    // Следующая непустая строка и ее номер в файле
+    protected String nextLine() throws IOException {
+        String value;
+        while ((value = reader.readLine()) != null) {
+            line++;
+            if (line == 1 && value.startsWith("\uFEFF")) {
+                value = value.substring(1); // BOM, который добавляют табличные редакторы
+            }
+            if (!value.isBlank()) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    protected long line() {
+        return line;
+    }
+
+    // Один JSON объект на строку: {"username": "...", "email": "...", "password": "..."}
+    static final class Ndjson extends BulkUserReader {
+
+        private final ObjectMapper objectMapper;
+
+        Ndjson(Reader input, ObjectMapper objectMapper) {
+            super(input);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        Row next() throws IOException {
+            String value = nextLine();
+            if (value == null) {
+                return null;
+            }
+            try {
+                RegisterRequest request = objectMapper.readValue(value, RegisterRequest.class);
+                return request != null ? Row.parsed(line(), request) : Row.invalid(line(), "Empty record");
+            } catch (JsonProcessingException e) {
+                return Row.invalid(line(), "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    // CSV с заголовком (колонки username, email, password в любом порядке)
+    // Поддерживаются поля в кавычках с экранированием "", но не переводы строк внутри поля
+    static final class Csv extends BulkUserReader {
+
+        private int usernameColumn = -1;
+        private int emailColumn = -1;
+        private int passwordColumn = -1;
+        private int columns;
+
+        Csv(Reader input) {
+            super(input);
+        }
+
+        @Override
+        Row next() throws IOException {
+            if (columns == 0) {
+                readHeader();
+            }
+            String value = nextLine();
+            if (value == null) {
+                return null;
+            }
+            List<String> fields = split(value);
+            if (fields == null) {
+                return Row.invalid(line(), "Unterminated quoted field");
+            }
+            if (fields.size() < columns) {
+                return Row.invalid(line(), "Expected " + columns + " columns, got " + fields.size());
+            }
+            RegisterRequest request = new RegisterRequest();
+            request.setUsername(fields.get(usernameColumn));
+            request.setEmail(fields.get(emailColumn));
+            request.setPassword(fields.get(passwordColumn));
+            return Row.parsed(line(), request);
+        }
+
+        private void readHeader() throws IOException {
+            String header = nextLine();
+            if (header == null) {
+                throw new InvalidBulkFileException("CSV header is missing");
+            }
+            List<String> names = split(header);
+            if (names == null) {
+                throw new InvalidBulkFileException("CSV header is malformed");
+            }
+            for (int i = 0; i < names.size(); i++) {
+                switch (names.get(i).trim().toLowerCase(Locale.ROOT)) {
+                    case "username" -> usernameColumn = i;
+                    case "email" -> emailColumn = i;
+                    case "password" -> passwordColumn = i;
+                    default -> {
+                        // Лишние колонки игнорируются
+                    }
+                }
+            }
+            if (usernameColumn < 0 || emailColumn < 0 || passwordColumn < 0) {
+                throw new InvalidBulkFileException("CSV header must contain username, email and password columns");
+            }
+            columns = Math.max(usernameColumn, Math.max(emailColumn, passwordColumn)) + 1;
+        }
+
+        // Разбить строку на поля (null - незакрытая кавычка)
+        static List<String> split(String value) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i + 1 < value.length() && value.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
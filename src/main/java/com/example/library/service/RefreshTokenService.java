@@ -0,0 +1,92 @@
+package com.example.library.service;
+
+import com.example.library.exception.AuthenticationFailedException;
+import com.example.library.model.RefreshToken;
+import com.example.library.repository.RefreshTokenRepository;
+import com.example.library.security.VersionedPrincipal;
+import com.example.library.util.Sha256;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+// Одноразовые refresh токены с ротацией
+// Обмен refresh токена - поиск по индексу хэша вместо проверки пароля через BCrypt.
+// Каждый токен можно использовать один раз; повторное использование означает утечку,
+// и вся цепочка токенов этого входа удаляется.
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Duration expirationTime;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${jwt.refresh.expiration-time:P30D}") Duration expirationTime) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.expirationTime = expirationTime;
+    }
+
+    // Выпустить токен для нового входа (новая цепочка)
+    @Transactional
+    public String issue(UserDetails user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    // Выпустить следующий токен цепочки
+    @Transactional
+    public String issue(UserDetails user, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String value = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(Sha256.base64Url(value))
+                .username(user.getUsername())
+                .familyId(familyId)
+                .tokenVersion(user instanceof VersionedPrincipal versioned ? versioned.getTokenVersion() : 0)
+                .expiresAt(Instant.now().plus(expirationTime))
+                .used(false)
+                .build());
+        return value;
+    }
+
+    // Использовать токен (один раз); при повторном использовании удаляется вся цепочка
+    @Transactional(noRollbackFor = AuthenticationFailedException.class)
+    public RefreshToken consume(String value) {
+        RefreshToken token = refreshTokenRepository.findByTokenHash(Sha256.base64Url(value))
+                .orElseThrow(() -> new AuthenticationFailedException("Недействительный refresh токен"));
+
+        if (!token.getExpiresAt().isAfter(Instant.now())) {
+            throw new AuthenticationFailedException("Срок действия refresh токена истек");
+        }
+        if (refreshTokenRepository.markUsed(token.getId()) == 0) {
+            int removed = refreshTokenRepository.deleteFamily(token.getFamilyId());
+            log.warn("Повторное использование refresh токена пользователя {}, удалено токенов цепочки: {}",
+                    token.getUsername(), removed);
+            throw new AuthenticationFailedException("Refresh токен уже использован");
+        }
+        return token;
+    }
+
+    // Периодическое удаление истекших токенов
+    @Scheduled(fixedDelayString = "${jwt.refresh.purge-interval:PT1H}")
+    @Transactional
+    public void purgeExpired() {
+        int removed = refreshTokenRepository.deleteExpired(Instant.now());
+        if (removed > 0) {
+            log.info("Удалено истекших refresh токенов: {}", removed);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.library.service;
+
+import com.example.library.exception.UserAlreadyExistsException;
+import com.example.library.model.User;
+import com.example.library.repository.UserRepository;
+import com.example.library.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Locale;
+import java.util.stream.Stream;
+
+// Проверка, заняты ли логин и email
+// Фильтр Блума в памяти содержит нормализованные логины и email всех пользователей:
+// ответ "свободно" (почти все проверки при регистрации и наборе логина) точный и не
+// требует обращения к БД, только возможные совпадения проверяются индексированным запросом.
+// Значение добавляется в фильтр до вставки пользователя, поэтому окно, когда строка уже
+// в БД, а фильтр о ней не знает, возникает только при вставке другим экземпляром
+// приложения (до ближайшей пересборки). Окончательную проверку делает уникальный индекс.
+// После коммита вставки значение добавляется повторно, а добавление и замена фильтра при
+// пересборке идут под одной блокировкой: строку, которую пересборка не увидела в БД,
+// получает строящийся фильтр - новое значение не теряется.
+@Slf4j
+@Service
+public class UserAvailabilityService {
+
+    static final String METRIC_NAME = "users.availability.checks";
+
+    private static final String USERNAME_PREFIX = "u:";
+    private static final String EMAIL_PREFIX = "e:";
+
+    private final UserRepository userRepository;
+    private final long expectedUsers;
+    private final double falsePositiveRate;
+    private final Counter bloomNegatives;
+    private final Counter exactLookups;
+
+    // Текущий фильтр и фильтр, который строится при пересборке (в него тоже пишем новые значения)
+    // До первой загрузки фильтр пуст и не используется: все проверки идут в БД
+    private volatile BloomFilter filter;
+    private BloomFilter rebuilding; // под filterLock
+    private volatile boolean loaded;
+    private final Object filterLock = new Object();
+
+    public UserAvailabilityService(UserRepository userRepository,
+                                   @Value("${users.availability.expected-users:1000000}") long expectedUsers,
+                                   @Value("${users.availability.false-positive-rate:0.01}") double falsePositiveRate,
+                                   MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.expectedUsers = expectedUsers;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = createFilter();
+        this.bloomNegatives = Counter.builder(METRIC_NAME)
+                .tag("result", "bloom-negative")
+                .register(meterRegistry);
+        this.exactLookups = Counter.builder(METRIC_NAME)
+                .tag("result", "exact-lookup")
+                .register(meterRegistry);
+    }
+
+    // Занят ли логин (запрос к БД - только при возможном совпадении в фильтре)
+    public boolean isUsernameTaken(String username) {
+        if (!mightContainUsername(username)) {
+            bloomNegatives.increment();
+            return false;
+        }
+        exactLookups.increment();
+        return Boolean.TRUE.equals(userRepository.existsByUsername(username));
+    }
+
+    // Зарегистрирован ли email (запрос к БД - только при возможном совпадении в фильтре)
+    public boolean isEmailTaken(String email) {
+        if (!mightContainEmail(email)) {
+            bloomNegatives.increment();
+            return false;
+        }
+        exactLookups.increment();
+        return Boolean.TRUE.equals(userRepository.existsByEmail(email));
+    }
+
+    // Может ли логин быть занят (false - точно свободен)
+    public boolean mightContainUsername(String username) {
+        return !loaded || filter.mightContain(USERNAME_PREFIX + normalize(username));
+    }
+
+    // Может ли email быть зарегистрирован (false - точно свободен)
+    public boolean mightContainEmail(String email) {
+        return !loaded || filter.mightContain(EMAIL_PREFIX + normalize(email));
+    }
+
+    // Отметить логин и email занятыми (вызывается до вставки пользователя в той же транзакции;
+    // без транзакции - еще раз после вставки, когда строка уже зафиксирована)
+    // Если вставка не удастся, в фильтре останется лишнее значение - это лишь ложное срабатывание
+    public void add(String username, String email) {
+        addToFilter(username, email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Пересборка, начатая до коммита, не увидит строку в БД - повторяем после него
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addToFilter(username, email);
+                }
+            });
+        }
+    }
+
+    // Перевести нарушение уникального индекса users в ответ 409 с указанием занятого значения
+    // Другие нарушения целостности пробрасываются без изменений
+    public RuntimeException alreadyExists(DataIntegrityViolationException e, String username, String email) {
+        String message = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        if (message.contains(User.USERNAME_CONSTRAINT)) {
+            return new UserAlreadyExistsException("Логин занят: " + username, e);
+        }
+        if (message.contains(User.EMAIL_CONSTRAINT)) {
+            return new UserAlreadyExistsException("Email уже зарегистрирован: " + email, e);
+        }
+        return e;
+    }
+
+    // Загрузка логинов и email при старте
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void onStartup() {
+        rebuildFilter();
+    }
+
+    // Периодическая пересборка: значения удаленных пользователей и вставленные другими
+    // экземплярами приложения (фильтр Блума не поддерживает удаление)
+    @Scheduled(fixedDelayString = "${users.availability.rebuild-interval:PT1H}",
+            initialDelayString = "${users.availability.rebuild-interval:PT1H}")
+    @Transactional(readOnly = true)
+    public synchronized void rebuildFilter() {
+        BloomFilter next = createFilter();
+        synchronized (filterLock) {
+            rebuilding = next;
+        }
+        try (Stream<UserRepository.UserKeyView> keys = userRepository.streamUserKeys()) {
+            keys.forEach(key -> put(next, key.getUsername(), key.getEmail()));
+            synchronized (filterLock) {
+                filter = next;
+                loaded = true;
+            }
+        } finally {
+            synchronized (filterLock) {
+                rebuilding = null;
+            }
+        }
+        log.debug("Фильтр занятых логинов и email пересобран ({} байт)", next.sizeInBytes());
+    }
+
+    // Добавить значения в текущий фильтр и в строящийся, если идет пересборка
+    private void addToFilter(String username, String email) {
+        synchronized (filterLock) {
+            put(filter, username, email);
+            if (rebuilding != null) {
+                put(rebuilding, username, email);
+            }
+        }
+    }
+
+    // Логины и email в одном фильтре (с разными префиксами), размер - на оба значения
+    private BloomFilter createFilter() {
+        return BloomFilter.create(expectedUsers * 2, falsePositiveRate);
+    }
+
+    private static void put(BloomFilter target, String username, String email) {
+        target.put(USERNAME_PREFIX + normalize(username));
+        target.put(EMAIL_PREFIX + normalize(email));
+    }
+
+    // Нормализация: без пробелов по краям и без учета регистра (фильтр шире точной проверки)
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.library.service;
+
+// Событие изменения существующего пользователя (смена пароля, роли, версии токенов)
+// По нему сбрасываются закэшированные данные пользователя. При создании пользователя
+// событие не публикуется: отсутствующие пользователи не кэшируются, токенов у нового еще нет.
+public record UserChangedEvent(String username) {
+}
@@ -1,21 +1,106 @@
 package com.example.library.service;
 
 import com.example.library.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.example.library.security.UserSnapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
 
 // Сервис для загрузки данных пользователя Spring Security
+// Результаты кэшируются в виде неизменяемых снимков (UserSnapshot)
+@Slf4j
 @Service
-@RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
+
+    // Метрики кэша публикуются под этим именем (cache.gets, cache.evictions и т.д.)
+    static final String CACHE_NAME = "security.users";
 
     private final UserRepository userRepository; // Репозиторий пользователей
+    private final boolean cacheEnabled;
+    private final Cache<String, UserSnapshot> cache;
+
+    public UserDetailsServiceImpl(UserRepository userRepository,
+                                  @Value("${security.user-cache.enabled:true}") boolean cacheEnabled,
+                                  @Value("${security.user-cache.max-size:10000}") long maxSize,
+                                  @Value("${security.user-cache.ttl:PT5M}") Duration ttl,
+                                  MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.cacheEnabled = cacheEnabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        if (cacheEnabled) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+            Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                    .tag("cache", CACHE_NAME)
+                    .description("Доля попаданий в кэш пользователей")
+                    .register(meterRegistry);
+        }
+    }
 
     // Загрузка пользователя по имени пользователя для аутентификации
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        if (!cacheEnabled) {
+            return loadSnapshot(username);
+        }
+        // Отсутствующие пользователи не кэшируются: исключение пробрасывается как есть
+        return cache.get(username, this::loadSnapshot);
+    }
+
+    // Сохранить новый хэш пароля (вызывается DaoAuthenticationProvider при успешном входе,
+    // если хранимый хэш не соответствует текущей политике)
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePassword(user.getUsername(), newPassword);
+        evict(user.getUsername());
+        log.info("Хэш пароля пользователя {} обновлен по текущей политике", user.getUsername());
+        if (user instanceof UserSnapshot snapshot) {
+            return snapshot.withPassword(newPassword);
+        }
+        return loadSnapshot(user.getUsername());
+    }
+
+    // Сбросить кэш пользователя после коммита транзакции, изменившей его
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evict(event.username());
+    }
+
+    // Удалить пользователя из кэша
+    public void evict(String username) {
+        cache.invalidate(username);
+        log.debug("Пользователь {} удален из кэша", username);
+    }
+
+    // Полностью очистить кэш
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    // Статистика кэша (доля попаданий и т.д.)
+    public CacheStats cacheStats() {
+        return cache.stats();
+    }
+
+    // Запрос к БД и отделение данных от JPA сущности
+    private UserSnapshot loadSnapshot(String username) {
         return userRepository.findByUsername(username)
+                .map(UserSnapshot::of)
                 .orElseThrow(() -> new UsernameNotFoundException("Пользователь '" + username + "' не найден"));
     }
 }
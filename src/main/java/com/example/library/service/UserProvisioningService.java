@@ -0,0 +1,320 @@
+package com.example.library.service;
+
+import com.example.library.dto.request.RegisterRequest;
+import com.example.library.dto.response.BulkUserResult;
+import com.example.library.dto.response.BulkUserResult.Status;
+import com.example.library.model.Role;
+import com.example.library.repository.UserRepository;
+import com.example.library.security.OffloadingPasswordEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Массовое создание пользователей из потока CSV/NDJSON
+// Файл обрабатывается пачками фиксированного размера, поэтому память не зависит от размера файла.
+// Для каждой пачки: проверка уникальности двумя запросами IN, параллельное хэширование
+// паролей, вставка одним JDBC batch в отдельной транзакции, отчет по каждой строке.
+@Slf4j
+@Service
+public class UserProvisioningService {
+
+    static final String METRIC_NAME = "users.provisioning.rows";
+
+    private static final String INSERT_SQL =
+            "insert into users (username, password, email, role, token_version) values (?, ?, ?, ?, 0)";
+
+    // Формат входного файла
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    // Получатель результатов (например, запись строки NDJSON в ответ)
+    @FunctionalInterface
+    public interface ResultSink {
+        void accept(BulkUserResult result) throws IOException;
+    }
+
+    private final UserRepository userRepository;
+    private final UserAvailabilityService availabilityService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService hashingPool;
+    private final int batchSize;
+    private final Map<Status, Counter> counters = new EnumMap<>(Status.class);
+
+    public UserProvisioningService(UserRepository userRepository,
+                                   UserAvailabilityService availabilityService,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   PasswordEncoder passwordEncoder,
+                                   Validator validator,
+                                   ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${provisioning.batch-size:500}") int batchSize,
+                                   @Value("${provisioning.hashing-threads:0}") int hashingThreads) {
+        this.userRepository = userRepository;
+        this.availabilityService = availabilityService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Хэширование идет в собственном пуле: тысячи задач из файла не должны заполнять
+        // очередь пула входа и регистрации (там они получили бы 503)
+        this.passwordEncoder = passwordEncoder instanceof OffloadingPasswordEncoder offloading
+                ? offloading.getDelegate()
+                : passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        // Очередь не ограничена, но в ней не больше одной пачки (batchSize задач на запрос)
+        this.hashingPool = ExecutorServiceMetrics.monitor(meterRegistry,
+                Executors.newFixedThreadPool(threads, runnable -> {
+                    Thread thread = new Thread(runnable, "bulk-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }),
+                "bulk-hashing");
+        for (Status status : Status.values()) {
+            counters.put(status, Counter.builder(METRIC_NAME)
+                    .tag("status", status.name().toLowerCase(Locale.ROOT))
+                    .description("Строки файлов массового создания пользователей")
+                    .register(meterRegistry));
+        }
+        log.info("Массовое создание пользователей: пачка={}, потоков хэширования={}", batchSize, threads);
+    }
+
+    // Кандидат на создание: прошел валидацию и проверку уникальности
+    private record Candidate(int index, long line, RegisterRequest request) {
+    }
+
+    // Обработать файл, передавая результат каждой строки в sink (в порядке строк файла)
+    public Map<Status, Long> provision(Reader input, Format format, ResultSink sink) throws IOException {
+        BulkUserReader reader = BulkUserReader.of(format, input, objectMapper);
+        Map<Status, Long> summary = new EnumMap<>(Status.class);
+        List<BulkUserReader.Row> chunk = new ArrayList<>(batchSize);
+        BulkUserReader.Row row;
+        while ((row = reader.next()) != null) {
+            chunk.add(row);
+            if (chunk.size() == batchSize) {
+                processChunk(chunk, sink, summary);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(chunk, sink, summary);
+        }
+        log.info("Массовое создание пользователей завершено: {}", summary);
+        return summary;
+    }
+
+    private void processChunk(List<BulkUserReader.Row> chunk, ResultSink sink,
+                              Map<Status, Long> summary) throws IOException {
+        BulkUserResult[] results = new BulkUserResult[chunk.size()];
+        List<Candidate> candidates = validate(chunk, results);
+        candidates = excludeExisting(candidates, results);
+        if (!candidates.isEmpty()) {
+            insert(candidates, hash(candidates), results);
+        }
+        for (BulkUserResult result : results) {
+            counters.get(result.getStatus()).increment();
+            summary.merge(result.getStatus(), 1L, Long::sum);
+            sink.accept(result);
+        }
+    }
+
+    // Валидация строк и поиск повторов внутри пачки
+    // Повторы относительно предыдущих пачек находит запрос к БД (они уже вставлены)
+    private List<Candidate> validate(List<BulkUserReader.Row> chunk, BulkUserResult[] results) {
+        List<Candidate> candidates = new ArrayList<>(chunk.size());
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            BulkUserReader.Row row = chunk.get(i);
+            if (row.error() != null) {
+                results[i] = result(row.line(), null, Status.INVALID, row.error());
+                continue;
+            }
+            RegisterRequest request = row.request();
+            Set<ConstraintViolation<RegisterRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                results[i] = result(row.line(), request.getUsername(), Status.INVALID, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .reduce((left, right) -> left + "; " + right)
+                        .orElseThrow());
+            } else if (!usernames.add(request.getUsername())) {
+                results[i] = result(row.line(), request.getUsername(), Status.DUPLICATE,
+                        "Username is repeated in the file");
+            } else if (!emails.add(request.getEmail())) {
+                results[i] = result(row.line(), request.getUsername(), Status.DUPLICATE,
+                        "Email is repeated in the file");
+            } else {
+                candidates.add(new Candidate(i, row.line(), request));
+            }
+        }
+        return candidates;
+    }
+
+    // Проверка уникальности двумя запросами на всю пачку вместо двух запросов на строку
+    // В запросы попадают только возможные совпадения фильтра занятых значений (обычно их нет)
+    private List<Candidate> excludeExisting(List<Candidate> candidates, BulkUserResult[] results) {
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        List<String> usernames = new ArrayList<>();
+        List<String> emails = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (availabilityService.mightContainUsername(candidate.request().getUsername())) {
+                usernames.add(candidate.request().getUsername());
+            }
+            if (availabilityService.mightContainEmail(candidate.request().getEmail())) {
+                emails.add(candidate.request().getEmail());
+            }
+        }
+        Set<String> takenUsernames = usernames.isEmpty()
+                ? Set.of()
+                : new HashSet<>(userRepository.findExistingUsernames(usernames));
+        Set<String> takenEmails = emails.isEmpty()
+                ? Set.of()
+                : new HashSet<>(userRepository.findExistingEmails(emails));
+
+        List<Candidate> remaining = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            RegisterRequest request = candidate.request();
+            if (takenUsernames.contains(request.getUsername())) {
+                results[candidate.index()] = result(candidate.line(), request.getUsername(),
+                        Status.DUPLICATE, "Username is already taken");
+            } else if (takenEmails.contains(request.getEmail())) {
+                results[candidate.index()] = result(candidate.line(), request.getUsername(),
+                        Status.DUPLICATE, "Email is already registered");
+            } else {
+                remaining.add(candidate);
+            }
+        }
+        return remaining;
+    }
+
+    // Параллельное хэширование паролей пачки (по потоку на ядро)
+    private List<String> hash(List<Candidate> candidates) {
+        List<Future<String>> futures = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            String password = candidate.request().getPassword();
+            futures.add(hashingPool.submit(() -> passwordEncoder.encode(password)));
+        }
+        List<String> hashes = new ArrayList<>(candidates.size());
+        try {
+            for (Future<String> future : futures) {
+                hashes.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Password hashing interrupted", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+        return hashes;
+    }
+
+    // Вставка пачки одним JDBC batch в транзакции
+    // Если параллельная регистрация заняла логин или email после проверки, пачка
+    // откатывается и строки вставляются по одной, чтобы отклонить только конфликтующие
+    private void insert(List<Candidate> candidates, List<String> hashes, BulkUserResult[] results) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // В транзакции: после коммита значения добавляются в фильтр повторно
+                candidates.forEach(candidate ->
+                        availabilityService.add(candidate.request().getUsername(), candidate.request().getEmail()));
+                jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        bind(statement, candidates.get(i).request(), hashes.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return candidates.size();
+                    }
+                });
+            });
+            for (Candidate candidate : candidates) {
+                results[candidate.index()] = result(candidate.line(), candidate.request().getUsername(),
+                        Status.CREATED, null);
+            }
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Конфликт уникальности при вставке пачки, вставка по одной строке: {}", e.getMessage());
+            for (int i = 0; i < candidates.size(); i++) {
+                insertOne(candidates.get(i), hashes.get(i), results);
+            }
+        }
+    }
+
+    private void insertOne(Candidate candidate, String hash, BulkUserResult[] results) {
+        String username = candidate.request().getUsername();
+        try {
+            jdbcTemplate.update(INSERT_SQL, statement -> bind(statement, candidate.request(), hash));
+            // Вставка вне транзакции уже зафиксирована
+            availabilityService.add(username, candidate.request().getEmail());
+            results[candidate.index()] = result(candidate.line(), username, Status.CREATED, null);
+        } catch (DataIntegrityViolationException e) {
+            RuntimeException translated = availabilityService.alreadyExists(e, username, candidate.request().getEmail());
+            if (translated == e) {
+                throw e;
+            }
+            results[candidate.index()] = result(candidate.line(), username, Status.DUPLICATE,
+                    translated.getMessage());
+        }
+    }
+
+    // Новые пользователи создаются с ролью READER, как при регистрации
+    private static void bind(PreparedStatement statement, RegisterRequest request, String hash) throws SQLException {
+        statement.setString(1, request.getUsername());
+        statement.setString(2, hash);
+        statement.setString(3, request.getEmail());
+        statement.setString(4, Role.ROLE_READER.name());
+    }
+
+    private static BulkUserResult result(long line, String username, Status status, String message) {
+        return BulkUserResult.builder()
+                .line(line)
+                .username(username)
+                .status(status)
+                .message(message)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdownNow();
+    }
+}
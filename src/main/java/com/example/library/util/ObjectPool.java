@@ -0,0 +1,35 @@
+package com.example.library.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Supplier;
+
+// Небольшой пул переиспользуемых непотокобезопасных объектов (MessageDigest, Mac)
+// В отличие от ThreadLocal не привязан к потоку: с виртуальными потоками (новый поток
+// на каждый запрос) ThreadLocal создавал бы объект заново в каждом запросе.
+// Очередь на ReentrantLock - ожидание не закрепляет виртуальный поток за носителем.
+public final class ObjectPool<T> {
+
+    private final ArrayBlockingQueue<T> idle;
+    private final Supplier<T> factory;
+
+    public ObjectPool(int capacity, Supplier<T> factory) {
+        this.idle = new ArrayBlockingQueue<>(capacity);
+        this.factory = factory;
+    }
+
+    // Пул по числу ядер: одновременно объект нужен не большему числу потоков-носителей
+    public static <T> ObjectPool<T> perCore(Supplier<T> factory) {
+        return new ObjectPool<>(Runtime.getRuntime().availableProcessors() * 2, factory);
+    }
+
+    // Взять объект из пула (или создать новый, если свободных нет)
+    public T acquire() {
+        T instance = idle.poll();
+        return instance != null ? instance : factory.get();
+    }
+
+    // Вернуть объект в пул (лишние объекты при заполненном пуле отбрасываются)
+    public void release(T instance) {
+        idle.offer(instance);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.library.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+// SHA-256 хэширование строк (ключи кэшей, хранение секретов в виде хэша)
+public final class Sha256 {
+
+    // MessageDigest не потокобезопасен - экземпляры берутся из пула на время вычисления
+    private static final ObjectPool<MessageDigest> DIGESTS = ObjectPool.perCore(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private Sha256() {
+    }
+
+    // Хэш строки в виде base64url без дополнения (43 символа)
+    public static String base64Url(String value) {
+        MessageDigest digest = DIGESTS.acquire();
+        byte[] hash;
+        try {
+            hash = digest.digest(value.getBytes(StandardCharsets.UTF_8));
+        } finally {
+            DIGESTS.release(digest);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.library.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Потокобезопасный token bucket без блокировок
+// Состояние - одно число: теоретическое время прихода следующего запроса (алгоритм GCRA).
+// Запрос разрешен, если после его учета "долг" не превышает емкость корзины.
+public class TokenBucket {
+
+    private final long capacity;
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+
+    // Корзина на capacity запросов, полностью восполняется за refillPeriod
+    public TokenBucket(long capacity, Duration refillPeriod, long now) {
+        if (capacity <= 0 || refillPeriod.isZero() || refillPeriod.isNegative()) {
+            throw new IllegalArgumentException("Invalid token bucket parameters");
+        }
+        this.capacity = capacity;
+        this.nanosPerToken = Math.max(1, refillPeriod.toNanos() / capacity);
+        this.burstNanos = nanosPerToken * capacity;
+        this.theoreticalArrival = new AtomicLong(now);
+    }
+
+    // Взять токен; 0 - токен получен, иначе - через сколько наносекунд появится следующий
+    public long tryAcquire(long now) {
+        return tryAcquire(now, 1);
+    }
+
+    // Взять сразу permits токенов (все или ничего); 0 - получены, иначе - через сколько наносекунд
+    // их будет достаточно. Больше capacity токенов не выдается никогда.
+    public long tryAcquire(long now, long permits) {
+        if (permits <= 0 || permits > capacity) {
+            throw new IllegalArgumentException("Permits must be between 1 and capacity: " + permits);
+        }
+        long cost = nanosPerToken * permits;
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + cost;
+            long debt = next - now;
+            if (debt > burstNanos) {
+                return debt - burstNanos;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Сколько токенов доступно сейчас
+    public long available(long now) {
+        long debt = Math.max(0, theoreticalArrival.get() - now);
+        return Math.min(capacity, (burstNanos - debt) / nanosPerToken);
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+}
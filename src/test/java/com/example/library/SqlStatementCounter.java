@@ -0,0 +1,39 @@
+package com.example.library;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Счетчик SQL запросов Hibernate для тестов на число запросов
+// Подключается свойством spring.jpa.properties.hibernate.session_factory.statement_inspector
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql.toLowerCase(Locale.ROOT));
+        return sql;
+    }
+
+    // Начать подсчет заново
+    public static void reset() {
+        STATEMENTS.clear();
+    }
+
+    // Число выполненных запросов
+    public static int count() {
+        return STATEMENTS.size();
+    }
+
+    // Число запросов, содержащих фрагмент (например "from users")
+    public static long count(String fragment) {
+        return STATEMENTS.stream().filter(sql -> sql.contains(fragment)).count();
+    }
+
+    public static List<String> statements() {
+        return List.copyOf(STATEMENTS);
+    }
+}
@@ -31,18 +31,18 @@ class DataInitializerTest {
     private DataInitializer dataInitializer;
 
     @Test
-    void initData_ShouldCreateAdminAndReaderUsers() throws Exception {
+    void initData_ShouldCreateAdminReaderAndServiceUsers() throws Exception {
         // Arrange (Подготовка)
         // Настраиваем mock PasswordEncoder возвращать "encodedPassword" для любого входного пароля
         when(passwordEncoder.encode(any())).thenReturn("encodedPassword");
 
         // Act (Действие)
         // Вызываем метод инициализации данных
-        dataInitializer.initData(userRepository, bookRepository).run(null);
+        dataInitializer.initData(userRepository, bookRepository).run();
 
         // Assert (Проверка)
-        // Проверяем, что метод save был вызван 2 раза (для admin и reader)
-        verify(userRepository, times(2)).save(any(User.class));
+        // Проверяем, что метод save был вызван 3 раза (для admin, reader и gateway)
+        verify(userRepository, times(3)).save(any(User.class));
 
         // Проверяем, что был сохранен пользователь admin с правильными атрибутами
         verify(userRepository).save(argThat(user ->
@@ -57,6 +57,12 @@ class DataInitializerTest {
                         user.getEmail().equals("reader@library.com") &&
                         user.getRole() == Role.ROLE_READER
         ));
+
+        // Проверяем, что была сохранена учетная запись сервиса gateway
+        verify(userRepository).save(argThat(user ->
+                user.getUsername().equals("gateway") &&
+                        user.getRole() == Role.ROLE_SERVICE
+        ));
     }
 
     @Test
@@ -65,7 +71,7 @@ class DataInitializerTest {
         when(passwordEncoder.encode(any())).thenReturn("encodedPassword");
 
         // Act
-        dataInitializer.initData(userRepository, bookRepository).run(null);
+        dataInitializer.initData(userRepository, bookRepository).run();
 
         // Assert
         // Проверяем, что метод save был вызван 2 раза (для двух книг)
@@ -96,14 +102,16 @@ class DataInitializerTest {
         // Настраиваем mock PasswordEncoder возвращать разные закодированные пароли
         when(passwordEncoder.encode("admin123")).thenReturn("encodedAdminPass");
         when(passwordEncoder.encode("reader123")).thenReturn("encodedReaderPass");
+        when(passwordEncoder.encode("gateway123")).thenReturn("encodedGatewayPass");
 
         // Act
-        dataInitializer.initData(userRepository, bookRepository).run(null);
+        dataInitializer.initData(userRepository, bookRepository).run();
 
         // Assert
         // Проверяем, что encode был вызван с правильными паролями
         verify(passwordEncoder).encode("admin123");
         verify(passwordEncoder).encode("reader123");
+        verify(passwordEncoder).encode("gateway123");
 
         // Проверяем, что пароли были правильно закодированы и сохранены
         verify(userRepository).save(argThat(user ->
@@ -0,0 +1,91 @@
+package com.example.library.config;
+
+import com.example.library.model.Book;
+import com.example.library.repository.BookRepository;
+import com.example.library.security.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Время этапов запроса: метрики и заголовок Server-Timing на полном приложении
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:monitoring;DB_CLOSE_DELAY=-1",
+        "monitoring.server-timing.enabled=true",
+        "jwt.stateless-principal=false",
+        "jwt.cache.enabled=false"
+})
+@AutoConfigureMockMvc
+class MonitoringConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    // Тест: ответ с JWT содержит время фильтров, этапов JWT фильтра и обработки запроса
+    @Test
+    void authenticatedRequest_ShouldReportAllStagesInServerTiming() throws Exception {
+        Book book = bookRepository.save(Book.builder()
+                .title("Monitoring").author("Author").isbn("MON-0001").build());
+        String token = jwtService.generateToken(userDetailsService.loadUserByUsername("reader"));
+
+        MvcResult result = mockMvc.perform(post("/api/books/{id}/borrow", book.getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String header = result.getResponse().getHeader("Server-Timing");
+        assertNotNull(header);
+        for (String stage : new String[]{"filter.JwtAuthenticationFilter", "filter.AuthorizationFilter",
+                "jwt.parse", "jwt.verify", "jwt.load", "controller", "service", "repository",
+                "serialization", "total"}) {
+            assertTrue(header.contains(stage + ";dur="), () -> stage + " missing in " + header);
+        }
+        // Тело ответа не теряется при буферизации
+        assertTrue(result.getResponse().getContentAsString().contains("\"title\":\"Monitoring\""));
+
+        Timer service = meterRegistry.find("http.server.stage")
+                .tags("stage", "service", "component", "BookService").timer();
+        assertNotNull(service);
+        assertTrue(service.count() > 0);
+        assertNotNull(meterRegistry.find("http.server.stage")
+                .tags("stage", "repository", "component", "BookRepository").timer());
+        assertNotNull(meterRegistry.find("security.filter").tag("filter", "JwtAuthenticationFilter").timer());
+        assertTrue(meterRegistry.get("security.jwt.stage").tag("stage", "verify").timer().count() > 0);
+    }
+
+    // Тест: каждый этап присутствует в заголовке один раз
+    @Test
+    void publicRequest_ShouldListEachStageOnce() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/books/public"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String header = result.getResponse().getHeader("Server-Timing");
+        assertNotNull(header);
+        assertEquals(1, header.split("(^|, )service;dur=", -1).length - 1);
+        // Анонимный маршрут: JWT фильтр токен не разбирает
+        assertFalse(header.contains("jwt."));
+    }
+}
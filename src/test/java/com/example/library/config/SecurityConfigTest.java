@@ -1,6 +1,12 @@
 package com.example.library.config;
 
 import com.example.library.security.JwtAuthenticationFilter;
+import com.example.library.security.LoginMetrics;
+import com.example.library.security.OffloadingPasswordEncoder;
+import com.example.library.security.PasswordEncoderCalibrator;
+import com.example.library.security.PasswordHashingExecutor;
+import com.example.library.security.RouteAuthorizationManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -12,12 +18,13 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.DefaultSecurityFilterChain;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -28,9 +35,15 @@ class SecurityConfigTest {
     private final JwtAuthenticationFilter jwtAuthFilter = mock(JwtAuthenticationFilter.class);
     private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
     private final AuthenticationConfiguration authConfig = mock(AuthenticationConfiguration.class);
+    private final PasswordHashingExecutor hashingExecutor = new PasswordHashingExecutor(
+            2, 8, Duration.ofSeconds(5), Duration.ofSeconds(1), new SimpleMeterRegistry());
+    private final PasswordEncoderCalibrator calibrator = new PasswordEncoderCalibrator(
+            "bcrypt", Duration.ZERO, 4, 1, 1024, 1000);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     // Тестируемый класс с внедренными зависимостями
-    private final SecurityConfig securityConfig = new SecurityConfig(jwtAuthFilter, userDetailsService);
+    private final SecurityConfig securityConfig = new SecurityConfig(jwtAuthFilter, userDetailsService, hashingExecutor, calibrator,
+            new LoginMetrics(meterRegistry), mock(RouteAuthorizationManager.class));
 
     @Test
     void securityFilterChain() throws Exception {
@@ -105,6 +118,10 @@ class SecurityConfigTest {
         assertThrows(Exception.class, () -> provider.authenticate(
                 new UsernamePasswordAuthenticationToken(username, "wrongPass")
         ));
+
+        // Время поиска пользователя и проверки пароля записано для обеих попыток
+        assertEquals(2, meterRegistry.get("security.login.stage").tag("stage", "lookup").timer().count());
+        assertEquals(2, meterRegistry.get("security.login.stage").tag("stage", "verify").timer().count());
     }
 
     @Test
@@ -132,9 +149,10 @@ class SecurityConfigTest {
 
         // Проверки:
         // - Кодировщик не должен быть null
-        // - Должен быть экземпляром BCryptPasswordEncoder
+        // - Кодировщик с префиксом алгоритма выполняется в отдельном пуле потоков
         assertNotNull(encoder);
-        assertTrue(encoder instanceof BCryptPasswordEncoder);
+        assertTrue(encoder instanceof OffloadingPasswordEncoder);
+        assertTrue(((OffloadingPasswordEncoder) encoder).getDelegate() instanceof DelegatingPasswordEncoder);
 
         // Тест кодирования пароля
         String rawPassword = "testPassword";
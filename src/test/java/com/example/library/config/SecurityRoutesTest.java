@@ -0,0 +1,79 @@
+package com.example.library.config;
+
+import com.example.library.security.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.net.URI;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Правила доступа к маршрутам на полном приложении (цепочка фильтров и диспетчер Spring MVC)
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:security-routes;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class SecurityRoutesTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    private String bearer(String username) {
+        return "Bearer " + jwtService.generateToken(userDetailsService.loadUserByUsername(username));
+    }
+
+    // Тест: читатель не получает маршруты администратора ни по обычному, ни по закодированному пути
+    @Test
+    void adminRoutes_WithPercentEncodedPath_ShouldBeForbiddenForReader() throws Exception {
+        String reader = bearer("reader");
+        for (String path : new String[]{"/actuator/metrics", "/%61ctuator/metrics", "/%61ctuator/loginthrottle",
+                "/api/%61dmin/users/bulk"}) {
+            mockMvc.perform(get(URI.create(path)).header("Authorization", reader))
+                    .andExpect(status().isForbidden());
+        }
+    }
+
+    // Тест: администратор получает те же маршруты по закодированному пути
+    @Test
+    void adminRoutes_WithPercentEncodedPath_ShouldBeAllowedForAdmin() throws Exception {
+        mockMvc.perform(get(URI.create("/%61ctuator/metrics")).header("Authorization", bearer("admin")))
+                .andExpect(status().isOk());
+    }
+
+    // Тест: проверка токенов недоступна анонимно и читателю, доступна учетной записи сервиса
+    @Test
+    void introspect_ShouldRequireServiceRole() throws Exception {
+        String body = "{\"tokens\": [\"" + jwtService.generateToken(userDetailsService.loadUserByUsername("reader"))
+                + "\"]}";
+
+        mockMvc.perform(post("/api/internal/introspect").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/internal/introspect").contentType(MediaType.APPLICATION_JSON).content(body)
+                        .header("Authorization", bearer("reader")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/internal/introspect").contentType(MediaType.APPLICATION_JSON).content(body)
+                        .header("Authorization", bearer("admin")))
+                .andExpect(status().isForbidden());
+        // Старый анонимный адрес больше не обслуживается
+        mockMvc.perform(post("/api/auth/introspect").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(post("/api/internal/introspect").contentType(MediaType.APPLICATION_JSON).content(body)
+                        .header("Authorization", bearer("gateway")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tokens[0].active").value(true))
+                .andExpect(jsonPath("$.tokens[0].subject").value("reader"));
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.library.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThreadingConfigTest {
+
+    private final TaskDecorator decorator =
+            new ThreadingConfig(new MockEnvironment()).securityContextTaskDecorator();
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    // Тест: задача в другом потоке видит пользователя, который ее запустил
+    @Test
+    void securityContextTaskDecorator_ShouldPropagateAuthentication() throws Exception {
+        Authentication reader = new UsernamePasswordAuthenticationToken("reader", null, List.of());
+        SecurityContextHolder.getContext().setAuthentication(reader);
+        AtomicReference<Authentication> seen = new AtomicReference<>();
+        Runnable task = decorator.decorate(() -> seen.set(SecurityContextHolder.getContext().getAuthentication()));
+
+        // Контекст вызывающего потока очищается до выполнения задачи (как по окончании запроса)
+        SecurityContextHolder.clearContext();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture.runAsync(task, executor).get();
+            // После задачи поток пула снова без контекста
+            CompletableFuture.runAsync(() -> assertNull(SecurityContextHolder.getContext().getAuthentication()),
+                    executor).get();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertSame(reader, seen.get());
+    }
+
+    // Тест: задача, запущенная без пользователя, выполняется анонимно
+    @Test
+    void securityContextTaskDecorator_WithoutAuthentication_ShouldRunAnonymously() {
+        AtomicReference<Authentication> seen = new AtomicReference<>(
+                new UsernamePasswordAuthenticationToken("stale", null));
+
+        decorator.decorate(() -> seen.set(SecurityContextHolder.getContext().getAuthentication())).run();
+
+        assertNull(seen.get());
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.library.controller;
+
+import com.example.library.dto.response.BulkUserResult;
+import com.example.library.service.UserProvisioningService;
+import com.example.library.service.UserProvisioningService.Format;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AdminUserControllerTest {
+
+    @Mock // Сервис массового создания пользователей
+    private UserProvisioningService provisioningService;
+
+    @Test
+    void provision_ShouldStreamOneNdjsonLinePerResult() throws Exception {
+        AdminUserController controller = new AdminUserController(provisioningService, new ObjectMapper());
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContent("username,email,password\n".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Сервис отдает два результата
+        doAnswer(invocation -> {
+            UserProvisioningService.ResultSink sink = invocation.getArgument(2);
+            sink.accept(BulkUserResult.builder().line(2).username("u1").status(BulkUserResult.Status.CREATED).build());
+            sink.accept(BulkUserResult.builder().line(3).username("u2").status(BulkUserResult.Status.DUPLICATE)
+                    .message("Username is already taken").build());
+            return Map.of();
+        }).when(provisioningService).provision(any(Reader.class), eq(Format.CSV), any());
+
+        controller.provision(MediaType.parseMediaType("text/csv; charset=UTF-8"), request, response);
+
+        assertEquals(MediaType.APPLICATION_NDJSON_VALUE, response.getContentType().split(";")[0]);
+        String[] lines = response.getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("{\"line\":2,\"username\":\"u1\",\"status\":\"CREATED\",\"message\":null}", lines[0]);
+        assertEquals("DUPLICATE", new ObjectMapper().readTree(lines[1]).get("status").asText());
+    }
+
+    @Test
+    void provision_NdjsonContentType_ShouldUseNdjsonFormat() throws Exception {
+        AdminUserController controller = new AdminUserController(provisioningService, new ObjectMapper());
+
+        controller.provision(MediaType.APPLICATION_NDJSON, new MockHttpServletRequest(), new MockHttpServletResponse());
+
+        verify(provisioningService).provision(any(Reader.class), eq(Format.NDJSON), any());
+    }
+}
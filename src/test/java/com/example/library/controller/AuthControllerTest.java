@@ -1,9 +1,15 @@
 package com.example.library.controller;
 
 import com.example.library.dto.request.LoginRequest;
+import com.example.library.dto.request.RefreshTokenRequest;
 import com.example.library.dto.request.RegisterRequest;
 import com.example.library.dto.response.AuthResponse;
+import com.example.library.dto.response.AvailabilityResponse;
+import com.example.library.exception.AuthenticationFailedException;
+import com.example.library.exception.TooManyRequestsException;
+import com.example.library.security.LoginRateLimiter;
 import com.example.library.service.AuthService;
+import com.example.library.service.UserAvailabilityService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -11,9 +17,18 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class) // Интеграция Mockito с JUnit 5
@@ -22,6 +37,15 @@ class AuthControllerTest {
     @Mock // Создаем mock-объект сервиса аутентификации
     private AuthService authService;
 
+    @Mock // Ограничение частоты входа
+    private LoginRateLimiter rateLimiter;
+
+    @Mock // Проверка занятых логинов и email
+    private UserAvailabilityService availabilityService;
+
+    // HTTP запрос с адресом клиента
+    private final MockHttpServletRequest httpRequest = new MockHttpServletRequest();
+
     @InjectMocks // Внедряем mock-зависимости в тестируемый контроллер
     private AuthController authController;
 
@@ -40,7 +64,7 @@ class AuthControllerTest {
         when(authService.register(request)).thenReturn(expectedResponse);
 
         // Вызов тестируемого метода
-        ResponseEntity<AuthResponse> response = authController.register(request);
+        ResponseEntity<AuthResponse> response = authController.register(request, httpRequest);
 
         // Проверки:
         // 1. Статус ответа должен быть OK (200)
@@ -65,7 +89,7 @@ class AuthControllerTest {
         when(authService.authenticate(request)).thenReturn(expectedResponse);
 
         // Вызов тестируемого метода
-        ResponseEntity<AuthResponse> response = authController.login(request);
+        ResponseEntity<AuthResponse> response = authController.login(request, httpRequest);
 
         // Проверки:
         // 1. Статус ответа должен быть OK (200)
@@ -74,5 +98,95 @@ class AuthControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(expectedResponse, response.getBody());
         verify(authService).authenticate(request);
+        verify(rateLimiter).check("testuser", "127.0.0.1");
+    }
+
+    @Test
+    void login_ShouldRejectBeforeAuthentication_WhenRateLimitExceeded() {
+        // Подготовка тестовых данных
+        LoginRequest request = new LoginRequest();
+        request.setUsername("testuser");
+        request.setPassword("password123");
+
+        // Лимит попыток исчерпан
+        doThrow(new TooManyRequestsException("limit", Duration.ofSeconds(10)))
+                .when(rateLimiter).check("testuser", "127.0.0.1");
+
+        // Проверки: запрос отклонен, сервис аутентификации (БД и BCrypt) не вызывался
+        assertThrows(TooManyRequestsException.class, () -> authController.login(request, httpRequest));
+        verifyNoInteractions(authService);
+    }
+
+    @Test
+    void refresh_ShouldReturnNewTokens() {
+        // Подготовка тестовых данных
+        RefreshTokenRequest request = new RefreshTokenRequest();
+        request.setRefreshToken("refresh-token");
+
+        AuthResponse expectedResponse = new AuthResponse();
+        expectedResponse.setToken("new-token");
+        expectedResponse.setRefreshToken("new-refresh-token");
+
+        when(authService.refresh(request)).thenReturn(expectedResponse);
+
+        // Вызов тестируемого метода
+        ResponseEntity<AuthResponse> response = authController.refresh(request);
+
+        // Проверки: статус OK и новая пара токенов в теле ответа
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(expectedResponse, response.getBody());
+        verify(authService).refresh(request);
+    }
+
+    @Test
+    void logout_ShouldRevokeBearerToken() {
+        // Вызов тестируемого метода с заголовком Authorization
+        ResponseEntity<Void> response = authController.logout("Bearer test-token");
+
+        // Проверки:
+        // 1. Статус ответа должен быть No Content (204)
+        // 2. Токен передан в сервис без префикса Bearer
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(authService).logout("test-token");
+    }
+
+    @Test
+    void logout_ShouldRejectMissingToken() {
+        // Без заголовка Authorization выход невозможен
+        assertThrows(AuthenticationFailedException.class, () -> authController.logout(null));
+    }
+
+    @Test
+    void availability_ShouldReportOnlyRequestedFields() {
+        when(availabilityService.isUsernameTaken("newuser")).thenReturn(false);
+
+        ResponseEntity<AvailabilityResponse> response = authController.availability("newuser", null, httpRequest);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("newuser", response.getBody().getUsername());
+        assertEquals(Boolean.TRUE, response.getBody().getUsernameAvailable());
+        assertNull(response.getBody().getEmailAvailable());
+        verify(availabilityService, never()).isEmailTaken(any());
+    }
+
+    @Test
+    void availability_ShouldReportTakenEmail() {
+        when(availabilityService.isEmailTaken("admin@library.com")).thenReturn(true);
+
+        ResponseEntity<AvailabilityResponse> response = authController.availability(null, "admin@library.com", httpRequest);
+
+        assertEquals(Boolean.FALSE, response.getBody().getEmailAvailable());
+        assertNull(response.getBody().getUsernameAvailable());
+    }
+
+    @Test
+    void availability_ShouldBeRateLimitedPerIp() {
+        httpRequest.setRemoteAddr("10.0.0.1");
+        doThrow(new TooManyRequestsException("limit", Duration.ofSeconds(1)))
+                .when(rateLimiter).checkAvailability("10.0.0.1");
+
+        assertThrows(TooManyRequestsException.class,
+                () -> authController.availability("admin", null, httpRequest));
+        verifyNoInteractions(availabilityService);
     }
-}
\ No newline at end of file
+}
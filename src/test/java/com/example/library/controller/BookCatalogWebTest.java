@@ -0,0 +1,49 @@
+package com.example.library.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Параметры постраничного вывода каталога на полном приложении (привязка параметров Spring MVC)
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:book-catalog-web;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class BookCatalogWebTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    // Тест: режимы total выбирают вид ответа, неизвестное значение - ошибка 400
+    @Test
+    void getAllBooks_ShouldBindTotalMode() throws Exception {
+        mockMvc.perform(get("/api/books/public").param("total", "exact"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").exists());
+        mockMvc.perform(get("/api/books/public").param("total", "approximate"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.approximateTotal").exists());
+        mockMvc.perform(get("/api/books/public").param("total", "none"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").exists())
+                .andExpect(jsonPath("$.approximateTotal").doesNotExist());
+
+        mockMvc.perform(get("/api/books/public").param("total", "aproximate"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Тест: наибольший размер страницы не приводит к ошибке сервера
+    @Test
+    void getAllBooks_ShouldClampHugePageSize() throws Exception {
+        mockMvc.perform(get("/api/books/public").param("total", "none")
+                        .param("size", String.valueOf(Integer.MAX_VALUE)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/books/public").param("total", "none").param("fields", "title")
+                        .param("size", String.valueOf(Integer.MAX_VALUE)))
+                .andExpect(status().isOk());
+    }
+}
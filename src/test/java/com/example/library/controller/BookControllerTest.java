@@ -1,6 +1,9 @@
 package com.example.library.controller;
 
 import com.example.library.dto.response.BookResponse;
+import com.example.library.dto.response.CatalogSlice;
+import com.example.library.dto.response.CursorPage;
+import com.example.library.dto.response.SearchPage;
 import com.example.library.service.BookService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,6 +18,8 @@ import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -41,7 +46,7 @@ class BookControllerTest {
         when(bookService.getAllBooks(page, size)).thenReturn(mockPage);
 
         // Вызов тестируемого метода
-        ResponseEntity<Page<BookResponse>> response = bookController.getAllBooks(page, size);
+        ResponseEntity<?> response = bookController.getAllBooks(page, size, null, BookController.Total.EXACT);
 
         // Проверки:
         // 1. Статус ответа должен быть OK (200)
@@ -52,6 +57,31 @@ class BookControllerTest {
         verify(bookService).getAllBooks(page, size);
     }
 
+    // Тест: total=approximate и total=none - страница без запроса count, с приблизительным числом книг и без него
+    @Test
+    void getAllBooks_WithoutExactTotal_ShouldReturnSlice() {
+        CatalogSlice<BookResponse> withTotal = new CatalogSlice<>(Collections.emptyList(), 0, 10, false, 2L);
+        CatalogSlice<BookResponse> withoutTotal = new CatalogSlice<>(Collections.emptyList(), 0, 10, false, null);
+        when(bookService.getBooksSlice(0, 10, true)).thenReturn(withTotal);
+        when(bookService.getBooksSlice(0, 10, false)).thenReturn(withoutTotal);
+
+        assertSame(withTotal, bookController.getAllBooks(0, 10, null, BookController.Total.APPROXIMATE).getBody());
+        assertSame(withoutTotal, bookController.getAllBooks(0, 10, null, BookController.Total.NONE).getBody());
+        verify(bookService, never()).getAllBooks(anyInt(), anyInt());
+    }
+
+    // Тест: каталог по курсору передает курсор и размер в сервис
+    @Test
+    void getBooksAfter_ShouldReturnCursorPage() {
+        CursorPage<BookResponse> mockPage = new CursorPage<>(Collections.emptyList(), 10, null);
+        when(bookService.getBooksAfter("cursor", 10)).thenReturn(mockPage);
+
+        ResponseEntity<CursorPage<BookResponse>> response = bookController.getBooksAfter("cursor", 10);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(mockPage, response.getBody());
+    }
+
     @Test
     void getBookById_ShouldReturnBook() {
         // Подготовка тестовых данных:
@@ -64,7 +94,7 @@ class BookControllerTest {
         when(bookService.getBookById(bookId)).thenReturn(mockResponse);
 
         // Вызов тестируемого метода
-        ResponseEntity<BookResponse> response = bookController.getBookById(bookId);
+        ResponseEntity<?> response = bookController.getBookById(bookId, null);
 
         // Проверки:
         // 1. Статус ответа должен быть OK (200)
@@ -75,6 +105,34 @@ class BookControllerTest {
         verify(bookService).getBookById(bookId);
     }
 
+    // Тест: с параметром fields контроллер запрашивает у сервиса только выбранные поля
+    @Test
+    void getBooks_WithFields_ShouldReturnSelectedFields() {
+        Page<Map<String, Object>> page = new PageImpl<>(List.of(Map.of("title", "Test Book")));
+        CatalogSlice<Map<String, Object>> slice = new CatalogSlice<>(List.of(), 0, 10, false, null);
+        Map<String, Object> book = Map.of("title", "Test Book");
+        when(bookService.getBookFields(0, 10, "title")).thenReturn(page);
+        when(bookService.getBookFieldsSlice(0, 10, "title", false)).thenReturn(slice);
+        when(bookService.getBookFieldsById(1L, "title")).thenReturn(book);
+
+        assertSame(page, bookController.getAllBooks(0, 10, "title", BookController.Total.EXACT).getBody());
+        assertSame(slice, bookController.getAllBooks(0, 10, "title", BookController.Total.NONE).getBody());
+        assertSame(book, bookController.getBookById(1L, "title").getBody());
+        verify(bookService, never()).getAllBooks(anyInt(), anyInt());
+    }
+
+    // Тест: поиск передает запрос и страницу в сервис
+    @Test
+    void searchBooks_ShouldReturnSearchPage() {
+        SearchPage<BookResponse> results = new SearchPage<>("мир", Collections.emptyList(), 0, 10, 0);
+        when(bookService.searchBooks("мир", 0, 10)).thenReturn(results);
+
+        ResponseEntity<SearchPage<BookResponse>> response = bookController.searchBooks("мир", 0, 10);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(results, response.getBody());
+    }
+
     @Test
     void borrowBook_ShouldReturnBorrowedBook() {
         // Подготовка тестовых данных:
@@ -0,0 +1,49 @@
+package com.example.library.controller;
+
+import com.example.library.security.JwtKeyRing;
+import com.example.library.security.JwtService;
+import com.example.library.security.SigningAlgorithm;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class) // Интеграция Mockito с JUnit 5
+class JwksControllerTest {
+
+    @Mock // Создаем mock-объект сервиса JWT
+    private JwtService jwtService;
+
+    @InjectMocks // Внедряем mock-зависимости в тестируемый контроллер
+    private JwksController jwksController;
+
+    @Test
+    void jwks_ShouldReturnPublicKeysWithCacheHeaders() {
+        // Подготовка тестовых данных
+        JwtKeyRing keyRing = JwtKeyRing.generate(SigningAlgorithm.EdDSA, Duration.ofHours(1));
+        ReflectionTestUtils.setField(jwksController, "maxAge", Duration.ofMinutes(5));
+        when(jwtService.getKeyRing()).thenReturn(keyRing);
+
+        // Вызов тестируемого метода
+        ResponseEntity<Map<String, List<?>>> response = jwksController.jwks();
+
+        // Проверки:
+        // 1. Статус ответа должен быть OK (200)
+        // 2. Ответ кэшируется клиентами
+        // 3. В наборе один активный ключ
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("max-age=300, public", response.getHeaders().getCacheControl());
+        assertEquals(1, response.getBody().get("keys").size());
+    }
+}
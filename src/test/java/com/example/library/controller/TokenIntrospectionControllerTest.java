@@ -0,0 +1,45 @@
+package com.example.library.controller;
+
+import com.example.library.dto.request.IntrospectRequest;
+import com.example.library.dto.response.IntrospectResponse;
+import com.example.library.dto.response.TokenIntrospection;
+import com.example.library.security.TokenIntrospectionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class) // Интеграция Mockito с JUnit 5
+class TokenIntrospectionControllerTest {
+
+    @Mock // Пакетная проверка токенов
+    private TokenIntrospectionService introspectionService;
+
+    @InjectMocks // Внедряем mock-зависимости в тестируемый контроллер
+    private TokenIntrospectionController controller;
+
+    // Тест: результаты для всех токенов, лимит считается по имени клиента
+    @Test
+    void introspect_ShouldReturnResultsForAllTokens() {
+        IntrospectRequest request = new IntrospectRequest();
+        request.setTokens(List.of("t1", "t2"));
+        List<TokenIntrospection> results = List.of(
+                new TokenIntrospection(true, "reader", "ROLE_READER", null), TokenIntrospection.INACTIVE);
+        when(introspectionService.introspect("gateway", List.of("t1", "t2"))).thenReturn(results);
+
+        ResponseEntity<IntrospectResponse> response = controller.introspect(request,
+                UsernamePasswordAuthenticationToken.authenticated("gateway", null, List.of()));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(results, response.getBody().getTokens());
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.library.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RetryAfterExceptionHandlerTest {
+
+    private final RetryAfterExceptionHandler handler = new RetryAfterExceptionHandler();
+
+    // Тест: перегрузка - 503 и Retry-After в секундах (с округлением вверх)
+    @Test
+    void handleOverloaded_ShouldReturn503WithRetryAfter() {
+        ResponseEntity<ProblemDetail> response = handler.handleOverloaded(
+                new ServiceOverloadedException("busy", Duration.ofMillis(1500)));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("busy", response.getBody().getDetail());
+    }
+
+    // Тест: превышение лимита - 429 и Retry-After
+    @Test
+    void handleTooManyRequests_ShouldReturn429WithRetryAfter() {
+        ResponseEntity<ProblemDetail> response = handler.handleTooManyRequests(
+                new TooManyRequestsException("slow down", Duration.ofSeconds(12)));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("12", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+}
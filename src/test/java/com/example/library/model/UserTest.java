@@ -64,6 +64,7 @@ class UserTest {
                 "encodedPassword",  // Пароль
                 "test@example.com",  // Email
                 Role.ROLE_READER,  // Роль читателя
+                0,  // Версия токенов
                 List.of()  // Пустой список книг
         );
 
@@ -0,0 +1,74 @@
+package com.example.library.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimedFilterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StageTimer timer = StageTimer.of(meterRegistry, "security.filter",
+            Tags.of("filter", "Test"), "test", "filter.Test");
+
+    // Тест: время следующих фильтров не входит в собственное время фильтра
+    @Test
+    void doFilter_ShouldExcludeDownstreamTime() throws Exception {
+        Filter delegate = (request, response, chain) -> chain.doFilter(request, response);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        RequestTimings timings = new RequestTimings();
+        request.setAttribute(RequestTimings.ATTRIBUTE, timings);
+
+        new TimedFilter(delegate, timer).doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> sleep(50));
+
+        Timer recorded = meterRegistry.get("security.filter").timer();
+        assertEquals(1, recorded.count());
+        assertTrue(recorded.totalTime(TimeUnit.MILLISECONDS) < 40, "downstream time leaked into filter time");
+        assertTrue(timings.toHeaderValue().startsWith("filter.Test;dur="));
+    }
+
+    // Тест: фильтр, не вызвавший цепочку (отказ в доступе), тоже замеряется
+    @Test
+    void doFilter_ShouldRecordFilterThatStopsChain() throws Exception {
+        Filter delegate = (request, response, chain) -> sleep(20);
+
+        new TimedFilter(delegate, timer).doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(),
+                (req, res) -> fail("chain must not be called"));
+
+        assertTrue(meterRegistry.get("security.filter").timer().totalTime(TimeUnit.MILLISECONDS) >= 20);
+    }
+
+    // Тест: вложенные вызовы этапа учитываются в заголовке один раз
+    @Test
+    void requestTimings_ShouldCountOnlyOutermostCall() {
+        RequestTimings timings = new RequestTimings();
+
+        assertTrue(timings.enter("service"));
+        assertFalse(timings.enter("service"));
+        timings.exit("service");
+        timings.exit("service");
+        assertTrue(timings.enter("service"));
+
+        timings.add("service", 1_500_000);
+        timings.add("service", 500_000);
+        timings.add("total", 3_000_000);
+        assertEquals("service;dur=2.000, total;dur=3.000", timings.toHeaderValue());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
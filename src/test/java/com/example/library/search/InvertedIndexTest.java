@@ -0,0 +1,126 @@
+package com.example.library.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    // Поля: название (вес 2), автор (вес 1)
+    private final InvertedIndex index = new InvertedIndex(2.0f, 1.0f);
+
+    private void put(long id, String title, String author) {
+        index.put(index.analyze(id, title, author));
+    }
+
+    private List<Long> ids(InvertedIndex.Hits hits) {
+        return hits.hits().stream().map(InvertedIndex.Hit::id).toList();
+    }
+
+    // Тест: совпадение в названии важнее совпадения в авторе, больше совпавших термов - выше
+    @Test
+    void search_ShouldRankByBm25WithFieldWeights() {
+        put(1, "Мир", "Иванов");
+        put(2, "Записки", "Мир Петров");
+        put(3, "Война и мир", "Лев Толстой");
+
+        assertEquals(List.of(1L, 3L, 2L), ids(index.search("мир", 0, 10)));
+        assertEquals(3L, ids(index.search("война мир", 0, 10)).get(0));
+        assertEquals(List.of(3L), ids(index.search("ТОЛСТОЙ", 0, 10)));
+    }
+
+    // Тест: редкий терм весит больше частого (idf)
+    @Test
+    void search_ShouldPreferRareTerms() {
+        put(1, "Идиот", "Достоевский");
+        put(2, "Бесы", "Достоевский");
+        put(3, "Бесы и идиот", "Автор");
+        put(4, "Дневник", "Достоевский");
+
+        assertEquals(3L, ids(index.search("достоевский бесы идиот", 0, 10)).get(0));
+        assertEquals(2L, ids(index.search("достоевский бесы", 0, 10)).get(0));
+    }
+
+    // Тест: терм от трех букв находит слова с этим началом, точное совпадение выше
+    @Test
+    void search_ShouldMatchPrefixes() {
+        put(1, "Достоевский", "");
+        put(2, "Дост", "");
+
+        assertEquals(List.of(2L, 1L), ids(index.search("дост", 0, 10)));
+        assertEquals(List.of(1L), ids(index.search("достоев", 0, 10)));
+        assertTrue(index.search("до", 0, 10).hits().isEmpty());
+    }
+
+    // Тест: страницы результатов и общее число найденных документов
+    @Test
+    void search_ShouldPage() {
+        for (int i = 1; i <= 5; i++) {
+            put(i, "Книга", "");
+        }
+
+        InvertedIndex.Hits first = index.search("книга", 0, 2);
+        InvertedIndex.Hits last = index.search("книга", 4, 2);
+
+        assertEquals(5, first.total());
+        assertEquals(List.of(1L, 2L), ids(first));
+        assertEquals(List.of(5L), ids(last));
+        assertTrue(index.search("книга", 10, 2).hits().isEmpty());
+        assertEquals(0, index.search("нет такой", 0, 2).total());
+        assertEquals(0, index.search("  ", 0, 2).total());
+    }
+
+    // Тест: слово, которое есть почти в каждом документе, не просматривается целиком - оно только
+    // поднимает документы, найденные по редким словам; запрос из одних частых слов ограничен пределом
+    @Test
+    void search_WithCommonTerm_ShouldScanBoundedNumberOfPostings() {
+        int count = InvertedIndex.MAX_SCANNED_POSTINGS + 100;
+        for (int i = 1; i <= count; i++) {
+            put(i, "Роман " + i, "Автор");
+        }
+        // Одинаковая длина: порядок определяет только частое слово
+        put(count + 1, "Редкий роман", "Автор");
+        put(count + 2, "Редкий", "Другой неизвестный писатель");
+
+        InvertedIndex.Hits rare = index.search("редкий роман", 0, 10);
+        assertEquals(List.of((long) count + 1, (long) count + 2), ids(rare));
+        assertEquals(2, rare.total());
+
+        InvertedIndex.Hits common = index.search("роман", 0, 10);
+        assertEquals(count + 1, common.total());
+        assertEquals(10, common.hits().size());
+    }
+
+    // Тест: повторное добавление заменяет документ, удаление убирает его из всех списков
+    @Test
+    void putAndRemove_ShouldUpdateIndex() {
+        put(1, "Старое название", "");
+        put(1, "Новое название", "");
+
+        assertTrue(index.search("старое", 0, 10).hits().isEmpty());
+        assertEquals(List.of(1L), ids(index.search("новое", 0, 10)));
+        assertEquals(1, index.size());
+
+        assertTrue(index.remove(1));
+        assertFalse(index.remove(1));
+        assertEquals(0, index.size());
+        assertTrue(index.search("название", 0, 10).hits().isEmpty());
+    }
+
+    // Тест: пакетное добавление пропускает документы по условию
+    @Test
+    void putAll_ShouldSkipDocuments() {
+        index.putAll(List.of(index.analyze(1, "Первая", ""), index.analyze(2, "Вторая", "")), id -> id == 2);
+
+        assertEquals(1, index.size());
+        assertTrue(index.search("вторая", 0, 10).hits().isEmpty());
+    }
+
+    // Тест: число полей документа должно совпадать с числом весов
+    @Test
+    void analyze_WithWrongFieldCount_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> index.analyze(1, "Только название"));
+    }
+}
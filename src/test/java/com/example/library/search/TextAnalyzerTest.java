@@ -0,0 +1,42 @@
+package com.example.library.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextAnalyzerTest {
+
+    // Тест: кириллица приводится к нижнему регистру, ё не отличается от е, знаки препинания разделяют термы
+    @Test
+    void analyze_ShouldNormalizeCyrillicText() {
+        assertEquals(List.of("война", "и", "мир"), TextAnalyzer.analyze("Война и мир"));
+        assertEquals(List.of("федор", "достоевский"), TextAnalyzer.analyze("Фёдор  Достоевский!"));
+        assertEquals(List.of("преступление", "и", "наказание"), TextAnalyzer.analyze("«Преступление» и наказание."));
+    }
+
+    // Тест: знак ударения и составные символы (NFKC) не мешают совпадению
+    @Test
+    void analyze_ShouldDropCombiningMarks() {
+        assertEquals(List.of("замок"), TextAnalyzer.analyze("За́мок"));
+        assertEquals(List.of("еж"), TextAnalyzer.analyze("ёж"));
+        assertEquals(List.of("file"), TextAnalyzer.analyze("ﬁle"));
+    }
+
+    // Тест: дефисы внутри ISBN не разделяют номер, дефис между словами - разделяет
+    @Test
+    void analyze_ShouldKeepIsbnAsSingleTerm() {
+        assertEquals(List.of("9785389062566"), TextAnalyzer.analyze("978-5-389-06256-6"));
+        assertEquals(List.of("isbn", "080442957x"), TextAnalyzer.analyze("ISBN 0-8044-2957-X"));
+        assertEquals(List.of("жар", "птица"), TextAnalyzer.analyze("Жар-птица"));
+    }
+
+    // Тест: пустой текст и текст без букв - нет термов; слишком длинный терм обрезается
+    @Test
+    void analyze_ShouldHandleEdgeCases() {
+        assertTrue(TextAnalyzer.analyze(null).isEmpty());
+        assertTrue(TextAnalyzer.analyze(" ,.- ").isEmpty());
+        assertEquals(TextAnalyzer.MAX_TERM_LENGTH, TextAnalyzer.analyze("я".repeat(100)).get(0).length());
+    }
+}
@@ -1,9 +1,13 @@
 package com.example.library.security;
 
+import com.example.library.exception.JwtValidationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
@@ -12,11 +16,19 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Instant;
 import java.util.Collections;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 // Используем Mockito для тестирования
@@ -31,6 +43,26 @@ class JwtAuthenticationFilterTest {
     @Mock
     private UserDetailsService userDetailsService;
 
+    // Мок кэша проверенных токенов
+    @Mock
+    private VerifiedTokenCache tokenCache;
+
+    // Мок таблицы версий токенов
+    @Mock
+    private TokenVersionRegistry tokenVersions;
+
+    // Мок сервиса отзыва токенов
+    @Mock
+    private TokenRevocationService revocationService;
+
+    // Мок классификатора маршрутов
+    @Mock
+    private RequestClassifier requestClassifier;
+
+    // Метрики этапов фильтра (настоящие, в простом реестре)
+    @Spy
+    private JwtFilterMetrics metrics = new JwtFilterMetrics(new SimpleMeterRegistry());
+
     // Мок HTTP запроса
     @Mock
     private HttpServletRequest request;
@@ -47,6 +79,12 @@ class JwtAuthenticationFilterTest {
     @InjectMocks
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    // Очищаем контекст безопасности после каждого теста
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
     // Тест: когда нет заголовка Authorization
     @Test
     void whenNoAuthorizationHeader_thenContinueFilterChain() throws Exception {
@@ -87,10 +125,12 @@ class JwtAuthenticationFilterTest {
         UserDetails userDetails = new User(userEmail, "", Collections.emptyList());
 
         // Настраиваем поведение моков:
+        VerifiedToken token = new VerifiedToken(userEmail, Instant.now().plusSeconds(60), List.of(), 0, null);
         when(request.getHeader("Authorization")).thenReturn("Bearer " + validJwt);
-        when(jwtService.extractUsername(validJwt)).thenReturn(userEmail);
+        when(jwtService.verifyToken(validJwt)).thenReturn(token);
+        when(tokenVersions.isCurrent(token)).thenReturn(true);
         when(userDetailsService.loadUserByUsername(userEmail)).thenReturn(userDetails);
-        when(jwtService.isTokenValid(validJwt, userDetails)).thenReturn(true);
+        when(jwtService.isTokenValid(token, userDetails)).thenReturn(true);
 
         // Выполняем фильтрацию
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -98,12 +138,37 @@ class JwtAuthenticationFilterTest {
         // Проверяем, что:
         // 1. Был вызван сервис загрузки пользователя
         verify(userDetailsService).loadUserByUsername(userEmail);
-        // 2. Был проверен токен
-        verify(jwtService).isTokenValid(validJwt, userDetails);
+        // 2. Токен был разобран ровно один раз
+        verify(jwtService, times(1)).verifyToken(validJwt);
+        verify(jwtService).isTokenValid(token, userDetails);
         // 3. Цепочка фильтров продолжена
         verify(filterChain).doFilter(request, response);
         // 4. Аутентификация установлена в SecurityContext
         assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        // 5. Проверенный токен сохранен в кэш
+        verify(tokenCache).put(validJwt, token, userDetails);
+    }
+
+    // Тест: токен найден в кэше проверенных токенов
+    @Test
+    void whenTokenCached_thenSkipJwtServiceAndUserLoading() throws Exception {
+        // Подготовка тестовых данных
+        String cachedJwt = "cached.jwt.token";
+        UserDetails userDetails = new User("user@example.com", "", Collections.emptyList());
+        VerifiedToken token = new VerifiedToken("user@example.com", Instant.now().plusSeconds(60), List.of(), 0, null);
+
+        // Настраиваем поведение моков: токен уже есть в кэше
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + cachedJwt);
+        when(tokenCache.get(cachedJwt)).thenReturn(new VerifiedTokenCache.Entry(token, userDetails));
+        when(tokenVersions.isCurrent(token)).thenReturn(true);
+
+        // Выполняем фильтрацию
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // Проверяем, что JwtService и БД не использовались, а пользователь восстановлен из кэша
+        verifyNoInteractions(jwtService, userDetailsService);
+        verify(filterChain).doFilter(request, response);
+        assertEquals(userDetails, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
     }
 
     // Тест: когда невалидный JWT токен
@@ -116,10 +181,12 @@ class JwtAuthenticationFilterTest {
         UserDetails userDetails = new User(userEmail, "", Collections.emptyList());
 
         // Настраиваем поведение моков:
+        VerifiedToken token = new VerifiedToken(userEmail, Instant.now().plusSeconds(60), List.of(), 0, null);
         when(request.getHeader("Authorization")).thenReturn("Bearer " + invalidJwt);
-        when(jwtService.extractUsername(invalidJwt)).thenReturn(userEmail);
+        when(jwtService.verifyToken(invalidJwt)).thenReturn(token);
+        when(tokenVersions.isCurrent(token)).thenReturn(true);
         when(userDetailsService.loadUserByUsername(userEmail)).thenReturn(userDetails);
-        when(jwtService.isTokenValid(invalidJwt, userDetails)).thenReturn(false);
+        when(jwtService.isTokenValid(token, userDetails)).thenReturn(false);
 
         // Выполняем фильтрацию
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -128,10 +195,101 @@ class JwtAuthenticationFilterTest {
         // 1. Был вызван сервис загрузки пользователя
         verify(userDetailsService).loadUserByUsername(userEmail);
         // 2. Был проверен токен
-        verify(jwtService).isTokenValid(invalidJwt, userDetails);
+        verify(jwtService).isTokenValid(token, userDetails);
         // 3. Цепочка фильтров продолжена
         verify(filterChain).doFilter(request, response);
         // 4. Аутентификация НЕ установлена в SecurityContext
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
-}
\ No newline at end of file
+
+    // Тест: когда подпись или формат токена неверны
+    @Test
+    void whenMalformedJwtToken_thenSkipUserLoading() throws Exception {
+        // Настраиваем поведение моков: разбор токена завершается ошибкой
+        when(request.getHeader("Authorization")).thenReturn("Bearer broken");
+        when(jwtService.verifyToken("broken")).thenThrow(new JwtValidationException("Invalid token"));
+
+        // Выполняем фильтрацию
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // Проверяем, что пользователь не загружался, а цепочка продолжена без аутентификации
+        verifyNoInteractions(userDetailsService);
+        verify(filterChain).doFilter(request, response);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    // Тест: stateless режим - пользователь восстанавливается из claims без БД
+    @Test
+    void whenStatelessPrincipal_thenAuthenticateFromClaims() throws Exception {
+        // Включаем stateless режим
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "statelessPrincipal", true);
+        String jwt = "stateless.jwt.token";
+        VerifiedToken token = new VerifiedToken("reader", Instant.now().plusSeconds(60), List.of("ROLE_READER"), 2, null);
+
+        // Настраиваем поведение моков
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + jwt);
+        when(jwtService.verifyToken(jwt)).thenReturn(token);
+        when(tokenVersions.isCurrent(token)).thenReturn(true);
+        when(jwtService.isTokenValid(eq(token), any(JwtPrincipal.class))).thenReturn(true);
+
+        // Выполняем фильтрацию
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // Проверяем, что БД не использовалась, а права взяты из токена
+        verifyNoInteractions(userDetailsService);
+        JwtPrincipal principal = (JwtPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        assertEquals("reader", principal.getUsername());
+        assertEquals(2, principal.getTokenVersion());
+        assertEquals("ROLE_READER", principal.getAuthorities().iterator().next().getAuthority());
+    }
+
+    // Тест: токен с устаревшей версией отклоняется без загрузки пользователя
+    @Test
+    void whenTokenVersionRevoked_thenContinueWithoutAuthentication() throws Exception {
+        String jwt = "old.jwt.token";
+        VerifiedToken token = new VerifiedToken("reader", Instant.now().plusSeconds(60), List.of("ROLE_READER"), 0, null);
+
+        // Настраиваем поведение моков: версия токена устарела
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + jwt);
+        when(jwtService.verifyToken(jwt)).thenReturn(token);
+        when(tokenVersions.isCurrent(token)).thenReturn(false);
+
+        // Выполняем фильтрацию
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // Проверяем, что аутентификация не установлена
+        verifyNoInteractions(userDetailsService);
+        verify(filterChain).doFilter(request, response);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    // Тест: явно отозванный токен не аутентифицирует запрос
+    @Test
+    void whenTokenRevoked_thenContinueWithoutAuthentication() throws Exception {
+        String jwt = "revoked.jwt.token";
+        VerifiedToken token = new VerifiedToken("reader", Instant.now().plusSeconds(60), List.of(), 0, "jti-1");
+
+        // Настраиваем поведение моков: токен отозван
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + jwt);
+        when(jwtService.verifyToken(jwt)).thenReturn(token);
+        when(tokenVersions.isCurrent(token)).thenReturn(true);
+        when(revocationService.isRevoked(token)).thenReturn(true);
+
+        // Выполняем фильтрацию
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // Проверяем, что аутентификация не установлена
+        verifyNoInteractions(userDetailsService);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    // Тест: на анонимных маршрутах фильтр не выполняется (токен не разбирается)
+    @Test
+    void shouldNotFilter_ShouldSkipAnonymousRoutes() {
+        when(requestClassifier.classify(request)).thenReturn(RouteClass.PUBLIC_CATALOG);
+        assertTrue(jwtAuthenticationFilter.shouldNotFilter(request));
+
+        when(requestClassifier.classify(request)).thenReturn(RouteClass.AUTHENTICATED);
+        assertFalse(jwtAuthenticationFilter.shouldNotFilter(request));
+    }
+}
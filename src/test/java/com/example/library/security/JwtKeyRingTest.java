@@ -0,0 +1,149 @@
+package com.example.library.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.security.PublicJwk;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtKeyRingTest {
+
+    // Изменяемые часы для проверки срока хранения старых ключей
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    // Заголовок JWS с указанным kid
+    private JwsHeader header(String kid) {
+        JwsHeader header = mock(JwsHeader.class);
+        when(header.getKeyId()).thenReturn(kid);
+        return header;
+    }
+
+    // Тест: после ротации старый ключ принимается до истечения срока хранения
+    @Test
+    void rotate_ShouldKeepPreviousKeyDuringRetention() {
+        MutableClock clock = new MutableClock();
+        JwtKeyRing keyRing = JwtKeyRing.generate(SigningAlgorithm.ES256, Duration.ofHours(1), clock);
+        JwtKeyRing.SigningKey first = keyRing.active();
+
+        JwtKeyRing.SigningKey second = keyRing.rotate();
+
+        assertNotEquals(first.kid(), second.kid());
+        assertEquals(second, keyRing.active());
+        assertEquals(first.verificationKey(), keyRing.locate(header(first.kid())));
+        assertEquals(2, keyRing.publicJwks().size());
+
+        // Срок хранения прошел - старый ключ больше не принимается
+        clock.now = clock.now.plus(Duration.ofHours(2));
+        assertNull(keyRing.locate(header(first.kid())));
+        assertEquals(second.verificationKey(), keyRing.locate(header(second.kid())));
+        assertEquals(1, keyRing.publicJwks().size());
+    }
+
+    // Тест: неизвестный kid не принимается
+    @Test
+    void locate_ShouldReturnNullForUnknownKid() {
+        JwtKeyRing keyRing = JwtKeyRing.generate(SigningAlgorithm.EdDSA, Duration.ofHours(1));
+
+        assertNull(keyRing.locate(header("unknown")));
+    }
+
+    // Тест: публичные ключи сериализуются в JWK без приватной части
+    @Test
+    void publicJwks_ShouldSerializeOnlyPublicParameters() throws Exception {
+        JwtKeyRing keyRing = JwtKeyRing.generate(SigningAlgorithm.ES256, Duration.ofHours(1));
+
+        List<PublicJwk<?>> jwks = keyRing.publicJwks();
+        String json = new ObjectMapper().writeValueAsString(Map.of("keys", jwks));
+
+        assertEquals(1, jwks.size());
+        assertTrue(json.contains("\"kid\":\"" + keyRing.active().kid() + "\""));
+        assertTrue(json.contains("\"kty\":\"EC\""));
+        assertFalse(json.contains("\"d\""));
+    }
+
+    // Тест: общий секрет HS256 никогда не публикуется
+    @Test
+    void publicJwks_ShouldBeEmptyForHmac() {
+        JwtKeyRing keyRing = JwtKeyRing.hmac(io.jsonwebtoken.Jwts.SIG.HS256.key().build());
+
+        assertTrue(keyRing.publicJwks().isEmpty());
+        assertThrows(IllegalStateException.class, keyRing::rotate);
+    }
+
+    // Тест: ключи из файла переживают перезапуск вместе с ротацией и сроком хранения старого ключа
+    @Test
+    void open_ShouldRestoreRotatedKeysAfterRestart(@TempDir Path directory) {
+        MutableClock clock = new MutableClock();
+        JwtKeyStore store = new JwtKeyStore(directory.resolve("keys.json"));
+        JwtKeyRing keyRing = JwtKeyRing.open(SigningAlgorithm.EdDSA, Duration.ofHours(1), store, clock);
+        JwtKeyRing.SigningKey first = keyRing.active();
+        JwtKeyRing.SigningKey second = keyRing.rotate();
+
+        // Перезапуск: тот же активный ключ, старый принимается до конца срока хранения
+        JwtKeyRing restarted = JwtKeyRing.open(SigningAlgorithm.EdDSA, Duration.ofHours(1), store, clock);
+        assertEquals(second.kid(), restarted.active().kid());
+        assertEquals(first.verificationKey(), restarted.locate(header(first.kid())));
+        assertEquals(2, restarted.publicJwks().size());
+
+        // После срока хранения старый ключ при загрузке отбрасывается
+        clock.now = clock.now.plus(Duration.ofHours(2));
+        JwtKeyRing later = JwtKeyRing.open(SigningAlgorithm.EdDSA, Duration.ofHours(1), store, clock);
+        assertNull(later.locate(header(first.kid())));
+        assertEquals(second.kid(), later.active().kid());
+    }
+
+    // Тест: экземпляр с общим файлом находит ключ, созданный ротацией на другом экземпляре
+    @Test
+    void locate_ShouldReloadStoreForKeyRotatedElsewhere(@TempDir Path directory) {
+        MutableClock clock = new MutableClock();
+        JwtKeyStore store = new JwtKeyStore(directory.resolve("keys.json"));
+        JwtKeyRing rotating = JwtKeyRing.open(SigningAlgorithm.ES256, Duration.ofHours(1), store, clock);
+        JwtKeyRing other = JwtKeyRing.open(SigningAlgorithm.ES256, Duration.ofHours(1), store, clock);
+        assertEquals(rotating.active().kid(), other.active().kid());
+
+        JwtKeyRing.SigningKey rotated = rotating.rotate();
+
+        assertEquals(rotated.verificationKey(), other.locate(header(rotated.kid())));
+        assertEquals(rotated.kid(), other.active().kid());
+    }
+
+    // Тест: поврежденный файл ключей - ошибка, а не молчаливая замена ключей
+    @Test
+    void open_ShouldFailOnUnreadableStore(@TempDir Path directory) throws Exception {
+        Path path = directory.resolve("keys.json");
+        Files.writeString(path, "{\"algorithm\":\"ES256\",\"keys\":[{\"kid\":\"x\",\"privateKey\":\"AAAA\","
+                + "\"publicKey\":\"AAAA\",\"validUntil\":null}]}");
+
+        assertThrows(IllegalStateException.class,
+                () -> JwtKeyRing.open(SigningAlgorithm.ES256, Duration.ofHours(1), path));
+    }
+}
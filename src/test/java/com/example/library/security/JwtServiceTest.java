@@ -3,10 +3,16 @@ package com.example.library.security;
 import com.example.library.exception.JwtValidationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class JwtServiceTest {
@@ -32,6 +38,7 @@ class JwtServiceTest {
         // Устанавливаем приватные поля через ReflectionTestUtils
         ReflectionTestUtils.setField(jwtService, "secretKey", SECRET_KEY);
         ReflectionTestUtils.setField(jwtService, "expirationTime", EXPIRATION_TIME);
+        jwtService.init();
 
         // Создаем тестового пользователя
         userDetails = User.withUsername("test@example.com")
@@ -48,6 +55,17 @@ class JwtServiceTest {
         assertFalse(token.isEmpty());
     }
 
+    // Тест проверки без исключения: недействительный токен - null
+    @Test
+    void tryVerifyToken_ShouldReturnNullInsteadOfThrowing() {
+        String token = jwtService.generateToken(userDetails);
+
+        assertEquals("test@example.com", jwtService.tryVerifyToken(token).subject());
+        assertNull(jwtService.tryVerifyToken(token.substring(0, token.length() - 2)));
+        assertNull(jwtService.tryVerifyToken("not-a-jwt"));
+        assertNull(jwtService.tryVerifyToken(null));
+    }
+
     // Тест извлечения имени пользователя из токена
     @Test
     void extractUsername_ShouldReturnCorrectUsername() {
@@ -102,6 +120,281 @@ class JwtServiceTest {
         // Устанавливаем неверный ключ
         ReflectionTestUtils.setField(jwtService, "secretKey", "invalid-key");
         assertThrows(JwtValidationException.class,
-                () -> jwtService.generateToken(userDetails));
+                () -> jwtService.init());
+    }
+
+    // Тест однократного разбора: из одного токена получаем имя, срок и роли
+    @Test
+    void verifyToken_ShouldReturnSubjectExpirationAndRoles() {
+        String token = jwtService.generateToken(userDetails);
+
+        VerifiedToken verified = jwtService.verifyToken(token);
+
+        assertEquals("test@example.com", verified.subject());
+        assertNotNull(verified.expiresAt());
+        assertEquals(java.util.List.of("ROLE_USER"), verified.roles());
+        assertTrue(jwtService.isTokenValid(verified, userDetails));
+    }
+
+    // Тест проверки токена, подписанного другим ключом
+    @Test
+    void verifyToken_ShouldThrowForForeignSignature() {
+        JwtService otherService = new JwtService();
+        ReflectionTestUtils.setField(otherService, "secretKey",
+                "b3RoZXIgc2VjcmV0IGtleSBmb3IgSldUIHRva2VuIGdlbmVyYXRpb24gdGVzdHM=");
+        ReflectionTestUtils.setField(otherService, "expirationTime", EXPIRATION_TIME);
+        otherService.init();
+        String foreignToken = otherService.generateToken(userDetails);
+
+        assertThrows(JwtValidationException.class, () -> jwtService.verifyToken(foreignToken));
+    }
+
+    // Тест: версия токенов пользователя попадает в claim v и проверяется
+    @Test
+    void isTokenValid_ShouldReturnFalse_WhenTokenVersionIsOutdated() {
+        com.example.library.model.User user = com.example.library.model.User.builder()
+                .username("reader")
+                .password("password")
+                .role(com.example.library.model.Role.ROLE_READER)
+                .tokenVersion(3)
+                .build();
+        String token = jwtService.generateToken(user);
+
+        assertEquals(3, jwtService.verifyToken(token).version());
+        assertTrue(jwtService.isTokenValid(token, user));
+
+        // После отзыва токенов версия пользователя увеличилась
+        user.setTokenVersion(4);
+        assertFalse(jwtService.isTokenValid(token, user));
+    }
+
+    // Тест: подпись и проверка асимметричными алгоритмами, токен содержит kid
+    @ParameterizedTest
+    @EnumSource(value = SigningAlgorithm.class, names = {"ES256", "EdDSA"})
+    void verifyToken_ShouldWorkWithAsymmetricAlgorithms(SigningAlgorithm algorithm) {
+        ReflectionTestUtils.setField(jwtService, "algorithm", algorithm);
+        jwtService.init();
+
+        String token = jwtService.generateToken(userDetails);
+
+        assertEquals("test@example.com", jwtService.verifyToken(token).subject());
+        String header = new String(java.util.Base64.getUrlDecoder().decode(token.split("\\.")[0]));
+        assertTrue(header.contains("\"kid\":\"" + jwtService.getKeyRing().active().kid() + "\""));
+    }
+
+    // Тест: после ротации ключей ранее выданный токен остается действительным
+    @Test
+    void rotateKeys_ShouldKeepPreviouslyIssuedTokensValid() {
+        ReflectionTestUtils.setField(jwtService, "algorithm", SigningAlgorithm.ES256);
+        jwtService.init();
+        String oldToken = jwtService.generateToken(userDetails);
+
+        jwtService.rotateKeys();
+        String newToken = jwtService.generateToken(userDetails);
+
+        assertTrue(jwtService.isTokenValid(oldToken, userDetails));
+        assertTrue(jwtService.isTokenValid(newToken, userDetails));
+    }
+
+    // Тест: с файлом ключей токен, выданный до перезапуска, проверяется новым экземпляром
+    @Test
+    void init_WithKeyStore_ShouldAcceptTokensIssuedBeforeRestart(@TempDir Path directory) {
+        String store = directory.resolve("jwt-keys.json").toString();
+        ReflectionTestUtils.setField(jwtService, "algorithm", SigningAlgorithm.ES256);
+        ReflectionTestUtils.setField(jwtService, "keyStore", store);
+        jwtService.init();
+        jwtService.rotateKeys();
+        String token = jwtService.generateToken(userDetails);
+
+        JwtService restarted = new JwtService();
+        ReflectionTestUtils.setField(restarted, "secretKey", SECRET_KEY);
+        ReflectionTestUtils.setField(restarted, "expirationTime", 60_000L);
+        ReflectionTestUtils.setField(restarted, "algorithm", SigningAlgorithm.ES256);
+        ReflectionTestUtils.setField(restarted, "keyStore", store);
+        restarted.init();
+
+        assertTrue(restarted.isTokenValid(token, userDetails));
+        assertEquals(jwtService.getKeyRing().active().kid(), restarted.getKeyRing().active().kid());
+    }
+
+    // Тест: ротация по расписанию для общего секрета HS256 - ошибка настройки при старте
+    @Test
+    void init_WithRotationForHmac_ShouldFail() {
+        ReflectionTestUtils.setField(jwtService, "rotationCron", "0 0 * * * *");
+
+        assertThrows(IllegalStateException.class, jwtService::init);
+    }
+
+    // Тест: компактная схема claims - код роли вместо списка объектов прав
+    @Test
+    void generateToken_ShouldUseCompactClaims() {
+        com.example.library.model.User user = com.example.library.model.User.builder()
+                .id(42L)
+                .username("reader")
+                .password("password")
+                .role(com.example.library.model.Role.ROLE_READER)
+                .build();
+
+        String payload = payloadOf(jwtService.generateToken(user));
+
+        assertTrue(payload.contains("\"r\":\"R\""));
+        assertFalse(payload.contains("\"role\""));
+        assertFalse(payload.contains("authority"));
+        // Нулевая версия и uid (выключен по умолчанию) не пишутся
+        assertFalse(payload.contains("\"v\""));
+        assertFalse(payload.contains("\"uid\""));
+    }
+
+    // Тест: claim uid добавляется, если включен
+    @Test
+    void generateToken_ShouldIncludeUserId_WhenEnabled() {
+        ReflectionTestUtils.setField(jwtService, "includeUserId", true);
+        com.example.library.model.User user = com.example.library.model.User.builder()
+                .id(42L)
+                .username("reader")
+                .password("password")
+                .role(com.example.library.model.Role.ROLE_READER)
+                .build();
+
+        assertTrue(payloadOf(jwtService.generateToken(user)).contains("\"uid\":42"));
+    }
+
+    // Тест: код роли разбирается в общий список прав роли (без новых объектов)
+    @Test
+    void verifyToken_ShouldDecodeRoleCodeToSharedAuthorities() {
+        UserSnapshot user = UserSnapshot.of(com.example.library.model.User.builder()
+                .id(1L)
+                .username("admin")
+                .password("password")
+                .role(com.example.library.model.Role.ROLE_ADMIN)
+                .build());
+
+        VerifiedToken verified = jwtService.verifyToken(jwtService.generateToken(user));
+
+        assertEquals(java.util.List.of("ROLE_ADMIN"), verified.roles());
+        assertSame(com.example.library.model.Role.ROLE_ADMIN.getAuthorities(),
+                JwtPrincipal.from(verified).getAuthorities());
+    }
+
+    // Тест: токены прежнего формата (role и ver) по-прежнему принимаются
+    @Test
+    void verifyToken_ShouldAcceptLegacyClaims() {
+        String token = jwtService.generateToken(java.util.Map.of(
+                "role", java.util.List.of(java.util.Map.of("authority", "ROLE_READER")),
+                "ver", 2), userDetails);
+
+        VerifiedToken verified = jwtService.verifyToken(token);
+
+        assertEquals(java.util.List.of("ROLE_READER"), verified.roles());
+        assertEquals(2, verified.version());
+    }
+
+    // Тест: облегченная проверка HS256 дает тот же результат, что и разбор через jjwt
+    @Test
+    void tryVerifyToken_ShouldMatchVerifyToken() {
+        com.example.library.model.User admin = com.example.library.model.User.builder()
+                .username("admin")
+                .role(com.example.library.model.Role.ROLE_ADMIN)
+                .tokenVersion(3)
+                .build();
+        String current = jwtService.generateToken(admin);
+        String legacy = jwtService.generateToken(java.util.Map.of(
+                "role", java.util.List.of(java.util.Map.of("authority", "ROLE_READER")),
+                "ver", 2), userDetails);
+
+        assertEquals(jwtService.verifyToken(current), jwtService.tryVerifyToken(current));
+        assertEquals(jwtService.verifyToken(legacy), jwtService.tryVerifyToken(legacy));
+    }
+
+    // Тест: облегченная проверка отклоняет истекшие и измененные токены
+    @Test
+    void tryVerifyToken_ShouldRejectExpiredAndTamperedTokens() {
+        String token = jwtService.generateToken(userDetails);
+        String[] parts = token.split("\\.");
+        String forgedPayload = java.util.Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"sub\":\"admin\",\"r\":\"A\"}".getBytes());
+        ReflectionTestUtils.setField(jwtService, "expirationTime", -1000L);
+        String expired = jwtService.generateToken(userDetails);
+
+        assertNull(jwtService.tryVerifyToken(parts[0] + "." + forgedPayload + "." + parts[2]));
+        assertNull(jwtService.tryVerifyToken(token + ".extra"));
+        assertNull(jwtService.tryVerifyToken(expired));
+    }
+
+    // Тест: облегченная проверка и jjwt одинаково отклоняют токены с чужим alg, crit, zip и будущим nbf
+    @Test
+    void tryVerifyToken_ShouldRejectSameHeadersAndClaimsAsVerifyToken() throws Exception {
+        long now = java.time.Instant.now().getEpochSecond();
+        String claims = "{\"sub\":\"test@example.com\",\"exp\":" + (now + 600) + "}";
+        String valid = signHs256("{\"alg\":\"HS256\",\"typ\":\"JWT\"}", claims);
+        assertEquals(jwtService.verifyToken(valid), jwtService.tryVerifyToken(valid));
+
+        String[] rejected = {
+                signHs256("{\"alg\":\"HS512\"}", claims),
+                signHs256("{\"alg\":\"none\"}", claims),
+                signHs256("{\"typ\":\"JWT\"}", claims),
+                signHs256("{\"alg\":\"HS256\",\"crit\":[\"x\"],\"x\":1}", claims),
+                signHs256("{\"alg\":\"HS256\",\"zip\":\"DEF\"}", claims),
+                signHs256("\"HS256\"", claims),
+                signHs256("{\"alg\":\"HS256\"}",
+                        "{\"sub\":\"test@example.com\",\"nbf\":" + (now + 300) + ",\"exp\":" + (now + 600) + "}")
+        };
+        for (String token : rejected) {
+            assertThrows(JwtValidationException.class, () -> jwtService.verifyToken(token), token);
+            assertNull(jwtService.tryVerifyToken(token), token);
+        }
+    }
+
+    // Токен из заданных заголовка и claims, подписанный HS256 тестовым секретом
+    private static String signHs256(String header, String claims) throws Exception {
+        java.util.Base64.Encoder encoder = java.util.Base64.getUrlEncoder().withoutPadding();
+        String signingInput = encoder.encodeToString(header.getBytes()) + "." + encoder.encodeToString(claims.getBytes());
+        javax.crypto.Mac mac = javax.crypto.Mac.getInstance("HmacSHA256");
+        mac.init(new javax.crypto.spec.SecretKeySpec(java.util.Base64.getDecoder().decode(SECRET_KEY), "HmacSHA256"));
+        return signingInput + "." + encoder.encodeToString(mac.doFinal(signingInput.getBytes()));
+    }
+
+    // Тест: размер токена укладывается в бюджет по умолчанию для всех алгоритмов
+    @ParameterizedTest
+    @EnumSource(SigningAlgorithm.class)
+    void generateToken_ShouldFitSizeBudget(SigningAlgorithm algorithm) {
+        ReflectionTestUtils.setField(jwtService, "algorithm", algorithm);
+        ReflectionTestUtils.setField(jwtService, "sizeBudget", 512);
+        ReflectionTestUtils.setField(jwtService, "strictSizeBudget", true);
+        jwtService.init();
+        UserSnapshot user = UserSnapshot.of(com.example.library.model.User.builder()
+                .id(1L)
+                .username("a-rather-long-username-of-fifty-characters-maximum")
+                .password("password")
+                .role(com.example.library.model.Role.ROLE_READER)
+                .tokenVersion(1000)
+                .build());
+
+        assertTrue(jwtService.generateToken(user).length() <= 512);
+    }
+
+    // Тест: в строгом режиме превышение бюджета размера - ошибка выпуска токена
+    @Test
+    void generateToken_ShouldFail_WhenSizeBudgetExceededInStrictMode() {
+        ReflectionTestUtils.setField(jwtService, "sizeBudget", 64);
+        ReflectionTestUtils.setField(jwtService, "strictSizeBudget", true);
+
+        assertThrows(IllegalStateException.class, () -> jwtService.generateToken(userDetails));
+    }
+
+    // Тест: по умолчанию превышение бюджета не мешает входу - токен выпускается
+    @Test
+    void generateToken_ShouldIssueToken_WhenSizeBudgetExceeded() {
+        ReflectionTestUtils.setField(jwtService, "sizeBudget", 64);
+
+        String token = jwtService.generateToken(userDetails);
+
+        assertTrue(token.length() > 64);
+        assertEquals("test@example.com", jwtService.extractUsername(token));
+    }
+
+    // Декодированная полезная нагрузка токена (JSON)
+    private static String payloadOf(String token) {
+        return new String(java.util.Base64.getUrlDecoder().decode(token.split("\\.")[1]));
     }
-}
\ No newline at end of file
+}
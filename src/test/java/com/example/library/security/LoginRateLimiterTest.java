@@ -0,0 +1,112 @@
+package com.example.library.security;
+
+import com.example.library.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong();
+
+    // 2 попытки на имя пользователя, 3 на IP и 4 проверки занятости с IP в минуту
+    private LoginRateLimiter limiter(boolean enabled) {
+        return new LoginRateLimiter(enabled, 2, Duration.ofMinutes(1), 3, Duration.ofMinutes(1),
+                4, Duration.ofMinutes(1), 1000, Duration.ofMinutes(10), meterRegistry, now::get);
+    }
+
+    // Тест: лимит по имени пользователя (без учета регистра)
+    @Test
+    void check_ShouldLimitAttemptsPerUsername() {
+        LoginRateLimiter limiter = limiter(true);
+
+        limiter.check("reader", "10.0.0.1");
+        limiter.check("READER", "10.0.0.2");
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+                () -> limiter.check("reader", "10.0.0.3"));
+
+        assertEquals(Duration.ofSeconds(30), e.getRetryAfter());
+        // Другой пользователь не затронут
+        assertDoesNotThrow(() -> limiter.check("admin", "10.0.0.4"));
+    }
+
+    // Тест: лимит по IP для разных имен пользователей
+    @Test
+    void check_ShouldLimitAttemptsPerIp() {
+        LoginRateLimiter limiter = limiter(true);
+
+        limiter.check("user1", "10.0.0.1");
+        limiter.check("user2", "10.0.0.1");
+        limiter.check("user3", "10.0.0.1");
+
+        assertThrows(TooManyRequestsException.class, () -> limiter.check("user4", "10.0.0.1"));
+        assertEquals(1.0, meterRegistry.get(LoginRateLimiter.METRIC_NAME)
+                .tag("scope", "ip").tag("result", "rejected").counter().count());
+    }
+
+    // Тест: проверки занятости ограничены по IP отдельно от попыток входа
+    @Test
+    void checkAvailability_ShouldLimitPerIpIndependentlyOfLogin() {
+        LoginRateLimiter limiter = limiter(true);
+        for (int i = 0; i < 4; i++) {
+            limiter.checkAvailability("10.0.0.1");
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> limiter.checkAvailability("10.0.0.1"));
+        assertDoesNotThrow(() -> limiter.checkAvailability("10.0.0.2"));
+        // Попытки входа с того же IP не израсходованы
+        assertDoesNotThrow(() -> limiter.check("reader", "10.0.0.1"));
+        assertEquals(1.0, meterRegistry.get(LoginRateLimiter.METRIC_NAME)
+                .tag("scope", "availability").tag("result", "rejected").counter().count());
+    }
+
+    // Тест: попытки восстанавливаются со временем
+    @Test
+    void check_ShouldAllowAgainAfterRefill() {
+        LoginRateLimiter limiter = limiter(true);
+        limiter.check("reader", "10.0.0.1");
+        limiter.check("reader", "10.0.0.1");
+        assertThrows(TooManyRequestsException.class, () -> limiter.check("reader", "10.0.0.1"));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        assertDoesNotThrow(() -> limiter.check("reader", "10.0.0.1"));
+    }
+
+    // Тест: счетчики по ключам для выгрузки
+    @Test
+    void topRejected_ShouldReturnPerKeyCounters() {
+        LoginRateLimiter limiter = limiter(true);
+        for (int i = 0; i < 4; i++) {
+            try {
+                limiter.check("reader", "10.0.0." + i);
+            } catch (TooManyRequestsException ignored) {
+                // ожидаемо после двух попыток
+            }
+        }
+
+        List<LoginRateLimiter.KeyStats> stats = limiter.topRejected(LoginRateLimiter.Scope.USERNAME, 10);
+
+        assertEquals(1, stats.size());
+        assertEquals(new LoginRateLimiter.KeyStats("reader", 2, 2, 0), stats.get(0));
+        assertEquals(4, limiter.trackedKeys(LoginRateLimiter.Scope.IP));
+    }
+
+    // Тест: выключенный лимит ничего не ограничивает
+    @Test
+    void check_ShouldDoNothing_WhenDisabled() {
+        LoginRateLimiter limiter = limiter(false);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.check("reader", "10.0.0.1");
+        }
+        assertEquals(0, limiter.trackedKeys(LoginRateLimiter.Scope.USERNAME));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.library.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordEncoderCalibratorTest {
+
+    // Минимальные параметры, чтобы тесты выполнялись быстро
+    private static PasswordEncoder encoder(String algorithm, Duration target) {
+        return new PasswordEncoderCalibrator(algorithm, target, 4, 1, 1024, 1000).create();
+    }
+
+    // Тест: хэш выбранного алгоритма с префиксом, пароль проверяется
+    @ParameterizedTest
+    @ValueSource(strings = {"bcrypt", "argon2", "pbkdf2"})
+    void create_ShouldEncodeWithSelectedAlgorithm(String algorithm) {
+        PasswordEncoder encoder = encoder(algorithm, Duration.ofMillis(2));
+
+        String hash = encoder.encode("secret");
+
+        assertTrue(hash.startsWith("{" + algorithm + "}"));
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertFalse(encoder.upgradeEncoding(hash));
+    }
+
+    // Тест: хэш другого алгоритма проверяется и помечается для перехэширования
+    @Test
+    void create_ShouldUpgradeHashesOfOtherAlgorithm() {
+        String bcryptHash = encoder("bcrypt", Duration.ZERO).encode("secret");
+        PasswordEncoder argon2 = encoder("argon2", Duration.ZERO);
+
+        assertTrue(argon2.matches("secret", bcryptHash));
+        assertTrue(argon2.upgradeEncoding(bcryptHash));
+    }
+
+    // Тест: BCrypt хэши без префикса (хранившиеся раньше) проверяются и перехэшируются
+    @Test
+    void create_ShouldAcceptLegacyBcryptHashes() {
+        String legacyHash = new BCryptPasswordEncoder(4).encode("secret");
+        PasswordEncoder encoder = encoder("bcrypt", Duration.ZERO);
+
+        assertTrue(encoder.matches("secret", legacyHash));
+        assertTrue(encoder.upgradeEncoding(legacyHash));
+    }
+
+    // Тест: калибровка не опускает стоимость ниже минимальной
+    @Test
+    void create_ShouldNotGoBelowMinimumCost() {
+        String hash = encoder("bcrypt", Duration.ofNanos(1)).encode("secret");
+
+        assertTrue(hash.startsWith("{bcrypt}$2a$04$"));
+    }
+
+    // Тест: хэш с меньшей стоимостью, чем текущая, перехэшируется
+    @Test
+    void create_ShouldUpgradeWeakerBcryptHashes() {
+        String weakHash = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret");
+        PasswordEncoder encoder = new PasswordEncoderCalibrator("bcrypt", Duration.ZERO, 5, 1, 1024, 1000).create();
+
+        assertTrue(encoder.upgradeEncoding(weakHash));
+    }
+
+    // Тест: неизвестный алгоритм - ошибка конфигурации
+    @Test
+    void create_ShouldRejectUnknownAlgorithm() {
+        assertThrows(IllegalStateException.class, () -> encoder("md5", Duration.ZERO));
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.library.security;
+
+import com.example.library.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newFixedThreadPool(2);
+    private PasswordHashingExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    // Тест: операция выполняется в пуле, время записывается в метрику
+    @Test
+    void execute_ShouldRunTaskInPool() {
+        executor = new PasswordHashingExecutor(1, 1, Duration.ofSeconds(5), Duration.ofSeconds(1), meterRegistry);
+
+        String thread = executor.execute("encode", () -> Thread.currentThread().getName());
+
+        assertTrue(thread.startsWith("password-hashing-"));
+        assertEquals(1, meterRegistry.get(PasswordHashingExecutor.METRIC_NAME)
+                .tag("operation", "encode").timer().count());
+    }
+
+    // Тест: при заполненной очереди запрос сразу отклоняется
+    @Test
+    void execute_ShouldRejectWhenQueueIsFull() throws Exception {
+        executor = new PasswordHashingExecutor(1, 1, Duration.ofSeconds(5), Duration.ofSeconds(2), meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Занимаем единственный поток и единственное место в очереди
+        callers.submit(() -> executor.execute("matches", () -> {
+            started.countDown();
+            await(release);
+            return true;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        callers.submit(() -> executor.execute("matches", () -> true));
+        waitForQueueDepth(1);
+
+        ServiceOverloadedException e = assertThrows(ServiceOverloadedException.class,
+                () -> executor.execute("matches", () -> true));
+        assertEquals(Duration.ofSeconds(2), e.getRetryAfter());
+        assertEquals(1.0, meterRegistry.get(PasswordHashingExecutor.METRIC_NAME + ".rejected").counter().count());
+        release.countDown();
+    }
+
+    // Тест: слишком долгое ожидание результата тоже считается перегрузкой
+    @Test
+    void execute_ShouldRejectOnTimeout() {
+        executor = new PasswordHashingExecutor(1, 1, Duration.ofMillis(50), Duration.ofSeconds(1), meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+
+        assertThrows(ServiceOverloadedException.class, () -> executor.execute("encode", () -> {
+            await(release);
+            return "hash";
+        }));
+        release.countDown();
+    }
+
+    // Тест: исключение задачи передается вызывающему без обертки
+    @Test
+    void execute_ShouldPropagateTaskException() {
+        executor = new PasswordHashingExecutor(1, 1, Duration.ofSeconds(5), Duration.ofSeconds(1), meterRegistry);
+
+        assertThrows(IllegalArgumentException.class, () -> executor.execute("encode", () -> {
+            throw new IllegalArgumentException("bad hash");
+        }));
+    }
+
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.queueDepth() < depth && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(depth, executor.queueDepth());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
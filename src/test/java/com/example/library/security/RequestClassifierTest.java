@@ -0,0 +1,91 @@
+package com.example.library.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RequestClassifierTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestClassifier classifier = new RequestClassifier(meterRegistry);
+
+    // Тест: пути классифицируются так же, как их обрабатывали requestMatchers
+    @ParameterizedTest
+    @CsvSource({
+            "/swagger-ui.html, PUBLIC_STATIC",
+            "/swagger-ui/index.html, PUBLIC_STATIC",
+            "/v3/api-docs, PUBLIC_STATIC",
+            "/v3/api-docs/swagger-config, PUBLIC_STATIC",
+            "/swagger-resources, PUBLIC_STATIC",
+            "/webjars/swagger-ui/4.0/swagger-ui.css, PUBLIC_STATIC",
+            "/h2-console, PUBLIC_STATIC",
+            "/favicon.ico, PUBLIC_STATIC",
+            "/.well-known/jwks.json, PUBLIC_STATIC",
+            "/error, PUBLIC_STATIC",
+            "/api/auth/login, AUTH",
+            "/api/auth/refresh, AUTH",
+            "/api/books/public, PUBLIC_CATALOG",
+            "/api/books/public/42, PUBLIC_CATALOG",
+            "/api/books/public/, PUBLIC_CATALOG",
+            "/api/admin/books, ADMIN",
+            "/actuator/metrics/jvm.memory.used, ADMIN",
+            "/api/reader/books, READER",
+            "/api/internal/introspect, INTERNAL",
+            "/api/books/1, AUTHENTICATED",
+            "/api/books, AUTHENTICATED",
+            "/, AUTHENTICATED",
+            "/favicon.ico/extra, AUTHENTICATED",
+            "/error/details, AUTHENTICATED",
+            "/api/authx/login, AUTHENTICATED"
+    })
+    void classify_ShouldMatchRouteTable(String path, RouteClass expected) {
+        assertEquals(expected, classifier.classify(path));
+    }
+
+    // Тест: класс запроса вычисляется один раз и учитывается в метриках
+    @Test
+    void classify_ShouldCacheResultInRequestAndCount() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/library/api/books/public/1");
+        request.setContextPath("/library");
+
+        assertEquals(RouteClass.PUBLIC_CATALOG, classifier.classify(request));
+        assertEquals(RouteClass.PUBLIC_CATALOG, classifier.classify(request));
+
+        assertEquals(1.0, meterRegistry.get(RequestClassifier.METRIC_NAME)
+                .tag("class", "public_catalog").counter().count());
+    }
+
+    // Тест: закодированные символы, параметры сегмента и повторные "/" не уводят путь из защищенного
+    // класса (Spring MVC выбирает контроллер по декодированному пути)
+    @ParameterizedTest
+    @CsvSource({
+            "/%61ctuator/metrics, ADMIN",
+            "/%61ctuator/loginthrottle, ADMIN",
+            "/api/%61dmin/users/bulk, ADMIN",
+            "/api/admin%2Fusers, ADMIN",
+            "/actuator;x=1/metrics, ADMIN",
+            "//api//admin/books, ADMIN",
+            "/api/r%65ader/books, READER",
+            "/api/books/%70ublic/1, PUBLIC_CATALOG"
+    })
+    void classify_ShouldUseDecodedPath(String uri, RouteClass expected) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+
+        assertEquals(expected, classifier.classify(request));
+    }
+
+    // Тест: после перенаправления на страницу ошибки запрос классифицируется заново
+    @Test
+    void classify_ShouldReclassifyWhenUriChanges() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/1");
+        assertEquals(RouteClass.AUTHENTICATED, classifier.classify(request));
+
+        request.setRequestURI("/error");
+
+        assertEquals(RouteClass.PUBLIC_STATIC, classifier.classify(request));
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.library.security;
+
+import com.example.library.model.Role;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoleAuthorizationManagerTest {
+
+    private final Authentication anonymous = new AnonymousAuthenticationToken(
+            "key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+    private final Authentication reader = UsernamePasswordAuthenticationToken.authenticated(
+            "reader", null, Role.ROLE_READER.getAuthorities());
+    private final Authentication admin = UsernamePasswordAuthenticationToken.authenticated(
+            "admin", null, Role.ROLE_ADMIN.getAuthorities());
+
+    // Сервис с правилами на методах и на классе
+    static class Library {
+
+        @RequireRole(Role.ROLE_READER)
+        public String borrow() {
+            return "borrowed";
+        }
+
+        @RequireRole(Role.ROLE_ADMIN)
+        public String provision() {
+            return "provisioned";
+        }
+
+        public String catalog() {
+            return "catalog";
+        }
+    }
+
+    @RequireRole(Role.ROLE_ADMIN)
+    static class AdminOnly {
+
+        public String report() {
+            return "report";
+        }
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    // Тест: иерархия ролей разворачивается в плоские наборы
+    @Test
+    void role_ShouldResolveHierarchy() {
+        assertEquals(EnumSet.of(Role.ROLE_ADMIN, Role.ROLE_READER), Role.ROLE_ADMIN.getReachableRoles());
+        assertEquals(EnumSet.of(Role.ROLE_READER), Role.ROLE_READER.getReachableRoles());
+        assertTrue(Role.ROLE_ADMIN.includes(Role.ROLE_READER));
+        assertFalse(Role.ROLE_READER.includes(Role.ROLE_ADMIN));
+        // Собственные права роли не меняются (роль в токене - одна)
+        assertEquals(1, Role.ROLE_ADMIN.getAuthorities().size());
+    }
+
+    // Тест: проверка роли с учетом иерархии
+    @Test
+    void hasRole_ShouldGrantRoleAndRolesIncludingIt() {
+        RoleAuthorizationManager<Object> readerRule = RoleAuthorizationManager.hasRole(Role.ROLE_READER);
+        RoleAuthorizationManager<Object> adminRule = RoleAuthorizationManager.hasRole(Role.ROLE_ADMIN);
+
+        assertTrue(readerRule.check(() -> reader, null).isGranted());
+        assertTrue(readerRule.check(() -> admin, null).isGranted());
+        assertFalse(adminRule.check(() -> reader, null).isGranted());
+        assertTrue(adminRule.check(() -> admin, null).isGranted());
+        assertFalse(readerRule.check(() -> anonymous, null).isGranted());
+        assertFalse(readerRule.check(() -> null, null).isGranted());
+        // Менеджер роли - общий экземпляр
+        assertSame(readerRule, RoleAuthorizationManager.hasRole(Role.ROLE_READER));
+    }
+
+    // Тест: перехватчик @RequireRole на методах и классе
+    @Test
+    void interceptor_ShouldEnforceRequireRole() {
+        Library library = proxy(new Library());
+        AdminOnly adminOnly = proxy(new AdminOnly());
+
+        SecurityContextHolder.getContext().setAuthentication(reader);
+        assertEquals("borrowed", library.borrow());
+        assertEquals("catalog", library.catalog());
+        assertThrows(AccessDeniedException.class, library::provision);
+        assertThrows(AccessDeniedException.class, adminOnly::report);
+
+        SecurityContextHolder.getContext().setAuthentication(admin);
+        assertEquals("borrowed", library.borrow());
+        assertEquals("provisioned", library.provision());
+        assertEquals("report", adminOnly.report());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(T target) {
+        ProxyFactory factory = new ProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAdvisor(RequireRoleAuthorizationManager.interceptor());
+        return (T) factory.getProxy();
+    }
+}
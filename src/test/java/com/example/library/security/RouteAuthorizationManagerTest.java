@@ -0,0 +1,66 @@
+package com.example.library.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteAuthorizationManagerTest {
+
+    private final RouteAuthorizationManager manager =
+            new RouteAuthorizationManager(new RequestClassifier(new SimpleMeterRegistry()));
+
+    private final Authentication anonymous = new AnonymousAuthenticationToken(
+            "key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+    private final Authentication reader = UsernamePasswordAuthenticationToken.authenticated(
+            "reader", null, AuthorityUtils.createAuthorityList("ROLE_READER"));
+    private final Authentication admin = UsernamePasswordAuthenticationToken.authenticated(
+            "admin", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN"));
+    private final Authentication service = UsernamePasswordAuthenticationToken.authenticated(
+            "gateway", null, AuthorityUtils.createAuthorityList("ROLE_SERVICE"));
+
+    // Тест: публичные маршруты доступны анонимно
+    @Test
+    void check_ShouldPermitPublicRoutes() {
+        assertTrue(granted(anonymous, "/api/books/public/1"));
+        assertTrue(granted(anonymous, "/api/auth/login"));
+        assertTrue(granted(anonymous, "/swagger-ui/index.html"));
+    }
+
+    // Тест: остальные маршруты требуют аутентификации
+    @Test
+    void check_ShouldRequireAuthentication() {
+        assertFalse(granted(anonymous, "/api/books/1"));
+        assertTrue(granted(reader, "/api/books/1"));
+    }
+
+    // Тест: маршруты ролей
+    @Test
+    void check_ShouldRequireRoles() {
+        assertFalse(granted(reader, "/api/admin/books"));
+        assertTrue(granted(admin, "/api/admin/books"));
+        assertFalse(granted(reader, "/actuator/metrics"));
+        assertTrue(granted(admin, "/actuator/metrics"));
+        assertTrue(granted(reader, "/api/reader/books"));
+        // ADMIN включает READER (иерархия ролей)
+        assertTrue(granted(admin, "/api/reader/books"));
+        // Внутренние маршруты - только SERVICE (ADMIN ее не включает)
+        assertFalse(granted(anonymous, "/api/internal/introspect"));
+        assertFalse(granted(reader, "/api/internal/introspect"));
+        assertFalse(granted(admin, "/api/internal/introspect"));
+        assertTrue(granted(service, "/api/internal/introspect"));
+        assertFalse(granted(service, "/api/reader/books"));
+    }
+
+    private boolean granted(Authentication authentication, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        return manager.check(() -> authentication, new RequestAuthorizationContext(request)).isGranted();
+    }
+}
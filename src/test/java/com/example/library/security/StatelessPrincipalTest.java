@@ -0,0 +1,50 @@
+package com.example.library.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Stateless режим на полном приложении: права из claims, отзыв - через версию токенов
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stateless-principal;DB_CLOSE_DELAY=-1",
+        "jwt.stateless-principal=true",
+        "jwt.cache.enabled=true"
+})
+@AutoConfigureMockMvc
+class StatelessPrincipalTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersions;
+
+    // Тест: после отзыва токенов пользователя (смена роли или пароля) старый токен не принимается,
+    // в том числе из кэша проверенных токенов; новый токен с новой версией принимается
+    @Test
+    void revokeAllTokens_ShouldRejectTokenIssuedBefore() throws Exception {
+        String oldToken = jwtService.generateToken(userDetailsService.loadUserByUsername("admin"));
+        mockMvc.perform(get("/actuator/metrics").header("Authorization", "Bearer " + oldToken))
+                .andExpect(status().isOk());
+
+        tokenVersions.revokeAllTokens("admin");
+
+        mockMvc.perform(get("/actuator/metrics").header("Authorization", "Bearer " + oldToken))
+                .andExpect(status().isForbidden());
+        String newToken = jwtService.generateToken(userDetailsService.loadUserByUsername("admin"));
+        mockMvc.perform(get("/actuator/metrics").header("Authorization", "Bearer " + newToken))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.library.security;
+
+import com.example.library.dto.response.TokenIntrospection;
+import com.example.library.exception.BatchTooLargeException;
+import com.example.library.exception.TooManyRequestsException;
+import com.example.library.model.Role;
+import com.example.library.model.User;
+import com.example.library.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+// Подключаем поддержку Mockito для тестов
+@ExtendWith(MockitoExtension.class)
+class TokenIntrospectionServiceTest {
+
+    // Мок хранилища отозванных токенов
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private JwtService jwtService;
+    private TokenRevocationService revocationService;
+    private TokenIntrospectionService introspectionService;
+    private UserSnapshot reader;
+    private final AtomicLong clock = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", "VGhpcyBpcyBhIHNlY3JldCBrZXkgZm9yIEpXVCB0b2tlbiBnZW5lcmF0aW9u");
+        ReflectionTestUtils.setField(jwtService, "expirationTime", 60_000L);
+        jwtService.init();
+
+        VerifiedTokenCache tokenCache = new VerifiedTokenCache(true, 100, Duration.ofMinutes(1), meterRegistry);
+        TokenVersionRegistry tokenVersions = new TokenVersionRegistry(null, tokenCache, event -> { });
+        revocationService = new TokenRevocationService(revokedTokenRepository, 1000, 0.01, meterRegistry);
+        // Порог 4: пакеты от 4 токенов проверяются параллельно; лимит - 200 токенов в минуту на клиента
+        introspectionService = new TokenIntrospectionService(jwtService, tokenCache, tokenVersions,
+                revocationService, 100, 4, 200, Duration.ofMinutes(1), meterRegistry, clock::get);
+
+        reader = UserSnapshot.of(User.builder()
+                .id(1L)
+                .username("reader")
+                .password("hash")
+                .role(Role.ROLE_READER)
+                .build());
+    }
+
+    // Тест: действительный токен возвращает пользователя, роль и срок действия
+    @Test
+    void introspect_ShouldDescribeValidToken() {
+        String token = jwtService.generateToken(reader);
+
+        TokenIntrospection result = introspectionService.introspect("gateway", List.of(token)).get(0);
+
+        assertTrue(result.isActive());
+        assertEquals("reader", result.getSubject());
+        assertEquals("ROLE_READER", result.getRole());
+        assertNotNull(result.getExpiresAt());
+    }
+
+    // Тест: недействительные токены получают общий результат без исключения
+    @Test
+    void introspect_ShouldReturnInactive_ForMalformedTokens() {
+        List<TokenIntrospection> results = introspectionService.introspect("gateway", Arrays.asList("garbage", "", null));
+
+        assertEquals(3, results.size());
+        results.forEach(result -> assertSame(TokenIntrospection.INACTIVE, result));
+    }
+
+    // Тест: отозванный токен неактивен
+    @Test
+    void introspect_ShouldReturnInactive_ForRevokedToken() {
+        String token = jwtService.generateToken(reader);
+        VerifiedToken verified = jwtService.verifyToken(token);
+        when(revokedTokenRepository.existsById(verified.id())).thenReturn(false, true);
+        revocationService.revoke(verified);
+
+        assertFalse(introspectionService.introspect("gateway", List.of(token)).get(0).isActive());
+    }
+
+    // Тест: параллельная проверка сохраняет порядок токенов
+    @Test
+    void introspect_LargeBatch_ShouldKeepOrder() {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            tokens.add(i % 2 == 0 ? jwtService.generateToken(reader) : "invalid-" + i);
+        }
+
+        List<TokenIntrospection> results = introspectionService.introspect("gateway", tokens);
+
+        for (int i = 0; i < tokens.size(); i++) {
+            assertEquals(i % 2 == 0, results.get(i).isActive(), "token " + i);
+        }
+    }
+
+    // Тест: пакет больше лимита отклоняется
+    @Test
+    void introspect_ShouldRejectTooLargeBatch() {
+        List<String> tokens = Collections.nCopies(101, "token");
+
+        assertThrows(BatchTooLargeException.class, () -> introspectionService.introspect("gateway", tokens));
+    }
+
+    // Тест: клиент проверяет не больше лимита токенов за период, лимит у каждого клиента свой
+    @Test
+    void introspect_ShouldLimitTokensPerClient() {
+        List<String> batch = Collections.nCopies(100, "token");
+        introspectionService.introspect("gateway", batch);
+        introspectionService.introspect("gateway", batch);
+
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+                () -> introspectionService.introspect("gateway", List.of("token")));
+        assertTrue(exception.getRetryAfter().toMillis() > 0);
+        assertEquals(1, introspectionService.introspect("billing", List.of("token")).size());
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        assertEquals(100, introspectionService.introspect("gateway", batch).size());
+    }
+
+    // Тест: лимит за период не может быть меньше размера пакета
+    @Test
+    void constructor_ShouldRejectRateLimitBelowBatchSize() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenIntrospectionService(jwtService,
+                null, null, revocationService, 100, 4, 50, Duration.ofMinutes(1),
+                new SimpleMeterRegistry(), clock::get));
+    }
+}
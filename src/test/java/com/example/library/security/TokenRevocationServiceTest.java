@@ -0,0 +1,160 @@
+package com.example.library.security;
+
+import com.example.library.model.RevokedToken;
+import com.example.library.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+// Подключаем поддержку Mockito для тестов
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    // Мок точного хранилища отозванных токенов
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    // Тестируемый сервис
+    private TokenRevocationService revocationService;
+
+    @BeforeEach
+    void setUp() {
+        revocationService = new TokenRevocationService(revokedTokenRepository, 1000, 0.01, new SimpleMeterRegistry());
+    }
+
+    // Токен с указанным jti
+    private VerifiedToken token(String jti) {
+        return new VerifiedToken("reader", Instant.now().plusSeconds(60), List.of(), 0, jti);
+    }
+
+    // Тест: неотозванный токен проверяется без обращения к БД
+    @Test
+    void isRevoked_ShouldNotQueryDatabase_ForTokensNotInFilter() {
+        assertFalse(revocationService.isRevoked(token("active-jti")));
+
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    // Тест: отозванный токен подтверждается в точном хранилище
+    @Test
+    void revoke_ShouldStoreTokenAndReportItAsRevoked() {
+        VerifiedToken token = token("revoked-jti");
+        when(revokedTokenRepository.existsById("revoked-jti")).thenReturn(false, true);
+
+        revocationService.revoke(token);
+
+        verify(revokedTokenRepository).save(new RevokedToken("revoked-jti", token.expiresAt()));
+        assertTrue(revocationService.isRevoked(token));
+    }
+
+    // Тест: после удаления истекших записей фильтр пересобирается только по действующим
+    @Test
+    void purgeExpired_ShouldRebuildFilterFromActiveRevocations() {
+        when(revokedTokenRepository.existsById(any())).thenReturn(false);
+        revocationService.revoke(token("expired-jti"));
+        when(revokedTokenRepository.deleteExpired(any())).thenReturn(1);
+        when(revokedTokenRepository.streamActiveJtis(any())).thenReturn(Stream.of("still-revoked"));
+
+        revocationService.purgeExpired();
+
+        // Истекший jti больше не попадает в фильтр - БД не запрашивается
+        clearInvocations(revokedTokenRepository);
+        assertFalse(revocationService.isRevoked(token("expired-jti")));
+        verify(revokedTokenRepository, never()).existsById("expired-jti");
+    }
+
+    // Тест: токены без jti (выданные до появления отзыва) не считаются отозванными
+    @Test
+    void isRevoked_ShouldReturnFalse_ForTokenWithoutJti() {
+        assertFalse(revocationService.isRevoked(token(null)));
+        assertThrows(IllegalArgumentException.class, () -> revocationService.revoke(token(null)));
+    }
+
+    // Тест: отзыв, зафиксированный уже после того, как пересборка прочитала БД, не теряется
+    @Test
+    void revoke_ShouldSurviveRebuild_WhenCommittedAfterRebuildReadDatabase() {
+        VerifiedToken token = token("late-commit-jti");
+        when(revokedTokenRepository.existsById("late-commit-jti")).thenReturn(false, true);
+        when(revokedTokenRepository.streamActiveJtis(any())).thenReturn(Stream.empty());
+
+        // Отзыв в транзакции: запись еще не зафиксирована, пересборка ее не видит
+        revokeInTransaction(token, revocationService::rebuildFilter);
+
+        assertTrue(revocationService.isRevoked(token));
+    }
+
+    // Тест: при параллельных отзывах и пересборках ни один отзыв не теряется
+    @Test
+    void revoke_ShouldNotLoseTokens_WhenRebuildRunsConcurrently() throws Exception {
+        // БД: видны только зафиксированные отзывы
+        Set<String> committed = ConcurrentHashMap.newKeySet();
+        when(revokedTokenRepository.existsById(any()))
+                .thenAnswer(invocation -> committed.contains(invocation.<String>getArgument(0)));
+        when(revokedTokenRepository.streamActiveJtis(any()))
+                .thenAnswer(invocation -> List.copyOf(committed).stream());
+
+        ExecutorService pool = Executors.newFixedThreadPool(5);
+        AtomicBoolean done = new AtomicBoolean();
+        try {
+            Future<?> rebuilds = pool.submit(() -> {
+                while (!done.get()) {
+                    revocationService.rebuildFilter();
+                }
+            });
+            List<Future<?>> revocations = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                int base = thread * 500;
+                revocations.add(pool.submit(() -> {
+                    for (int i = base; i < base + 500; i++) {
+                        VerifiedToken token = token("jti-" + i);
+                        revokeInTransaction(token, () -> committed.add(token.id()));
+                    }
+                }));
+            }
+            for (Future<?> revocation : revocations) {
+                revocation.get();
+            }
+            done.set(true);
+            rebuilds.get();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            assertTrue(revocationService.isRevoked(token("jti-" + i)), "jti-" + i);
+        }
+    }
+
+    // Отзыв внутри транзакции: beforeCommit выполняется до фиксации, затем срабатывает afterCommit
+    private void revokeInTransaction(VerifiedToken token, Runnable beforeCommit) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            revocationService.revoke(token);
+            beforeCommit.run();
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
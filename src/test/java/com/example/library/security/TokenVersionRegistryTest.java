@@ -0,0 +1,69 @@
+package com.example.library.security;
+
+import com.example.library.repository.UserRepository;
+import com.example.library.service.UserChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Подключаем поддержку Mockito для тестов
+@ExtendWith(MockitoExtension.class)
+class TokenVersionRegistryTest {
+
+    // Мок репозитория пользователей
+    @Mock
+    private UserRepository userRepository;
+
+    // Мок кэша проверенных токенов
+    @Mock
+    private VerifiedTokenCache tokenCache;
+
+    // Мок публикатора событий
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    // Тестируемая таблица версий
+    @InjectMocks
+    private TokenVersionRegistry registry;
+
+    // Тест: версии загружаются из БД при старте
+    @Test
+    void load_ShouldRememberChangedVersions() {
+        UserRepository.TokenVersionView view = mock(UserRepository.TokenVersionView.class);
+        when(view.getUsername()).thenReturn("reader");
+        when(view.getTokenVersion()).thenReturn(2);
+        when(userRepository.findChangedTokenVersions()).thenReturn(List.of(view));
+
+        registry.load();
+
+        assertEquals(2, registry.currentVersion("reader"));
+        assertEquals(0, registry.currentVersion("admin"));
+    }
+
+    // Тест: отзыв токенов увеличивает версию и делает старые токены недействительными
+    @Test
+    void revokeAllTokens_ShouldRejectOlderTokens() {
+        when(userRepository.findTokenVersion("reader")).thenReturn(Optional.of(1));
+        VerifiedToken oldToken = new VerifiedToken("reader", Instant.now().plusSeconds(60), List.of(), 0, null);
+        VerifiedToken newToken = new VerifiedToken("reader", Instant.now().plusSeconds(60), List.of(), 1, null);
+
+        assertTrue(registry.isCurrent(oldToken));
+        registry.revokeAllTokens("reader");
+
+        verify(userRepository).incrementTokenVersion("reader");
+        verify(tokenCache).invalidateAll();
+        verify(eventPublisher).publishEvent(new UserChangedEvent("reader"));
+        assertFalse(registry.isCurrent(oldToken));
+        assertTrue(registry.isCurrent(newToken));
+    }
+}
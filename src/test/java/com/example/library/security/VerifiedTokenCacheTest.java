@@ -0,0 +1,124 @@
+package com.example.library.security;
+
+import com.example.library.service.UserChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    // Тестовый пользователь
+    private final UserDetails userDetails = new User("reader", "", Collections.emptyList());
+
+    // Создание кэша с заданными параметрами
+    private VerifiedTokenCache createCache(boolean enabled, long maxSize, Duration maxTtl) {
+        return new VerifiedTokenCache(enabled, maxSize, maxTtl, new SimpleMeterRegistry());
+    }
+
+    // Тест: сохраненный токен находится в кэше, статистика учитывает попадание и промах
+    @Test
+    void get_ShouldReturnCachedEntry_AndRecordHitsAndMisses() {
+        VerifiedTokenCache cache = createCache(true, 100, Duration.ofMinutes(10));
+        VerifiedToken token = new VerifiedToken("reader", Instant.now().plusSeconds(60), List.of("ROLE_READER"), 0, null);
+
+        assertNull(cache.get("token-a"));
+        cache.put("token-a", token, userDetails);
+        VerifiedTokenCache.Entry entry = cache.get("token-a");
+
+        assertNotNull(entry);
+        assertEquals(token, entry.token());
+        assertEquals(userDetails, entry.principal());
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+    }
+
+    // Тест: запись не переживает срок действия самого токена
+    @Test
+    void get_ShouldNotReturnEntry_AfterTokenExpiration() throws InterruptedException {
+        VerifiedTokenCache cache = createCache(true, 100, Duration.ofMinutes(10));
+        VerifiedToken token = new VerifiedToken("reader", Instant.now().plusMillis(20), List.of(), 0, null);
+
+        cache.put("short-lived", token, userDetails);
+        Thread.sleep(50);
+
+        assertNull(cache.get("short-lived"));
+    }
+
+    // Тест: запись живет не дольше max-ttl, даже если токен еще действителен
+    @Test
+    void get_ShouldNotReturnEntry_AfterMaxTtl() throws InterruptedException {
+        VerifiedTokenCache cache = createCache(true, 100, Duration.ofMillis(20));
+        VerifiedToken token = new VerifiedToken("reader", Instant.now().plusSeconds(3600), List.of(), 0, null);
+
+        cache.put("long-lived", token, userDetails);
+        Thread.sleep(50);
+
+        assertNull(cache.get("long-lived"));
+    }
+
+    // Тест: выключенный кэш ничего не хранит
+    @Test
+    void get_ShouldReturnNull_WhenCacheDisabled() {
+        VerifiedTokenCache cache = createCache(false, 100, Duration.ofMinutes(10));
+        VerifiedToken token = new VerifiedToken("reader", Instant.now().plusSeconds(60), List.of(), 0, null);
+
+        cache.put("token-a", token, userDetails);
+
+        assertNull(cache.get("token-a"));
+    }
+
+    // Тест: удаление токена из кэша
+    @Test
+    void invalidate_ShouldRemoveEntry() {
+        VerifiedTokenCache cache = createCache(true, 100, Duration.ofMinutes(10));
+        VerifiedToken token = new VerifiedToken("reader", Instant.now().plusSeconds(60), List.of(), 0, null);
+
+        cache.put("token-a", token, userDetails);
+        cache.invalidate("token-a");
+
+        assertNull(cache.get("token-a"));
+    }
+
+    // Тест: изменение пользователя удаляет только его токены
+    @Test
+    void onUserChanged_ShouldInvalidateOnlyTokensOfThatUser() {
+        VerifiedTokenCache cache = createCache(true, 100, Duration.ofMinutes(10));
+        Instant expiresAt = Instant.now().plusSeconds(60);
+        cache.put("reader-token-1", new VerifiedToken("reader", expiresAt, List.of(), 0, null), userDetails);
+        cache.put("reader-token-2", new VerifiedToken("reader", expiresAt, List.of(), 0, null), userDetails);
+        cache.put("admin-token", new VerifiedToken("admin", expiresAt, List.of(), 0, null), userDetails);
+
+        cache.onUserChanged(new UserChangedEvent("reader"));
+
+        assertNull(cache.get("reader-token-1"));
+        assertNull(cache.get("reader-token-2"));
+        assertNotNull(cache.get("admin-token"));
+    }
+
+    // Тест: индекс пользователя очищается при удалении и вытеснении записей
+    @Test
+    void index_ShouldNotKeepKeysOfRemovedEntries() {
+        VerifiedTokenCache cache = createCache(true, 1, Duration.ofMinutes(10));
+        Instant expiresAt = Instant.now().plusSeconds(60);
+        cache.put("reader-token", new VerifiedToken("reader", expiresAt, List.of(), 0, null), userDetails);
+        assertEquals(1, cache.indexedKeys("reader"));
+
+        cache.invalidate("reader-token");
+        assertEquals(0, cache.indexedKeys("reader"));
+
+        // При max-size=1 одна из двух записей вытесняется вместе с ключом в индексе
+        cache.put("reader-token", new VerifiedToken("reader", expiresAt, List.of(), 0, null), userDetails);
+        cache.put("admin-token", new VerifiedToken("admin", expiresAt, List.of(), 0, null), userDetails);
+        cache.cleanUp();
+
+        assertEquals(1, cache.indexedKeys("reader") + cache.indexedKeys("admin"));
+    }
+}
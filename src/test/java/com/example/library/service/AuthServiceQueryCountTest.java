@@ -0,0 +1,41 @@
+package com.example.library.service;
+
+import com.example.library.SqlStatementCounter;
+import com.example.library.dto.request.LoginRequest;
+import com.example.library.dto.response.AuthResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Регрессионный тест: вход выполняет ровно один запрос пользователя к БД
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:auth-query-count;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.library.SqlStatementCounter",
+        "security.user-cache.enabled=false", // Без кэша, чтобы запрос пользователя точно выполнялся
+        "security.password.target-latency=0",
+        "security.password.bcrypt.min-strength=4",
+        "security.rate-limit.enabled=false"
+})
+class AuthServiceQueryCountTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Test
+    void authenticate_ShouldQueryUserExactlyOnce() {
+        LoginRequest request = new LoginRequest();
+        request.setUsername("reader");
+        request.setPassword("reader123");
+
+        SqlStatementCounter.reset();
+        AuthResponse response = authService.authenticate(request);
+
+        assertNotNull(response.getToken());
+        assertEquals("ROLE_READER", response.getRole());
+        // Один запрос пользователя и одна вставка refresh токена
+        assertEquals(1, SqlStatementCounter.count("from users"), SqlStatementCounter.statements()::toString);
+        assertEquals(2, SqlStatementCounter.count(), SqlStatementCounter.statements()::toString);
+    }
+}
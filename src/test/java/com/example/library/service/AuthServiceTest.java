@@ -1,24 +1,38 @@
 package com.example.library.service;
 
 import com.example.library.dto.request.LoginRequest;
+import com.example.library.dto.request.RefreshTokenRequest;
 import com.example.library.dto.request.RegisterRequest;
 import com.example.library.dto.response.AuthResponse;
 import com.example.library.exception.AuthenticationFailedException;
 import com.example.library.exception.UserAlreadyExistsException;
+import com.example.library.model.RefreshToken;
 import com.example.library.model.Role;
 import com.example.library.model.User;
 import com.example.library.repository.UserRepository;
+import com.example.library.exception.JwtValidationException;
 import com.example.library.security.JwtService;
+import com.example.library.security.LoginMetrics;
+import com.example.library.security.TokenRevocationService;
+import com.example.library.security.UserSnapshot;
+import com.example.library.security.VerifiedToken;
+import com.example.library.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -45,6 +59,31 @@ class AuthServiceTest {
     @Mock
     private AuthenticationManager authenticationManager;
 
+    // Мок сервиса отзыва токенов
+    @Mock
+    private TokenRevocationService revocationService;
+
+    // Мок кэша проверенных токенов
+    @Mock
+    private VerifiedTokenCache tokenCache;
+
+    // Мок сервиса refresh токенов
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    // Мок загрузки пользователей
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    // Мок проверки занятых логинов и email
+    @Mock
+    private UserAvailabilityService availabilityService;
+
+    // Метрики этапов входа (реальный объект)
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Spy
+    private LoginMetrics loginMetrics = new LoginMetrics(meterRegistry);
+
     // Тестируемый сервис с внедренными моками
     @InjectMocks
     private AuthService authService;
@@ -65,11 +104,11 @@ class AuthServiceTest {
                 .role(Role.ROLE_READER)
                 .build();
 
-        // Настройка поведения моков
-        when(userRepository.existsByUsername("testuser")).thenReturn(false);
-        when(userRepository.existsByEmail("test@example.com")).thenReturn(false);
+        // Настройка поведения моков (фильтр отвечает "свободно")
+        when(availabilityService.isUsernameTaken("testuser")).thenReturn(false);
+        when(availabilityService.isEmailTaken("test@example.com")).thenReturn(false);
         when(passwordEncoder.encode("password")).thenReturn("encodedPassword");
-        when(userRepository.save(any(User.class))).thenReturn(savedUser);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(savedUser);
         when(jwtService.generateToken(any(User.class))).thenReturn("jwtToken");
 
         // Вызов тестируемого метода
@@ -81,10 +120,12 @@ class AuthServiceTest {
         assertEquals("testuser", response.getUsername());
         assertEquals("ROLE_READER", response.getRole());
 
-        // Проверка вызовов зависимостей
-        verify(userRepository).existsByUsername("testuser");
-        verify(userRepository).existsByEmail("test@example.com");
-        verify(userRepository).save(any(User.class));
+        // Проверка вызовов зависимостей: значения отмечены занятыми до вставки,
+        // проверки существования в БД не выполняются
+        verify(availabilityService).add("testuser", "test@example.com");
+        verify(userRepository).saveAndFlush(any(User.class));
+        verify(userRepository, never()).existsByUsername(anyString());
+        verify(userRepository, never()).existsByEmail(anyString());
         verify(jwtService).generateToken(any(User.class));
     }
 
@@ -98,14 +139,15 @@ class AuthServiceTest {
         request.setPassword("password");
 
         // Настройка поведения мока
-        when(userRepository.existsByUsername("existinguser")).thenReturn(true);
+        when(availabilityService.isUsernameTaken("existinguser")).thenReturn(true);
 
         // Проверка выбрасывания исключения
         assertThrows(UserAlreadyExistsException.class, () -> authService.register(request));
 
-        // Проверка вызовов зависимостей
-        verify(userRepository).existsByUsername("existinguser");
-        verify(userRepository, never()).existsByEmail(anyString());
+        // Проверка вызовов зависимостей: пароль не хэшируется, вставки нет
+        verify(availabilityService, never()).isEmailTaken(anyString());
+        verify(passwordEncoder, never()).encode(any());
+        verify(userRepository, never()).saveAndFlush(any(User.class));
     }
 
     // Тест попытки регистрации с существующим email
@@ -118,18 +160,41 @@ class AuthServiceTest {
         request.setPassword("password");
 
         // Настройка поведения моков
-        when(userRepository.existsByUsername("newuser")).thenReturn(false);
-        when(userRepository.existsByEmail("existing@example.com")).thenReturn(true);
+        when(availabilityService.isUsernameTaken("newuser")).thenReturn(false);
+        when(availabilityService.isEmailTaken("existing@example.com")).thenReturn(true);
 
         // Проверка выбрасывания исключения
         assertThrows(UserAlreadyExistsException.class, () -> authService.register(request));
 
         // Проверка вызовов зависимостей
-        verify(userRepository).existsByUsername("newuser");
-        verify(userRepository).existsByEmail("existing@example.com");
+        verify(passwordEncoder, never()).encode(any());
+        verify(userRepository, never()).saveAndFlush(any(User.class));
+    }
+
+    // Тест гонки: логин заняли после проверки, нарушение уникального индекса переводится в 409
+    @Test
+    void register_ShouldTranslateUniqueConstraintViolation() {
+        // Подготовка тестовых данных
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername("raceuser");
+        request.setEmail("race@example.com");
+        request.setPassword("password");
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("uk_users_username");
+        UserAlreadyExistsException translated = new UserAlreadyExistsException("Логин занят: raceuser", violation);
+
+        // Настройка поведения моков
+        when(passwordEncoder.encode("password")).thenReturn("encodedPassword");
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(violation);
+        when(availabilityService.alreadyExists(violation, "raceuser", "race@example.com")).thenReturn(translated);
+
+        // Проверка выбрасывания исключения
+        UserAlreadyExistsException thrown =
+                assertThrows(UserAlreadyExistsException.class, () -> authService.register(request));
+        assertSame(translated, thrown);
+        verify(refreshTokenService, never()).issue(any());
     }
 
-    // Тест успешной аутентификации
+    // Тест успешной аутентификации: используется principal из результата, без повторного запроса к БД
     @Test
     void authenticate_ShouldReturnAuthResponse_WhenCredentialsAreValid() {
         // Подготовка тестовых данных
@@ -137,15 +202,19 @@ class AuthServiceTest {
         request.setUsername("testuser");
         request.setPassword("password");
 
-        // Модель пользователя
-        User user = User.builder()
+        // Пользователь, загруженный AuthenticationManager
+        UserSnapshot user = UserSnapshot.of(User.builder()
+                .id(1L)
                 .username("testuser")
+                .password("hash")
                 .role(Role.ROLE_READER)
-                .build();
+                .build());
 
         // Настройка поведения моков
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(authenticationManager.authenticate(any()))
+                .thenReturn(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
         when(jwtService.generateToken(user)).thenReturn("jwtToken");
+        when(refreshTokenService.issue(user)).thenReturn("refreshToken");
 
         // Вызов тестируемого метода
         AuthResponse response = authService.authenticate(request);
@@ -153,14 +222,17 @@ class AuthServiceTest {
         // Проверки результатов
         assertNotNull(response);
         assertEquals("jwtToken", response.getToken());
+        assertEquals("refreshToken", response.getRefreshToken());
         assertEquals("testuser", response.getUsername());
         assertEquals("ROLE_READER", response.getRole());
 
         // Проверка вызовов зависимостей
         verify(authenticationManager).authenticate(
                 new UsernamePasswordAuthenticationToken("testuser", "password"));
-        verify(userRepository).findByUsername("testuser");
         verify(jwtService).generateToken(user);
+        verifyNoInteractions(userRepository, userDetailsService);
+        // Время выпуска токенов записано в метрику
+        assertEquals(1, meterRegistry.get("security.login.stage").tag("stage", "sign").timer().count());
     }
 
     // Тест неудачной аутентификации
@@ -182,4 +254,67 @@ class AuthServiceTest {
         verify(authenticationManager).authenticate(any());
         verify(userRepository, never()).findByUsername(anyString());
     }
-}
\ No newline at end of file
+
+    // Тест выхода из системы: токен отзывается и удаляется из кэша
+    @Test
+    void logout_ShouldRevokeToken() {
+        VerifiedToken token = new VerifiedToken("testuser", Instant.now().plusSeconds(60), List.of(), 0, "jti-1");
+        when(jwtService.verifyToken("jwtToken")).thenReturn(token);
+
+        authService.logout("jwtToken");
+
+        verify(revocationService).revoke(token);
+        verify(tokenCache).invalidate("jwtToken");
+    }
+
+    // Тест выхода с недействительным токеном
+    @Test
+    void logout_ShouldThrowException_WhenTokenIsInvalid() {
+        when(jwtService.verifyToken("broken")).thenThrow(new JwtValidationException("Invalid token"));
+
+        assertThrows(AuthenticationFailedException.class, () -> authService.logout("broken"));
+        verifyNoInteractions(revocationService);
+    }
+
+    // Тест обновления токенов: новая пара выдается без проверки пароля
+    @Test
+    void refresh_ShouldIssueNewTokenPair() {
+        RefreshTokenRequest request = new RefreshTokenRequest();
+        request.setRefreshToken("oldRefresh");
+        RefreshToken consumed = RefreshToken.builder()
+                .username("testuser").familyId("family-1").tokenVersion(0).build();
+        UserSnapshot user = UserSnapshot.of(User.builder()
+                .id(1L).username("testuser").password("hash").role(Role.ROLE_READER).build());
+
+        when(refreshTokenService.consume("oldRefresh")).thenReturn(consumed);
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(user);
+        when(jwtService.generateToken(user)).thenReturn("jwtToken");
+        when(refreshTokenService.issue(user, "family-1")).thenReturn("newRefresh");
+
+        AuthResponse response = authService.refresh(request);
+
+        assertEquals("jwtToken", response.getToken());
+        assertEquals("newRefresh", response.getRefreshToken());
+        assertEquals("testuser", response.getUsername());
+        assertEquals("ROLE_READER", response.getRole());
+        verifyNoInteractions(authenticationManager, passwordEncoder);
+    }
+
+    // Тест обновления после отзыва всех токенов пользователя
+    @Test
+    void refresh_ShouldThrowException_WhenTokenVersionIsOutdated() {
+        RefreshTokenRequest request = new RefreshTokenRequest();
+        request.setRefreshToken("oldRefresh");
+        RefreshToken consumed = RefreshToken.builder()
+                .username("testuser").familyId("family-1").tokenVersion(0).build();
+        UserSnapshot user = UserSnapshot.of(User.builder()
+                .id(1L).username("testuser").password("hash").role(Role.ROLE_READER).tokenVersion(1).build());
+
+        when(refreshTokenService.consume("oldRefresh")).thenReturn(consumed);
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(user);
+
+        assertThrows(AuthenticationFailedException.class, () -> authService.refresh(request));
+        verify(jwtService, never()).generateToken(any(User.class));
+        verify(refreshTokenService, never()).issue(any(), anyString());
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.library.service;
+
+import com.example.library.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookCountServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    // Тест: в пределах ttl число книг считается запросом один раз
+    @Test
+    void approximateCount_ShouldQueryOncePerTtl() {
+        BookCountService service = new BookCountService(bookRepository, Duration.ofHours(1));
+        when(bookRepository.count()).thenReturn(10L);
+
+        assertEquals(10, service.approximateCount());
+        assertEquals(10, service.approximateCount());
+        verify(bookRepository, times(1)).count();
+    }
+
+    // Тест: добавление и удаление книги меняют число без запроса, изменение книги - нет
+    @Test
+    void onBookChanged_ShouldAdjustCountIncrementally() {
+        BookCountService service = new BookCountService(bookRepository, Duration.ofHours(1));
+        when(bookRepository.count()).thenReturn(10L);
+        service.approximateCount();
+
+        service.onBookChanged(event(BookChangedEvent.Type.CREATED, 11L));
+        service.onBookChanged(event(BookChangedEvent.Type.CREATED, 12L));
+        service.onBookChanged(event(BookChangedEvent.Type.UPDATED, 12L));
+        service.onBookChanged(event(BookChangedEvent.Type.DELETED, 1L));
+
+        assertEquals(11, service.approximateCount());
+        verify(bookRepository, times(1)).count();
+    }
+
+    // Тест: по истечении ttl число пересчитывается (исправляются изменения в обход JPA)
+    @Test
+    void approximateCount_AfterTtl_ShouldRecount() {
+        BookCountService service = new BookCountService(bookRepository, Duration.ZERO);
+        when(bookRepository.count()).thenReturn(10L, 7L);
+
+        assertEquals(10, service.approximateCount());
+        service.onBookChanged(event(BookChangedEvent.Type.CREATED, 11L));
+        assertEquals(7, service.approximateCount());
+        verify(bookRepository, times(2)).count();
+    }
+
+    private static BookChangedEvent event(BookChangedEvent.Type type, Long id) {
+        return new BookChangedEvent(type, id, "Book " + id, "Author", "ISBN-" + id);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.library.service;
+
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.BookView;
+import com.example.library.search.InvertedIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookSearchIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private static BookView book(long id, String title, String author, String isbn) {
+        return new BookView(id, title, author, isbn, null, true, null, null, null, null, null, null);
+    }
+
+    private static List<Long> ids(InvertedIndex.Hits hits) {
+        return hits.hits().stream().map(InvertedIndex.Hit::id).toList();
+    }
+
+    // Тест: каталог читается частями по id до неполной части, найти можно по названию, автору и ISBN
+    @Test
+    void rebuild_ShouldIndexCatalogInBatches() {
+        BookSearchIndex index = new BookSearchIndex(bookRepository, 2);
+        when(bookRepository.findViewsAfterId(Long.MIN_VALUE, 2)).thenReturn(List.of(
+                book(1, "Война и мир", "Лев Толстой", "978-5-389-06256-6"),
+                book(2, "Преступление и наказание", "Федор Достоевский", "978-5-17-090539-2")));
+        when(bookRepository.findViewsAfterId(2, 2)).thenReturn(List.of(
+                book(5, "Анна Каренина", "Лев Толстой", "978-5-04-116542-5")));
+
+        index.rebuild();
+
+        assertEquals(3, index.size());
+        assertEquals(List.of(1L, 5L), ids(index.search("толстой", 0, 10)).stream().sorted().toList());
+        assertEquals(List.of(2L), ids(index.search("Фёдор", 0, 10)));
+        assertEquals(List.of(1L), ids(index.search("9785389062566", 0, 10)));
+        verify(bookRepository, times(2)).findViewsAfterId(anyLong(), eq(2));
+    }
+
+    // Тест: добавление, изменение и удаление книги сразу отражаются в индексе
+    @Test
+    void onBookChanged_ShouldUpdateIndex() {
+        BookSearchIndex index = new BookSearchIndex(bookRepository, 100);
+
+        index.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.CREATED, 7L, "Мастер и Маргарита", "Булгаков", "1"));
+        assertEquals(List.of(7L), ids(index.search("маргарита", 0, 10)));
+
+        index.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.UPDATED, 7L, "Белая гвардия", "Булгаков", "1"));
+        assertTrue(index.search("маргарита", 0, 10).hits().isEmpty());
+        assertEquals(List.of(7L), ids(index.search("гвардия", 0, 10)));
+
+        index.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.DELETED, 7L, "Белая гвардия", "Булгаков", "1"));
+        assertEquals(0, index.size());
+    }
+
+    // Тест: книга, удаленная во время сборки, не возвращается в индекс из уже прочитанной части
+    @Test
+    void rebuild_ShouldKeepChangesMadeDuringRebuild() {
+        BookSearchIndex index = new BookSearchIndex(bookRepository, 10);
+        when(bookRepository.findViewsAfterId(Long.MIN_VALUE, 10)).thenAnswer(invocation -> {
+            List<BookView> batch = List.of(book(1, "Идиот", "Достоевский", "1"), book(2, "Бесы", "Достоевский", "2"));
+            // Пока часть обрабатывается, книгу 2 удаляют, а книгу 1 переименовывают
+            index.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.DELETED, 2L, "Бесы", "Достоевский", "2"));
+            index.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.UPDATED, 1L, "Игрок", "Достоевский", "1"));
+            return batch;
+        });
+
+        index.rebuild();
+
+        assertEquals(1, index.size());
+        assertTrue(index.search("бесы", 0, 10).hits().isEmpty());
+        assertTrue(index.search("идиот", 0, 10).hits().isEmpty());
+        assertEquals(List.of(1L), ids(index.search("игрок", 0, 10)));
+    }
+}
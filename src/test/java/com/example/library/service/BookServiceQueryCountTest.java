@@ -0,0 +1,212 @@
+package com.example.library.service;
+
+import com.example.library.SqlStatementCounter;
+import com.example.library.dto.response.BookResponse;
+import com.example.library.dto.response.CatalogSlice;
+import com.example.library.dto.response.CursorPage;
+import com.example.library.dto.response.SearchPage;
+import com.example.library.model.Book;
+import com.example.library.model.Role;
+import com.example.library.model.User;
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.UserRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Регрессионный тест: каталог не делает отдельный запрос пользователя на каждую арендованную книгу
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:book-query-count;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.library.SqlStatementCounter"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookServiceQueryCountTest {
+
+    private static final int BORROWED_BOOKS = 30;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookCountService bookCountService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long borrowedBookId;
+
+    // Каждую книгу взял свой пользователь: без join каждая книга страницы давала бы запрос users
+    @BeforeAll
+    void setUp() {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < BORROWED_BOOKS; i++) {
+            User user = userRepository.save(User.builder()
+                    .username("borrower" + i)
+                    .email("borrower" + i + "@library.com")
+                    .password("hash")
+                    .role(Role.ROLE_READER)
+                    .build());
+            books.add(Book.builder()
+                    .title("Borrowed " + i)
+                    .author("Author")
+                    .isbn("QC-" + i)
+                    .available(false)
+                    .borrowedBy(user)
+                    .borrowDate(LocalDate.now())
+                    .build());
+        }
+        borrowedBookId = bookRepository.saveAll(books).get(BORROWED_BOOKS - 1).getId();
+    }
+
+    // Тест: страница каталога - один запрос книг с пользователями и один запрос числа книг
+    @Test
+    void getAllBooks_ShouldUseConstantNumberOfStatementsForAnyPageSize() {
+        for (int size : new int[]{5, 20, 31}) {
+            SqlStatementCounter.reset();
+            Page<BookResponse> page = bookService.getAllBooks(0, size);
+
+            assertEquals(size, page.getNumberOfElements());
+            assertTrue(page.getContent().stream().anyMatch(book -> book.getBorrowedBy() != null));
+            assertEquals(2, SqlStatementCounter.count(), SqlStatementCounter.statements()::toString);
+            assertEquals(0, SqlStatementCounter.count("from users"), SqlStatementCounter.statements()::toString);
+        }
+    }
+
+    // Тест: страница с приблизительным числом книг - один запрос книг, count не выполняется
+    @Test
+    void getBooksSlice_ShouldNotCountBooksOnEveryPage() {
+        // Первое обращение к счетчику считает книги запросом
+        bookService.getBooksSlice(0, 5, true);
+
+        for (boolean withTotal : new boolean[]{true, false}) {
+            SqlStatementCounter.reset();
+            CatalogSlice<BookResponse> slice = bookService.getBooksSlice(1, 5, withTotal);
+
+            assertEquals(1, SqlStatementCounter.count(), SqlStatementCounter.statements()::toString);
+            assertEquals(0, SqlStatementCounter.count("count("), SqlStatementCounter.statements()::toString);
+            assertEquals(5, slice.getContent().size());
+            assertTrue(slice.isHasNext());
+            assertEquals(withTotal ? bookRepository.count() : null, slice.getApproximateTotal());
+        }
+    }
+
+    // Тест: добавление и удаление книги через репозиторий меняют число книг без нового запроса count
+    @Test
+    void approximateCount_ShouldFollowInsertAndDelete() {
+        long before = bookCountService.approximateCount();
+
+        Book book = bookRepository.save(Book.builder().title("Counted").author("Author").isbn("QC-counted").build());
+        SqlStatementCounter.reset();
+        assertEquals(before + 1, bookCountService.approximateCount());
+
+        bookRepository.deleteById(book.getId());
+        assertEquals(before, bookCountService.approximateCount());
+        assertEquals(0, SqlStatementCounter.count("count("), SqlStatementCounter.statements()::toString);
+    }
+
+    // Тест: обход каталога по курсору - один запрос на страницу (без count), каждая книга один раз
+    @Test
+    void getBooksAfter_ShouldWalkCatalogWithOneStatementPerPage() {
+        List<String> titles = new ArrayList<>();
+        String after = null;
+        int pages = 0;
+        do {
+            SqlStatementCounter.reset();
+            CursorPage<BookResponse> page = bookService.getBooksAfter(after, 7);
+            assertEquals(1, SqlStatementCounter.count(), SqlStatementCounter.statements()::toString);
+            assertEquals(0, SqlStatementCounter.count("count("), SqlStatementCounter.statements()::toString);
+            page.getContent().forEach(book -> titles.add(book.getTitle()));
+            after = page.getNext();
+            pages++;
+        } while (after != null);
+
+        assertEquals(bookRepository.count(), titles.size());
+        assertEquals(titles.stream().sorted().toList(), titles);
+        assertEquals((int) Math.ceil(titles.size() / 7.0), pages);
+    }
+
+    // Тест: fields - в select только колонки выбранных полей, join users - только для borrowedBy
+    @Test
+    void getBookFields_ShouldSelectOnlyRequestedColumns() {
+        SqlStatementCounter.reset();
+        Page<Map<String, Object>> page = bookService.getBookFields(0, 5, "id,title");
+
+        assertEquals(List.of("id", "title"), List.copyOf(page.getContent().get(0).keySet()));
+        assertEquals(1, SqlStatementCounter.count("select b1_0.id,b1_0.title from books"),
+                SqlStatementCounter.statements()::toString);
+        assertEquals(0, SqlStatementCounter.count("author"), SqlStatementCounter.statements()::toString);
+        assertEquals(0, SqlStatementCounter.count("join"), SqlStatementCounter.statements()::toString);
+
+        SqlStatementCounter.reset();
+        Map<String, Object> book = bookService.getBookFieldsById(borrowedBookId, "title,borrowedBy");
+
+        assertEquals("Borrowed " + (BORROWED_BOOKS - 1), book.get("title"));
+        assertEquals("borrower" + (BORROWED_BOOKS - 1), ((Map<?, ?>) book.get("borrowedBy")).get("username"));
+        assertEquals(1, SqlStatementCounter.count(), SqlStatementCounter.statements()::toString);
+        assertEquals(0, SqlStatementCounter.count("password"), SqlStatementCounter.statements()::toString);
+    }
+
+    // Тест: запрос проекции не сбрасывает в БД несохраненные изменения (FlushMode.MANUAL)
+    @Test
+    void findViewById_ShouldNotFlushPendingChanges() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Book book = bookRepository.findById(borrowedBookId).orElseThrow();
+            String title = book.getTitle();
+            book.setTitle("Changed");
+
+            SqlStatementCounter.reset();
+            assertEquals(title, bookRepository.findViewById(borrowedBookId).orElseThrow().title());
+            assertEquals(0, SqlStatementCounter.count("update"), SqlStatementCounter.statements()::toString);
+            status.setRollbackOnly();
+        });
+    }
+
+    // Тест: поиск - индекс в памяти и один запрос найденных книг; новая книга находится сразу
+    // после коммита, удаленная - больше не находится
+    @Test
+    void searchBooks_ShouldFollowCatalogChangesWithOneStatement() {
+        SqlStatementCounter.reset();
+        SearchPage<BookResponse> borrowed = bookService.searchBooks("borrowed", 0, 5);
+
+        assertEquals(BORROWED_BOOKS, borrowed.getTotal());
+        assertEquals(5, borrowed.getContent().size());
+        assertNotNull(borrowed.getContent().get(0).getBorrowedBy());
+        assertEquals(1, SqlStatementCounter.count(), SqlStatementCounter.statements()::toString);
+
+        Book book = bookRepository.save(Book.builder()
+                .title("Мастер и Маргарита").author("Михаил Булгаков").isbn("978-5-17-118366-5").build());
+        assertEquals(List.of(book.getId()), bookService.searchBooks("маргарита", 0, 10).getContent().stream()
+                .map(BookResponse::getId).toList());
+        assertEquals(1, bookService.searchBooks("9785171183665", 0, 10).getTotal());
+
+        bookRepository.deleteById(book.getId());
+        assertEquals(0, bookService.searchBooks("булгаков", 0, 10).getTotal());
+    }
+
+    // Тест: книга по ID вместе с пользователем - один запрос
+    @Test
+    void getBookById_ShouldLoadBorrowerInSameStatement() {
+        SqlStatementCounter.reset();
+        BookResponse book = bookService.getBookById(borrowedBookId);
+
+        assertEquals("borrower" + (BORROWED_BOOKS - 1), book.getBorrowedBy().getUsername());
+        assertEquals(1, SqlStatementCounter.count(), SqlStatementCounter.statements()::toString);
+    }
+}
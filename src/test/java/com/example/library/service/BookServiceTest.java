@@ -2,26 +2,42 @@ package com.example.library.service;
 
 
 import com.example.library.dto.response.BookResponse;
+import com.example.library.dto.response.CatalogSlice;
+import com.example.library.dto.response.CursorPage;
+import com.example.library.dto.response.SearchPage;
 import com.example.library.exception.BookNotFoundException;
+import com.example.library.exception.InvalidCursorException;
+import com.example.library.exception.InvalidFieldsException;
 import com.example.library.model.Book;
 import com.example.library.model.Role;
 import com.example.library.model.User;
+import com.example.library.repository.BookField;
 import com.example.library.repository.BookRepository;
+import com.example.library.repository.BookView;
 import com.example.library.repository.UserRepository;
+import com.example.library.search.InvertedIndex;
 import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -39,6 +55,14 @@ class BookServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    // Мок счетчика книг
+    @Mock
+    private BookCountService bookCountService;
+
+    // Мок поискового индекса
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
     // Тестируемый сервис с внедренными моками
     @InjectMocks
     private BookService bookService;
@@ -48,11 +72,11 @@ class BookServiceTest {
     void getAllBooks_ShouldReturnPageOfBooks() {
         // Подготовка тестовых данных
         Pageable pageable = PageRequest.of(0, 10);
-        Book book = createTestBook(1L, "Test Book", true);
-        Page<Book> page = new PageImpl<>(Collections.singletonList(book), pageable, 1);
+        BookView book = createTestView(1L, "Test Book");
+        Page<BookView> page = new PageImpl<>(Collections.singletonList(book), pageable, 1);
 
         // Настройка поведения мока
-        when(bookRepository.findAll(pageable)).thenReturn(page);
+        when(bookRepository.findViews(pageable)).thenReturn(page);
 
         // Вызов тестируемого метода
         Page<BookResponse> result = bookService.getAllBooks(0, 10);
@@ -60,7 +84,196 @@ class BookServiceTest {
         // Проверки результатов
         assertEquals(1, result.getTotalElements());
         assertEquals("Test Book", result.getContent().get(0).getTitle());
-        verify(bookRepository).findAll(pageable);
+        verify(bookRepository).findViews(pageable);
+    }
+
+    // Тест страницы без точного числа книг: запрос count не выполняется, число берется из счетчика
+    @Test
+    void getBooksSlice_WithTotal_ShouldUseApproximateCount() {
+        Pageable pageable = PageRequest.of(1, 2);
+        when(bookRepository.findViewSlice(pageable)).thenReturn(new SliceImpl<>(
+                List.of(createTestView(3L, "Book 3"), createTestView(4L, "Book 4")), pageable, true));
+        when(bookCountService.approximateCount()).thenReturn(42L);
+
+        CatalogSlice<BookResponse> result = bookService.getBooksSlice(1, 2, true);
+
+        assertEquals(List.of("Book 3", "Book 4"), result.getContent().stream().map(BookResponse::getTitle).toList());
+        assertEquals(1, result.getPage());
+        assertEquals(2, result.getSize());
+        assertTrue(result.isHasNext());
+        assertEquals(42L, result.getApproximateTotal());
+        verify(bookRepository, never()).count();
+        verify(bookRepository, never()).findAll(any(Pageable.class));
+    }
+
+    // Тест страницы без общего числа книг: счетчик не используется
+    @Test
+    void getBooksSlice_WithoutTotal_ShouldNotCount() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(bookRepository.findViewSlice(pageable)).thenReturn(new SliceImpl<>(
+                List.of(createTestView(1L, "Book 1")), pageable, false));
+
+        CatalogSlice<BookResponse> result = bookService.getBooksSlice(0, 10, false);
+
+        assertFalse(result.isHasNext());
+        assertNull(result.getApproximateTotal());
+        verifyNoInteractions(bookCountService);
+    }
+
+    // Тест первой страницы по курсору: лишняя книга означает, что есть следующая страница
+    @Test
+    void getBooksAfter_FirstPage_ShouldReturnNextCursor() {
+        when(bookRepository.findFirstPage(Limit.of(3))).thenReturn(List.of(
+                createTestView(5L, "Anna Karenina"),
+                createTestView(2L, "Dead Souls"),
+                createTestView(9L, "War and Peace")));
+
+        CursorPage<BookResponse> result = bookService.getBooksAfter(null, 2);
+
+        assertEquals(List.of("Anna Karenina", "Dead Souls"),
+                result.getContent().stream().map(BookResponse::getTitle).toList());
+        assertNotNull(result.getNext());
+        // Курсор указывает на последнюю книгу страницы
+        assertEquals(new BookCursor("Dead Souls", 2L), BookCursor.decode(result.getNext()));
+    }
+
+    // Тест следующей страницы: поиск после книги из курсора, последняя страница без курсора
+    @Test
+    void getBooksAfter_LastPage_ShouldSeekAfterCursorWithoutNext() {
+        String after = new BookCursor("Dead Souls", 2L).encode();
+        when(bookRepository.findPageAfter("Dead Souls", 2L, Limit.of(3)))
+                .thenReturn(List.of(createTestView(9L, "War and Peace")));
+
+        CursorPage<BookResponse> result = bookService.getBooksAfter(after, 2);
+
+        assertEquals(1, result.getContent().size());
+        assertNull(result.getNext());
+        verify(bookRepository, never()).findAll(any(Pageable.class));
+    }
+
+    // Тест: размер страницы ограничен
+    @Test
+    void getBooksAfter_ShouldClampPageSize() {
+        when(bookRepository.findFirstPage(any(Limit.class))).thenReturn(List.of());
+
+        assertEquals(BookService.MAX_CURSOR_PAGE_SIZE, bookService.getBooksAfter("", 1_000_000).getSize());
+        verify(bookRepository).findFirstPage(Limit.of(BookService.MAX_CURSOR_PAGE_SIZE + 1));
+    }
+
+    // Тест: поврежденный курсор - ошибка 400
+    @Test
+    void getBooksAfter_InvalidCursor_ShouldThrow() {
+        assertThrows(InvalidCursorException.class, () -> bookService.getBooksAfter("not a cursor", 10));
+        assertThrows(InvalidCursorException.class, () -> bookService.getBooksAfter(
+                Base64.getUrlEncoder().encodeToString("abc:title".getBytes(StandardCharsets.UTF_8)), 10));
+        // Название может содержать двоеточие
+        assertEquals("A: B", BookCursor.decode(new BookCursor("A: B", 7L).encode()).title());
+    }
+
+    // Тест: арендованная книга - данные пользователя из колонок проекции
+    @Test
+    void getAllBooks_ShouldMapBorrowerFromView() {
+        Pageable pageable = PageRequest.of(0, 10);
+        BookView borrowed = new BookView(1L, "Test Book", "Test Author", "1234567890", 2023, false,
+                null, null, 7L, "reader", "reader@library.com", Role.ROLE_READER);
+        when(bookRepository.findViews(pageable)).thenReturn(new PageImpl<>(List.of(borrowed), pageable, 1));
+
+        BookResponse result = bookService.getAllBooks(0, 10).getContent().get(0);
+
+        assertFalse(result.isAvailable());
+        assertEquals(7L, result.getBorrowedBy().getId());
+        assertEquals("reader", result.getBorrowedBy().getUsername());
+        assertEquals("reader@library.com", result.getBorrowedBy().getEmail());
+        assertEquals("ROLE_READER", result.getBorrowedBy().getRole());
+    }
+
+    // Тест: fields - выбираются только перечисленные поля, count пропускается для неполной первой страницы
+    @Test
+    void getBookFields_ShouldSelectRequestedFields() {
+        Set<BookField> fields = EnumSet.of(BookField.ID, BookField.TITLE);
+        when(bookRepository.findFields(fields, 0, 10)).thenReturn(List.of(Map.of("id", 1L, "title", "Test Book")));
+
+        Page<Map<String, Object>> result = bookService.getBookFields(0, 10, " title, id ");
+
+        assertEquals(1, result.getTotalElements());
+        assertEquals("Test Book", result.getContent().get(0).get("title"));
+        verify(bookRepository, never()).count();
+    }
+
+    // Тест: fields без count - выбирается одна лишняя строка для hasNext
+    @Test
+    void getBookFieldsSlice_ShouldFetchOneExtraRow() {
+        Set<BookField> fields = EnumSet.of(BookField.BORROWED_BY);
+        when(bookRepository.findFields(fields, 2, 3)).thenReturn(List.of(Map.of(), Map.of(), Map.of()));
+
+        CatalogSlice<Map<String, Object>> result = bookService.getBookFieldsSlice(1, 2, "borrowedBy", false);
+
+        assertEquals(2, result.getContent().size());
+        assertTrue(result.isHasNext());
+        assertNull(result.getApproximateTotal());
+    }
+
+    // Тест: размер страницы без count ограничен - лишняя строка для hasNext не переполняет int
+    @Test
+    void slices_ShouldClampPageSize() {
+        Set<BookField> fields = EnumSet.of(BookField.TITLE);
+        Pageable largest = PageRequest.of(0, BookService.MAX_SLICE_PAGE_SIZE);
+        when(bookRepository.findViewSlice(largest)).thenReturn(new SliceImpl<>(List.of(), largest, false));
+        when(bookRepository.findViewSlice(PageRequest.of(0, 1)))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 1), false));
+        when(bookRepository.findFields(fields, 0, BookService.MAX_SLICE_PAGE_SIZE + 1)).thenReturn(List.of());
+
+        assertEquals(BookService.MAX_SLICE_PAGE_SIZE, bookService.getBooksSlice(0, Integer.MAX_VALUE, false).getSize());
+        assertEquals(1, bookService.getBooksSlice(0, -5, false).getSize());
+        assertEquals(BookService.MAX_SLICE_PAGE_SIZE,
+                bookService.getBookFieldsSlice(0, Integer.MAX_VALUE, "title", false).getSize());
+    }
+
+    // Тест: неизвестное или пустое поле - ошибка 400, запрос не выполняется
+    @Test
+    void getBookFields_InvalidFields_ShouldThrow() {
+        assertThrows(InvalidFieldsException.class, () -> bookService.getBookFields(0, 10, "title,password"));
+        assertThrows(InvalidFieldsException.class, () -> bookService.getBookFieldsById(1L, " , "));
+        verifyNoInteractions(bookRepository);
+    }
+
+    // Тест получения книги по ID только с выбранными полями (книга не найдена)
+    @Test
+    void getBookFieldsById_ShouldThrowException_WhenBookNotFound() {
+        when(bookRepository.findFieldsById(EnumSet.of(BookField.TITLE), 1L)).thenReturn(Optional.empty());
+
+        assertThrows(BookNotFoundException.class, () -> bookService.getBookFieldsById(1L, "title"));
+    }
+
+    // Тест поиска: книги в порядке релевантности из индекса, удаленная после поиска книга пропускается
+    @Test
+    void searchBooks_ShouldReturnBooksInRankOrder() {
+        when(bookSearchIndex.search("толстой", 10, 10)).thenReturn(new InvertedIndex.Hits(23, List.of(
+                new InvertedIndex.Hit(3L, 2.5), new InvertedIndex.Hit(9L, 2.0), new InvertedIndex.Hit(1L, 1.5))));
+        when(bookRepository.findViewsByIds(List.of(3L, 9L, 1L)))
+                .thenReturn(List.of(createTestView(1L, "Book 1"), createTestView(3L, "Book 3")));
+
+        SearchPage<BookResponse> result = bookService.searchBooks("толстой", 1, 10);
+
+        assertEquals(List.of(3L, 1L), result.getContent().stream().map(BookResponse::getId).toList());
+        assertEquals(23, result.getTotal());
+        assertEquals(1, result.getPage());
+        assertEquals("толстой", result.getQuery());
+    }
+
+    // Тест поиска: размер страницы и глубина результатов ограничены
+    @Test
+    void searchBooks_ShouldClampPageSizeAndWindow() {
+        when(bookSearchIndex.search(anyString(), anyInt(), anyInt())).thenReturn(new InvertedIndex.Hits(0, List.of()));
+        when(bookRepository.findViewsByIds(List.of())).thenReturn(List.of());
+
+        assertEquals(BookService.MAX_SEARCH_PAGE_SIZE, bookService.searchBooks("мир", 0, 1_000_000).getSize());
+        bookService.searchBooks("мир", 9, 100);
+        bookService.searchBooks("мир", Integer.MAX_VALUE, 100);
+
+        verify(bookSearchIndex).search("мир", 0, BookService.MAX_SEARCH_PAGE_SIZE);
+        verify(bookSearchIndex).search("мир", 900, 100);
+        verify(bookSearchIndex).search("мир", BookService.MAX_SEARCH_WINDOW, 0);
     }
 
     // Тест получения книги по ID (успешный случай)
@@ -68,10 +281,10 @@ class BookServiceTest {
     void getBookById_ShouldReturnBook_WhenBookExists() {
         // Подготовка тестовых данных
         Long bookId = 1L;
-        Book book = createTestBook(bookId, "Test Book", true);
+        BookView book = createTestView(bookId, "Test Book");
 
         // Настройка поведения мока
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
+        when(bookRepository.findViewById(bookId)).thenReturn(Optional.of(book));
 
         // Вызов тестируемого метода
         BookResponse result = bookService.getBookById(bookId);
@@ -80,7 +293,7 @@ class BookServiceTest {
         assertNotNull(result);
         assertEquals(bookId, result.getId());
         assertEquals("Test Book", result.getTitle());
-        verify(bookRepository).findById(bookId);
+        verify(bookRepository).findViewById(bookId);
     }
 
     // Тест получения книги по ID (книга не найдена)
@@ -90,11 +303,11 @@ class BookServiceTest {
         Long bookId = 1L;
 
         // Настройка поведения мока
-        when(bookRepository.findById(bookId)).thenReturn(Optional.empty());
+        when(bookRepository.findViewById(bookId)).thenReturn(Optional.empty());
 
         // Проверка выбрасывания исключения
         assertThrows(BookNotFoundException.class, () -> bookService.getBookById(bookId));
-        verify(bookRepository).findById(bookId);
+        verify(bookRepository).findViewById(bookId);
     }
 
     // Тест взятия книги в аренду (успешный случай)
@@ -207,6 +420,12 @@ class BookServiceTest {
         verify(userRepository).findByUsername(username);
     }
 
+    // Вспомогательный метод для создания проекции свободной книги
+    private BookView createTestView(Long id, String title) {
+        return new BookView(id, title, "Test Author", "1234567890", 2023, true,
+                null, null, null, null, null, null);
+    }
+
     // Вспомогательный метод для создания тестовой книги
     private Book createTestBook(Long id, String title, boolean available) {
         Book book = new Book();
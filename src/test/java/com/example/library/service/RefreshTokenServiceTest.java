@@ -0,0 +1,127 @@
+package com.example.library.service;
+
+import com.example.library.exception.AuthenticationFailedException;
+import com.example.library.model.RefreshToken;
+import com.example.library.model.Role;
+import com.example.library.model.User;
+import com.example.library.repository.RefreshTokenRepository;
+import com.example.library.util.Sha256;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, Duration.ofDays(30));
+    }
+
+    // Тест выпуска: в БД сохраняется только хэш значения
+    @Test
+    void issue_ShouldStoreOnlyTokenHash() {
+        User user = User.builder().username("reader").role(Role.ROLE_READER).tokenVersion(3).build();
+
+        String value = refreshTokenService.issue(user, "family-1");
+
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        RefreshToken saved = captor.getValue();
+        assertNotEquals(value, saved.getTokenHash());
+        assertEquals(Sha256.base64Url(value), saved.getTokenHash());
+        assertEquals("reader", saved.getUsername());
+        assertEquals("family-1", saved.getFamilyId());
+        assertEquals(3, saved.getTokenVersion());
+        assertFalse(saved.isUsed());
+        assertTrue(saved.getExpiresAt().isAfter(Instant.now().plus(Duration.ofDays(29))));
+    }
+
+    // Тест: каждый вход получает новую цепочку и уникальный токен
+    @Test
+    void issue_ShouldGenerateUniqueTokens() {
+        User user = User.builder().username("reader").role(Role.ROLE_READER).build();
+
+        String first = refreshTokenService.issue(user);
+        String second = refreshTokenService.issue(user);
+
+        assertNotEquals(first, second);
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository, times(2)).save(captor.capture());
+        assertNotEquals(captor.getAllValues().get(0).getFamilyId(), captor.getAllValues().get(1).getFamilyId());
+    }
+
+    // Тест обмена действующего токена
+    @Test
+    void consume_ShouldMarkTokenUsed() {
+        RefreshToken token = token(Instant.now().plusSeconds(60));
+        when(refreshTokenRepository.findByTokenHash(Sha256.base64Url("value"))).thenReturn(Optional.of(token));
+        when(refreshTokenRepository.markUsed(1L)).thenReturn(1);
+
+        assertSame(token, refreshTokenService.consume("value"));
+        verify(refreshTokenRepository, never()).deleteFamily(any());
+    }
+
+    // Тест повторного использования: вся цепочка удаляется
+    @Test
+    void consume_ShouldRevokeFamily_WhenTokenReused() {
+        RefreshToken token = token(Instant.now().plusSeconds(60));
+        when(refreshTokenRepository.findByTokenHash(Sha256.base64Url("value"))).thenReturn(Optional.of(token));
+        when(refreshTokenRepository.markUsed(1L)).thenReturn(0);
+
+        assertThrows(AuthenticationFailedException.class, () -> refreshTokenService.consume("value"));
+        verify(refreshTokenRepository).deleteFamily("family-1");
+    }
+
+    // Тест истекшего токена
+    @Test
+    void consume_ShouldThrowException_WhenTokenExpired() {
+        RefreshToken token = token(Instant.now().minusSeconds(1));
+        when(refreshTokenRepository.findByTokenHash(Sha256.base64Url("value"))).thenReturn(Optional.of(token));
+
+        assertThrows(AuthenticationFailedException.class, () -> refreshTokenService.consume("value"));
+        verify(refreshTokenRepository, never()).markUsed(any());
+    }
+
+    // Тест неизвестного токена
+    @Test
+    void consume_ShouldThrowException_WhenTokenUnknown() {
+        when(refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.empty());
+
+        assertThrows(AuthenticationFailedException.class, () -> refreshTokenService.consume("unknown"));
+    }
+
+    // Тест периодической очистки
+    @Test
+    void purgeExpired_ShouldDeleteExpiredTokens() {
+        refreshTokenService.purgeExpired();
+
+        verify(refreshTokenRepository).deleteExpired(any(Instant.class));
+    }
+
+    private RefreshToken token(Instant expiresAt) {
+        return RefreshToken.builder()
+                .id(1L)
+                .tokenHash(Sha256.base64Url("value"))
+                .username("reader")
+                .familyId("family-1")
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
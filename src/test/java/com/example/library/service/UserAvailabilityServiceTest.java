@@ -0,0 +1,195 @@
+package com.example.library.service;
+
+import com.example.library.exception.UserAlreadyExistsException;
+import com.example.library.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Подключаем поддержку Mockito для тестов
+@ExtendWith(MockitoExtension.class)
+class UserAvailabilityServiceTest {
+
+    // Мок репозитория пользователей
+    @Mock
+    private UserRepository userRepository;
+
+    // Тестируемый сервис
+    private UserAvailabilityService availabilityService;
+
+    @BeforeEach
+    void setUp() {
+        availabilityService = new UserAvailabilityService(userRepository, 1000, 0.01, new SimpleMeterRegistry());
+    }
+
+    // Проекция логина и email
+    private static UserRepository.UserKeyView key(String username, String email) {
+        return new UserRepository.UserKeyView() {
+            @Override
+            public String getUsername() {
+                return username;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+        };
+    }
+
+    // Тест: до загрузки фильтра каждая проверка идет в БД
+    @Test
+    void isUsernameTaken_ShouldQueryDatabase_BeforeFilterIsLoaded() {
+        when(userRepository.existsByUsername("newuser")).thenReturn(false);
+
+        assertFalse(availabilityService.isUsernameTaken("newuser"));
+        verify(userRepository).existsByUsername("newuser");
+    }
+
+    // Тест: свободные значения определяются фильтром без запросов к БД
+    @Test
+    void isTaken_ShouldNotQueryDatabase_ForValuesNotInFilter() {
+        when(userRepository.streamUserKeys()).thenReturn(Stream.of(key("admin", "admin@library.com")));
+        availabilityService.rebuildFilter();
+
+        assertFalse(availabilityService.isUsernameTaken("newuser"));
+        assertFalse(availabilityService.isEmailTaken("new@example.com"));
+        verify(userRepository, never()).existsByUsername(anyString());
+        verify(userRepository, never()).existsByEmail(anyString());
+    }
+
+    // Тест: возможное совпадение (в том числе в другом регистре) подтверждается в БД
+    @Test
+    void isTaken_ShouldConfirmPossibleHitsInDatabase() {
+        when(userRepository.streamUserKeys()).thenReturn(Stream.of(key("admin", "admin@library.com")));
+        when(userRepository.existsByUsername("Admin")).thenReturn(false);
+        when(userRepository.existsByEmail("admin@library.com")).thenReturn(true);
+        availabilityService.rebuildFilter();
+
+        assertFalse(availabilityService.isUsernameTaken("Admin"));
+        assertTrue(availabilityService.isEmailTaken("admin@library.com"));
+    }
+
+    // Тест: добавленные значения попадают в фильтр до пересборки
+    @Test
+    void add_ShouldMarkValuesAsPossiblyTaken() {
+        when(userRepository.streamUserKeys()).thenReturn(Stream.empty());
+        availabilityService.rebuildFilter();
+        assertFalse(availabilityService.mightContainUsername("newuser"));
+
+        availabilityService.add("newuser", "new@example.com");
+
+        assertTrue(availabilityService.mightContainUsername("newuser"));
+        assertTrue(availabilityService.mightContainEmail("NEW@example.com "));
+    }
+
+    // Тест: нарушение уникального индекса переводится в исключение с занятым значением
+    @Test
+    void alreadyExists_ShouldTranslateByConstraintName() {
+        DataIntegrityViolationException username = new DataIntegrityViolationException("insert failed",
+                new SQLException("Unique index or primary key violation: \"PUBLIC.UK_USERS_USERNAME_INDEX_4\""));
+        DataIntegrityViolationException email = new DataIntegrityViolationException("insert failed",
+                new SQLException("Unique index or primary key violation: \"PUBLIC.UK_USERS_EMAIL_INDEX_4\""));
+        DataIntegrityViolationException other = new DataIntegrityViolationException("insert failed",
+                new SQLException("NULL not allowed for column \"PASSWORD\""));
+
+        RuntimeException usernameTaken = availabilityService.alreadyExists(username, "john", "john@example.com");
+        RuntimeException emailTaken = availabilityService.alreadyExists(email, "john", "john@example.com");
+
+        assertInstanceOf(UserAlreadyExistsException.class, usernameTaken);
+        assertTrue(usernameTaken.getMessage().contains("john"));
+        assertInstanceOf(UserAlreadyExistsException.class, emailTaken);
+        assertTrue(emailTaken.getMessage().contains("john@example.com"));
+        assertSame(other, availabilityService.alreadyExists(other, "john", "john@example.com"));
+    }
+
+    // Тест: логин, вставка которого зафиксирована после чтения БД пересборкой, остается занятым
+    @Test
+    void add_ShouldSurviveRebuild_WhenCommittedAfterRebuildReadDatabase() {
+        when(userRepository.streamUserKeys()).thenReturn(Stream.empty(), Stream.empty());
+        availabilityService.rebuildFilter();
+
+        // Вставка в транзакции: строка еще не зафиксирована, пересборка ее не видит
+        addInTransaction("late", availabilityService::rebuildFilter);
+
+        assertTrue(availabilityService.mightContainUsername("late"));
+        assertTrue(availabilityService.mightContainEmail("late@example.com"));
+    }
+
+    // Тест: при параллельных регистрациях и пересборках ни один логин не теряется
+    @Test
+    void add_ShouldNotLoseValues_WhenRebuildRunsConcurrently() throws Exception {
+        // БД: видны только зафиксированные строки
+        Set<String> committed = ConcurrentHashMap.newKeySet();
+        when(userRepository.streamUserKeys()).thenAnswer(invocation -> List.copyOf(committed).stream()
+                .map(username -> key(username, username + "@example.com")));
+        availabilityService.rebuildFilter();
+
+        ExecutorService pool = Executors.newFixedThreadPool(5);
+        AtomicBoolean done = new AtomicBoolean();
+        try {
+            Future<?> rebuilds = pool.submit(() -> {
+                while (!done.get()) {
+                    availabilityService.rebuildFilter();
+                }
+            });
+            List<Future<?>> registrations = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                int base = thread * 500;
+                registrations.add(pool.submit(() -> {
+                    for (int i = base; i < base + 500; i++) {
+                        String username = "user" + i;
+                        addInTransaction(username, () -> {
+                            Thread.yield(); // Даем пересборке прочитать БД до фиксации
+                            committed.add(username);
+                        });
+                    }
+                }));
+            }
+            for (Future<?> registration : registrations) {
+                registration.get();
+            }
+            done.set(true);
+            rebuilds.get();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            assertTrue(availabilityService.mightContainUsername("user" + i), "user" + i);
+        }
+    }
+
+    // Регистрация внутри транзакции: beforeCommit выполняется до фиксации, затем срабатывает afterCommit
+    private void addInTransaction(String username, Runnable beforeCommit) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            availabilityService.add(username, username + "@example.com");
+            beforeCommit.run();
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
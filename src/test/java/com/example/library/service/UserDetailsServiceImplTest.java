@@ -3,15 +3,18 @@ package com.example.library.service;
 import com.example.library.model.Role;
 import com.example.library.model.User;
 import com.example.library.repository.UserRepository;
+import com.example.library.security.UserSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Optional;
 
@@ -26,10 +29,16 @@ class UserDetailsServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
-    // Тестируемый сервис с внедренными моками
-    @InjectMocks
+    // Тестируемый сервис (кэш включен)
     private UserDetailsServiceImpl userDetailsService;
 
+    // Создание сервиса с включенным кэшем перед каждым тестом
+    @BeforeEach
+    void setUp() {
+        userDetailsService = new UserDetailsServiceImpl(
+                userRepository, true, 100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+    }
+
     // Тест загрузки пользователя с ролью ADMIN
     @Test
     void loadUserByUsername_ShouldReturnUserDetailsWithCorrectAuthorities_WhenUserExists() {
@@ -127,4 +136,57 @@ class UserDetailsServiceImplTest {
         assertTrue(userDetails.isCredentialsNonExpired()); // Учетные данные не просрочены
         assertTrue(userDetails.isEnabled()); // Аккаунт включен
     }
-}
\ No newline at end of file
+
+    // Тест: повторная загрузка берется из кэша без запроса к БД
+    @Test
+    void loadUserByUsername_ShouldServeRepeatedCallsFromCache() {
+        User user = new User();
+        user.setUsername("reader");
+        user.setPassword("pass");
+        user.setRole(Role.ROLE_READER);
+        when(userRepository.findByUsername("reader")).thenReturn(Optional.of(user));
+
+        UserDetails first = userDetailsService.loadUserByUsername("reader");
+        UserDetails second = userDetailsService.loadUserByUsername("reader");
+
+        // В кэше хранится неизменяемый снимок, а не JPA сущность
+        assertInstanceOf(UserSnapshot.class, first);
+        assertSame(first, second);
+        verify(userRepository, times(1)).findByUsername("reader");
+        assertEquals(0.5, userDetailsService.cacheStats().hitRate());
+    }
+
+    // Тест: событие изменения пользователя сбрасывает кэш
+    @Test
+    void onUserChanged_ShouldEvictCachedUser() {
+        User user = new User();
+        user.setUsername("reader");
+        user.setPassword("pass");
+        user.setRole(Role.ROLE_READER);
+        when(userRepository.findByUsername("reader")).thenReturn(Optional.of(user));
+
+        userDetailsService.loadUserByUsername("reader");
+        userDetailsService.onUserChanged(new UserChangedEvent("reader"));
+        userDetailsService.loadUserByUsername("reader");
+
+        verify(userRepository, times(2)).findByUsername("reader");
+    }
+
+    // Тест перехэширования: новый хэш сохраняется в БД, кэш пользователя сбрасывается
+    @Test
+    void updatePassword_ShouldStoreNewHashAndEvictUser() {
+        User user = User.builder().id(1L).username("reader").password("{bcrypt}old").role(Role.ROLE_READER).build();
+        when(userRepository.findByUsername("reader")).thenReturn(Optional.of(user));
+        UserSnapshot cached = (UserSnapshot) userDetailsService.loadUserByUsername("reader");
+
+        UserDetails updated = userDetailsService.updatePassword(cached, "{argon2}new");
+
+        assertEquals("{argon2}new", updated.getPassword());
+        assertEquals("reader", updated.getUsername());
+        verify(userRepository).updatePassword("reader", "{argon2}new");
+
+        // Следующая загрузка снова идет в БД
+        userDetailsService.loadUserByUsername("reader");
+        verify(userRepository, times(2)).findByUsername("reader");
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.library.service;
+
+import com.example.library.dto.response.BulkUserResult;
+import com.example.library.dto.response.BulkUserResult.Status;
+import com.example.library.exception.InvalidBulkFileException;
+import com.example.library.model.Role;
+import com.example.library.model.User;
+import com.example.library.repository.UserRepository;
+import com.example.library.service.UserProvisioningService.Format;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Массовое создание пользователей на реальной БД (маленькая пачка, чтобы проверить границы пачек)
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:user-provisioning;DB_CLOSE_DELAY=-1",
+        "provisioning.batch-size=2",
+        "provisioning.hashing-threads=2",
+        "security.password.target-latency=0",
+        "security.password.bcrypt.min-strength=4"
+})
+class UserProvisioningServiceTest {
+
+    @Autowired
+    private UserProvisioningService provisioningService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private final List<BulkUserResult> results = new ArrayList<>();
+
+    @Test
+    void provision_Csv_ShouldCreateUsersAndReportEachRow() throws IOException {
+        String csv = """
+                email,username,password
+                csv1@school.org,csv_user1,secret123
+                "csv2@school.org","csv_user2","pa,ss""word"
+
+                csv3@school.org,csv_user3,123
+                """;
+
+        Map<Status, Long> summary = provisioningService.provision(new StringReader(csv), Format.CSV, results::add);
+
+        assertEquals(Map.of(Status.CREATED, 2L, Status.INVALID, 1L), summary);
+        // Номера строк - физические (заголовок - строка 1, пустая строка пропущена)
+        assertEquals(List.of(2L, 3L, 5L), results.stream().map(BulkUserResult::getLine).toList());
+        assertEquals(Status.INVALID, results.get(2).getStatus());
+        assertNotNull(results.get(2).getMessage());
+
+        User created = userRepository.findByUsername("csv_user2").orElseThrow();
+        assertEquals("csv2@school.org", created.getEmail());
+        assertEquals(Role.ROLE_READER, created.getRole());
+        assertTrue(passwordEncoder.matches("pa,ss\"word", created.getPassword()));
+        assertFalse(userRepository.findByUsername("csv_user3").isPresent());
+    }
+
+    @Test
+    void provision_ShouldRejectDuplicatesInFileAndDatabase() throws IOException {
+        // Пачка из двух строк: повтор dup_user1 находится уже в следующей пачке - через запрос к БД
+        String ndjson = """
+                {"username":"dup_user1","email":"dup1@school.org","password":"secret123"}
+                {"username":"dup_user2","email":"dup1@school.org","password":"secret123"}
+                {"username":"dup_user1","email":"dup3@school.org","password":"secret123"}
+                {"username":"admin","email":"dup4@school.org","password":"secret123"}
+                {"username":"dup_user5","email":"dup5@school.org","password":"secret123"}
+                """;
+
+        Map<Status, Long> summary = provisioningService.provision(new StringReader(ndjson), Format.NDJSON, results::add);
+
+        assertEquals(Map.of(Status.CREATED, 2L, Status.DUPLICATE, 3L), summary);
+        assertEquals(List.of(Status.CREATED, Status.DUPLICATE, Status.DUPLICATE, Status.DUPLICATE, Status.CREATED),
+                results.stream().map(BulkUserResult::getStatus).toList());
+        assertEquals("Email is repeated in the file", results.get(1).getMessage());
+        assertEquals("Username is already taken", results.get(2).getMessage());
+        assertEquals("Username is already taken", results.get(3).getMessage());
+    }
+
+    @Test
+    void provision_MalformedJsonLine_ShouldBeReportedAndSkipped() throws IOException {
+        String ndjson = """
+                {"username":"json_user1",
+                {"username":"json_user2","email":"json2@school.org","password":"secret123"}
+                """;
+
+        provisioningService.provision(new StringReader(ndjson), Format.NDJSON, results::add);
+
+        assertEquals(Status.INVALID, results.get(0).getStatus());
+        assertTrue(results.get(0).getMessage().startsWith("Malformed JSON"));
+        assertEquals(Status.CREATED, results.get(1).getStatus());
+        assertTrue(userRepository.findByUsername("json_user2").isPresent());
+    }
+
+    @Test
+    void provision_CsvWithoutRequiredColumn_ShouldThrow() {
+        String csv = "username,password\nno_email,secret123\n";
+
+        assertThrows(InvalidBulkFileException.class,
+                () -> provisioningService.provision(new StringReader(csv), Format.CSV, results::add));
+        assertTrue(results.isEmpty());
+    }
+}
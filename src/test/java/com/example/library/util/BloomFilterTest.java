@@ -0,0 +1,49 @@
+package com.example.library.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    // Тест: добавленные элементы всегда находятся (нет ложноотрицательных ответов)
+    @Test
+    void mightContain_ShouldReturnTrueForAllInsertedValues() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        String[] values = IntStream.range(0, 10_000).mapToObj(i -> UUID.randomUUID().toString()).toArray(String[]::new);
+
+        for (String value : values) {
+            filter.put(value);
+        }
+
+        for (String value : values) {
+            assertTrue(filter.mightContain(value));
+        }
+    }
+
+    // Тест: доля ложных срабатываний близка к заданной
+    @Test
+    void mightContain_ShouldKeepFalsePositiveRateNearConfigured() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("revoked-" + i));
+
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain("active-" + i))
+                .count();
+
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    // Тест: размер фильтра определяется параметрами, а не числом добавленных элементов
+    @Test
+    void create_ShouldAllocateBoundedMemory() {
+        BloomFilter filter = BloomFilter.create(1_000_000, 0.01);
+
+        // ~9.6 бит на элемент
+        assertTrue(filter.sizeInBytes() < 1_300_000);
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(0, 0.01));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.library.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObjectPoolTest {
+
+    // Тест: возвращенный объект переиспользуется
+    @Test
+    void acquire_ShouldReuseReleasedInstance() {
+        AtomicInteger created = new AtomicInteger();
+        ObjectPool<Object> pool = new ObjectPool<>(2, () -> {
+            created.incrementAndGet();
+            return new Object();
+        });
+
+        Object first = pool.acquire();
+        pool.release(first);
+
+        assertSame(first, pool.acquire());
+        assertEquals(1, created.get());
+    }
+
+    // Тест: при пустом пуле создается новый объект, лишние объекты сверх емкости отбрасываются
+    @Test
+    void pool_ShouldCreateOnDemandAndDropExtraInstances() {
+        AtomicInteger created = new AtomicInteger();
+        ObjectPool<Object> pool = new ObjectPool<>(1, () -> {
+            created.incrementAndGet();
+            return new Object();
+        });
+
+        Object first = pool.acquire();
+        Object second = pool.acquire();
+        pool.release(first);
+        pool.release(second);
+
+        assertNotSame(first, second);
+        assertSame(first, pool.acquire());
+        assertNotSame(second, pool.acquire());
+        assertEquals(3, created.get());
+    }
+}
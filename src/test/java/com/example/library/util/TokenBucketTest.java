@@ -0,0 +1,82 @@
+package com.example.library.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    // Тест: разрешено не больше емкости подряд, затем - ожидание
+    @Test
+    void tryAcquire_ShouldAllowBurstUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(3, Duration.ofSeconds(3), 0);
+
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(SECOND, bucket.tryAcquire(0));
+        assertEquals(0, bucket.available(0));
+    }
+
+    // Тест: токены восполняются со временем
+    @Test
+    void tryAcquire_ShouldRefillOverTime() {
+        TokenBucket bucket = new TokenBucket(3, Duration.ofSeconds(3), 0);
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire(0);
+        }
+
+        assertEquals(1, bucket.available(SECOND));
+        assertEquals(0, bucket.tryAcquire(SECOND));
+        assertTrue(bucket.tryAcquire(SECOND) > 0);
+        assertEquals(3, bucket.available(10 * SECOND));
+    }
+
+    // Тест: несколько токенов берутся сразу или не берутся совсем
+    @Test
+    void tryAcquire_WithPermits_ShouldTakeAllOrNothing() {
+        TokenBucket bucket = new TokenBucket(10, Duration.ofSeconds(10), 0);
+
+        assertEquals(0, bucket.tryAcquire(0, 7));
+        assertEquals(2 * SECOND, bucket.tryAcquire(0, 5));
+        assertEquals(3, bucket.available(0));
+        assertEquals(0, bucket.tryAcquire(2 * SECOND, 5));
+        assertThrows(IllegalArgumentException.class, () -> bucket.tryAcquire(0, 11));
+        assertThrows(IllegalArgumentException.class, () -> bucket.tryAcquire(0, 0));
+    }
+
+    // Тест: при одновременных запросах ровно capacity разрешений
+    @Test
+    void tryAcquire_ShouldNotOverGrantUnderContention() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(100, Duration.ofHours(1), 0);
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        for (int i = 0; i < 1000; i++) {
+            pool.submit(() -> {
+                if (bucket.tryAcquire(0) == 0) {
+                    granted.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(100, granted.get());
+    }
+
+    // Тест: некорректные параметры
+    @Test
+    void constructor_ShouldRejectInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, Duration.ofSeconds(1), 0));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, Duration.ZERO, 0));
+    }
+}